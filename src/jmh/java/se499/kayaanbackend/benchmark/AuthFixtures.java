@@ -0,0 +1,101 @@
+package se499.kayaanbackend.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import se499.kayaanbackend.security.config.JwtService;
+import se499.kayaanbackend.security.token.TokenRepository;
+import se499.kayaanbackend.security.user.Role;
+import se499.kayaanbackend.security.user.User;
+import se499.kayaanbackend.security.user.UserDao;
+
+/**
+ * In-memory stand-ins for the beans on the authentication path, so benchmarks measure CPU cost only.
+ */
+final class AuthFixtures {
+
+    static final String SECRET =
+            "5274a74a32284bf55ed941fdb26517b050c020a43cb0cc66a9d207ac4f26ca644ea3b5fd011cffec733481bf3e68184611f9d7fc2b4a05bb59dff54ffc53ee0c";
+
+    private AuthFixtures() {
+    }
+
+    static JwtService jwtService() {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 604_800_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "initSigningKey");
+        return jwtService;
+    }
+
+    static User user() {
+        return User.builder()
+                .id(1)
+                .username("bench")
+                .email("bench@example.com")
+                .firstname("Bench")
+                .lastname("Mark")
+                .enabled(true)
+                .roles(List.of(Role.ROLE_USER))
+                .build();
+    }
+
+    static UserDao userDao(User... users) {
+        Map<Integer, User> byId = new HashMap<>();
+        Map<String, User> byUsername = new HashMap<>();
+        for (User user : users) {
+            byId.put(user.getId(), user);
+            byUsername.put(user.getUsername(), user);
+        }
+        return new UserDao() {
+            @Override
+            public User findByUsername(String username) {
+                return byUsername.get(username);
+            }
+
+            @Override
+            public User save(User user) {
+                byId.put(user.getId(), user);
+                byUsername.put(user.getUsername(), user);
+                return user;
+            }
+
+            @Override
+            public Optional<User> findById(Integer id) {
+                return Optional.ofNullable(byId.get(id));
+            }
+        };
+    }
+
+    /** Token table with no revoked rows: list queries return empty, lookups return nothing. */
+    static TokenRepository emptyTokenRepository() {
+        return (TokenRepository) Proxy.newProxyInstance(
+                TokenRepository.class.getClassLoader(),
+                new Class<?>[]{TokenRepository.class},
+                (proxy, method, args) -> {
+                    Class<?> returnType = method.getReturnType();
+                    if (List.class.isAssignableFrom(returnType)) {
+                        return List.of();
+                    }
+                    if (Optional.class.equals(returnType)) {
+                        return Optional.empty();
+                    }
+                    if (method.getName().equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    if (method.getName().equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    if (method.getName().equals("toString")) {
+                        return "InMemoryTokenRepository";
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
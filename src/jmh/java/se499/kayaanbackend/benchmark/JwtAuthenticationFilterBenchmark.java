@@ -0,0 +1,94 @@
+package se499.kayaanbackend.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import jakarta.servlet.FilterChain;
+import se499.kayaanbackend.security.config.JwtAuthenticationFilter;
+import se499.kayaanbackend.security.config.JwtAuthenticator;
+import se499.kayaanbackend.security.config.JwtService;
+import se499.kayaanbackend.security.token.TokenRepository;
+import se499.kayaanbackend.security.token.TokenRevocationIndex;
+import se499.kayaanbackend.security.user.PrincipalCache;
+import se499.kayaanbackend.security.user.PrincipalService;
+import se499.kayaanbackend.security.user.User;
+import se499.kayaanbackend.security.user.UserDao;
+
+/**
+ * Full per-request cost of {@link JwtAuthenticationFilter} for an authenticated API call,
+ * with the principal cache either warm or bypassed (every request misses and loads the user).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"true", "false"})
+    public boolean principalCacheWarm;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private FilterChain chain;
+    private Blackhole blackhole;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        JwtService jwtService = AuthFixtures.jwtService();
+        User user = AuthFixtures.user();
+        UserDao userDao = AuthFixtures.userDao(user);
+        UserDetailsService userDetailsService = username -> {
+            User found = userDao.findByUsername(username);
+            if (found == null) {
+                throw new UsernameNotFoundException("User not found");
+            }
+            return found;
+        };
+        TokenRepository tokenRepository = AuthFixtures.emptyTokenRepository();
+        TokenRevocationIndex revocationIndex = new TokenRevocationIndex(tokenRepository);
+        ReflectionTestUtils.setField(revocationIndex, "maxEntries", 100_000);
+        PrincipalCache principalCache = new PrincipalCache(principalCacheWarm ? 300_000L : 0L, 10_000);
+
+        PrincipalService principalService = new PrincipalService(userDao, principalCache);
+
+        JwtAuthenticator authenticator =
+                new JwtAuthenticator(jwtService, userDetailsService, revocationIndex, principalService);
+        filter = new JwtAuthenticationFilter(authenticator);
+
+        request = new MockHttpServletRequest("GET", "/api/groups/1/messages");
+        request.setServletPath("/api/groups/1/messages");
+        request.addHeader("Authorization", "Bearer " + jwtService.generateToken(user));
+        response = new MockHttpServletResponse();
+        chain = (req, res) -> blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Benchmark
+    public void authenticatedRequest() throws Exception {
+        // OncePerRequestFilter marks the request as filtered; clear it so every invocation does the full work
+        request.removeAttribute(filter.getClass().getName() + ".FILTERED");
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request, response, chain);
+    }
+}
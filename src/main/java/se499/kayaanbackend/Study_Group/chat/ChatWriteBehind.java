@@ -0,0 +1,274 @@
+package se499.kayaanbackend.Study_Group.chat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import se499.kayaanbackend.Study_Group.chat.ChatWriteBehindProperties.Durability;
+import se499.kayaanbackend.Study_Group.exception.ChatBusyException;
+
+/**
+ * รับข้อความแชทเข้าคิวของแต่ละกลุ่ม แล้วเขียนลงฐานข้อมูลเป็น batch ภายหลัง
+ * <p>
+ * A message gets its id and {@code created_at} while its group's queue is locked, so within a group
+ * (created_at, id) follows the order messages were accepted on this node. Each group's queue is
+ * drained by one writer at a time, oldest first, which keeps rows committed in the same order. A
+ * group's queue is bounded; once it is full, sends are refused with {@link ChatBusyException}
+ * instead of buffering without limit. On shutdown no new messages are accepted and everything
+ * already queued is written before the context closes.
+ */
+@Slf4j
+@Component
+public class ChatWriteBehind implements DisposableBean {
+
+    private static final long RETRY_BACKOFF_MILLIS = 200;
+
+    private final MessageIdAllocator idAllocator;
+    private final GroupMessageBatchWriter writer;
+    private final Durability durability;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long lingerMillis;
+    private final int maxAttempts;
+    private final long syncTimeoutMillis;
+    private final long shutdownTimeoutMillis;
+    private final ScheduledExecutorService executor;
+    private final ConcurrentHashMap<Integer, GroupQueue> queues = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Counter persisted;
+    private final Counter dropped;
+    private final Counter rejected;
+    private volatile boolean accepting = true;
+
+    public ChatWriteBehind(ChatWriteBehindProperties properties, MessageIdAllocator idAllocator,
+                           GroupMessageBatchWriter writer, MeterRegistry meterRegistry) {
+        this.idAllocator = idAllocator;
+        this.writer = writer;
+        this.durability = properties.getDurability();
+        this.queueCapacity = Math.max(1, properties.getQueueCapacity());
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        this.lingerMillis = durability == Durability.SYNC ? 0 : properties.getLinger().toMillis();
+        this.maxAttempts = Math.max(1, properties.getMaxAttempts());
+        this.syncTimeoutMillis = properties.getSyncTimeout().toMillis();
+        this.shutdownTimeoutMillis = properties.getShutdownTimeout().toMillis();
+
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(Math.max(1, properties.getWriterThreads()), r -> {
+            Thread thread = new Thread(r, "chat-write-behind-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.persisted = messages(meterRegistry, "persisted");
+        this.dropped = messages(meterRegistry, "dropped");
+        this.rejected = messages(meterRegistry, "rejected");
+        Gauge.builder("chat.write_behind.pending", pending, AtomicInteger::get)
+                .description("Chat messages accepted but not yet written")
+                .register(meterRegistry);
+    }
+
+    private static Counter messages(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("chat.write_behind.messages")
+                .tag("result", result)
+                .description("Chat messages handled by the write-behind pipeline")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a message for its group and returns it with its final id and timestamp. With
+     * {@code durability: sync} this waits until the message's batch is committed.
+     *
+     * @throws ChatBusyException if the group already has {@code queue-capacity} messages waiting,
+     *                           or the application is shutting down
+     */
+    public PendingMessage submit(Integer groupId, Integer userId, String content, String messageType) {
+        PendingMessage message = enqueue(groupId, userId, content, messageType);
+        if (durability == Durability.SYNC) {
+            awaitPersisted(message);
+        }
+        return message;
+    }
+
+    private PendingMessage enqueue(Integer groupId, Integer userId, String content, String messageType) {
+        while (true) {
+            if (!accepting) {
+                rejected.increment();
+                throw new ChatBusyException("Chat is shutting down, please retry");
+            }
+            GroupQueue queue = queues.computeIfAbsent(groupId, GroupQueue::new);
+            synchronized (queue) {
+                if (queue.retired) {
+                    queues.remove(groupId, queue);
+                    continue;
+                }
+                if (queue.items.size() >= queueCapacity) {
+                    rejected.increment();
+                    throw new ChatBusyException("Too many messages in this group right now, please retry");
+                }
+                LocalDateTime now = LocalDateTime.now();
+                LocalDateTime createdAt = queue.lastCreatedAt != null && !now.isAfter(queue.lastCreatedAt)
+                        ? queue.lastCreatedAt
+                        : now;
+                PendingMessage message = new PendingMessage(idAllocator.nextId(), groupId, userId, content,
+                        messageType, createdAt, new CompletableFuture<>());
+                queue.items.addLast(message);
+                queue.lastCreatedAt = createdAt;
+                queue.last = message.persisted();
+                pending.incrementAndGet();
+                if (!queue.scheduled) {
+                    queue.scheduled = true;
+                    schedule(queue, lingerMillis);
+                }
+                return message;
+            }
+        }
+    }
+
+    private void awaitPersisted(PendingMessage message) {
+        try {
+            message.persisted().get(syncTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while saving message", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Failed to save message", e);
+        }
+    }
+
+    /**
+     * Blocks until every message accepted so far for the group is written (or dropped).
+     * Update and delete paths call this so they never miss a message that is still queued.
+     */
+    public void flush(Integer groupId) {
+        GroupQueue queue = queues.get(groupId);
+        if (queue == null) {
+            return;
+        }
+        CompletableFuture<Void> last;
+        synchronized (queue) {
+            last = queue.last;
+        }
+        if (last != null) {
+            last.handle((ok, error) -> null).join();
+        }
+    }
+
+    public int pending() {
+        return pending.get();
+    }
+
+    private void schedule(GroupQueue queue, long delayMillis) {
+        try {
+            executor.schedule(() -> drain(queue), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // raced with shutdown: write it on the caller's thread rather than lose it
+            drain(queue);
+        }
+    }
+
+    private void drain(GroupQueue queue) {
+        while (true) {
+            List<PendingMessage> batch;
+            synchronized (queue) {
+                if (queue.items.isEmpty()) {
+                    queue.scheduled = false;
+                    queue.retired = true;
+                    queues.remove(queue.groupId, queue);
+                    return;
+                }
+                batch = new ArrayList<>(Math.min(batchSize, queue.items.size()));
+                while (batch.size() < batchSize && !queue.items.isEmpty()) {
+                    batch.add(queue.items.pollFirst());
+                }
+            }
+            write(batch);
+        }
+    }
+
+    private void write(List<PendingMessage> batch) {
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                writer.write(batch);
+                persisted.increment(batch.size());
+                pending.addAndGet(-batch.size());
+                batch.forEach(m -> m.persisted().complete(null));
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Writing {} chat messages for group {} failed (attempt {}/{})",
+                        batch.size(), batch.get(0).groupId(), attempt, maxAttempts, e);
+                if (attempt < maxAttempts && !sleep(RETRY_BACKOFF_MILLIS * attempt)) {
+                    break;
+                }
+            }
+        }
+        // แยกเขียนทีละแถว เพื่อไม่ให้แถวที่เสียแถวเดียวทำให้ทั้ง batch หายไป
+        for (PendingMessage message : batch) {
+            pending.decrementAndGet();
+            try {
+                writer.write(List.of(message));
+                persisted.increment();
+                message.persisted().complete(null);
+            } catch (RuntimeException e) {
+                log.error("Dropping chat message {} for group {}", message.id(), message.groupId(), e);
+                dropped.increment();
+                message.persisted().completeExceptionally(e);
+            }
+        }
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        accepting = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                log.warn("Chat write-behind did not finish within {} ms, {} messages were not written",
+                        shutdownTimeoutMillis, pending.get());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class GroupQueue {
+        private final Integer groupId;
+        private final ArrayDeque<PendingMessage> items = new ArrayDeque<>();
+        private LocalDateTime lastCreatedAt;
+        private CompletableFuture<Void> last;
+        private boolean scheduled;
+        private boolean retired;
+
+        private GroupQueue(Integer groupId) {
+            this.groupId = groupId;
+        }
+    }
+}
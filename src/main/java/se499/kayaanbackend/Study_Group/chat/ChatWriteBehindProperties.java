@@ -0,0 +1,53 @@
+package se499.kayaanbackend.Study_Group.chat;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * ค่าของ pipeline บันทึกแชทแบบ write-behind จาก {@code kayaan.chat.write-behind}
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "kayaan.chat.write-behind")
+public class ChatWriteBehindProperties {
+
+    /** when a send is acknowledged: once queued, or once its batch is committed */
+    private Durability durability = Durability.ASYNC;
+
+    /** messages a single group may have waiting to be written before sends are refused */
+    private int queueCapacity = 1000;
+
+    /** most rows written in one JDBC batch */
+    private int batchSize = 100;
+
+    /** how long an async group waits for more messages before its first batch is written */
+    private Duration linger = Duration.ofMillis(50);
+
+    /** threads writing batches; each group is written by at most one of them at a time */
+    private int writerThreads = 2;
+
+    /** message ids reserved from message_id_block in one round trip */
+    private int idBlockSize = 500;
+
+    /** batch attempts before falling back to row-by-row inserts */
+    private int maxAttempts = 3;
+
+    /** how long a sync send waits for its batch */
+    private Duration syncTimeout = Duration.ofSeconds(5);
+
+    /** how long shutdown waits for queued messages to be written */
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+    public enum Durability {
+        /** acknowledge after the message is queued; a crash loses at most the queued messages */
+        ASYNC,
+        /** acknowledge after the message's batch is committed */
+        SYNC
+    }
+}
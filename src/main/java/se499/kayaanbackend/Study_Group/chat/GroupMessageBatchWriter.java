@@ -0,0 +1,40 @@
+package se499.kayaanbackend.Study_Group.chat;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * เขียนข้อความลง group_message ด้วย JDBC batch
+ */
+@Component
+public class GroupMessageBatchWriter {
+
+    private static final String INSERT =
+            "INSERT INTO group_message (id, group_id, user_id, content, message_type, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public GroupMessageBatchWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /** Inserts the rows in order as one batch, committed together. */
+    public void write(List<PendingMessage> messages) {
+        List<Object[]> rows = messages.stream()
+                .map(m -> {
+                    Timestamp createdAt = Timestamp.valueOf(m.createdAt());
+                    return new Object[] {
+                            m.id(), m.groupId(), m.userId(), m.content(), m.messageType(), createdAt, createdAt };
+                })
+                .toList();
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, rows));
+    }
+}
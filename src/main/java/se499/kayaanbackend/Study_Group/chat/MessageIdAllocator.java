@@ -0,0 +1,70 @@
+package se499.kayaanbackend.Study_Group.chat;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import se499.kayaanbackend.Study_Group.entity.MessageIdBlock;
+
+/**
+ * จอง id ของ group_message เป็นก้อนจากตาราง {@code message_id_block}
+ * <p>
+ * Ids are handed out before the row is written, so a send can be acknowledged with its final id
+ * while the insert is still queued. Each node reserves {@code id-block-size} ids per round trip;
+ * the block never starts below the table's current {@code MAX(id)}, so rows inserted through the
+ * IDENTITY column are never reused. Ids increase in allocation order on one node, unused ids of a
+ * block are lost on restart. The table is mapped by {@link MessageIdBlock} so it exists without the
+ * migrations.
+ */
+@Component
+public class MessageIdAllocator {
+
+    private static final String SEQUENCE = "group_message";
+
+    private static final String SELECT_NEXT = "SELECT next_id FROM message_id_block WHERE name = ? FOR UPDATE";
+    private static final String INSERT_SEQUENCE = "INSERT IGNORE INTO message_id_block (name, next_id) VALUES (?, 1)";
+    private static final String SELECT_MAX_ID = "SELECT COALESCE(MAX(id), 0) + 1 FROM group_message";
+    private static final String ADVANCE = "UPDATE message_id_block SET next_id = ? WHERE name = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int blockSize;
+
+    private long next;
+    private long end;
+
+    public MessageIdAllocator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              ChatWriteBehindProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        // the sequence row stays locked until commit, so never join (and outlive) the caller's transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = Math.max(1, properties.getIdBlockSize());
+    }
+
+    public synchronized long nextId() {
+        if (next >= end) {
+            reserve();
+        }
+        return next++;
+    }
+
+    private void reserve() {
+        long start = transactionTemplate.execute(status -> {
+            List<Long> rows = jdbcTemplate.queryForList(SELECT_NEXT, Long.class, SEQUENCE);
+            if (rows.isEmpty()) {
+                jdbcTemplate.update(INSERT_SEQUENCE, SEQUENCE);
+                rows = jdbcTemplate.queryForList(SELECT_NEXT, Long.class, SEQUENCE);
+            }
+            long first = Math.max(rows.get(0), jdbcTemplate.queryForObject(SELECT_MAX_ID, Long.class));
+            jdbcTemplate.update(ADVANCE, first + blockSize, SEQUENCE);
+            return first;
+        });
+        next = start;
+        end = start + blockSize;
+    }
+}
@@ -0,0 +1,20 @@
+package se499.kayaanbackend.Study_Group.chat;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * ข้อความที่รับแล้วแต่อาจยังไม่ถูกเขียนลงฐานข้อมูล
+ * <p>
+ * {@code id} and {@code createdAt} are final when the message is queued; {@code persisted} completes
+ * once its row is committed, or exceptionally if the row was dropped.
+ */
+public record PendingMessage(
+    long id,
+    Integer groupId,
+    Integer userId,
+    String content,
+    String messageType,
+    LocalDateTime createdAt,
+    CompletableFuture<Void> persisted
+) {}
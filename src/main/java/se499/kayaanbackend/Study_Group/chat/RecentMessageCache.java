@@ -0,0 +1,464 @@
+package se499.kayaanbackend.Study_Group.chat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import se499.kayaanbackend.Study_Group.dto.MessageCursor;
+import se499.kayaanbackend.Study_Group.dto.MessageResponse;
+import se499.kayaanbackend.shared.realtime.RealtimeBus;
+
+/**
+ * เก็บข้อความล่าสุดของกลุ่มที่ active ไว้ในหน่วยความจำ เพื่อเปิดห้องแชทโดยไม่ต้อง query
+ * <p>
+ * Each group gets a ring buffer of its newest {@code per-group} messages in (created_at, id)
+ * order. A buffer always holds a contiguous newest slice of the group's history: it is seeded from
+ * the database once, then kept current by sends, edits and deletes, so it can answer the latest
+ * page and "newer than cursor" polls without a query. A buffer that was seeded with fewer rows
+ * than it can hold knows it has the whole history.
+ * <p>
+ * Buffers are evicted least-recently-used once their estimated size passes {@code max-bytes},
+ * and reseeded after {@code ttl-ms}. Changes are also published on {@link #CHANGE_CHANNEL}; applying
+ * one is idempotent, so other nodes can follow along and the TTL bounds how stale a missed change
+ * can leave them.
+ */
+@Slf4j
+@Component
+public class RecentMessageCache {
+
+    public static final String CHANGE_CHANNEL = "cluster.chat.recent";
+
+    private static final Comparator<MessageResponse> ORDER =
+            Comparator.comparing(MessageResponse::createdAt).thenComparing(MessageResponse::id);
+
+    private final int perGroup;
+    private final long maxBytes;
+    private final long ttlMillis;
+    private final RealtimeBus realtimeBus;
+    private final LinkedHashMap<Integer, Ring> groups = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong bytes = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public RecentMessageCache(
+            @Value("${kayaan.chat.recent-cache.per-group:50}") int perGroup,
+            @Value("${kayaan.chat.recent-cache.max-bytes:67108864}") long maxBytes,
+            @Value("${kayaan.chat.recent-cache.ttl-ms:300000}") long ttlMillis,
+            RealtimeBus realtimeBus,
+            MeterRegistry meterRegistry) {
+        this.perGroup = Math.max(1, perGroup);
+        this.maxBytes = maxBytes;
+        this.ttlMillis = ttlMillis;
+        this.realtimeBus = realtimeBus;
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+        this.evictions = Counter.builder("chat.recent_cache.evictions")
+                .description("Groups evicted from the recent message cache to stay under max-bytes")
+                .register(meterRegistry);
+        Gauge.builder("chat.recent_cache.groups", this, RecentMessageCache::groupCount)
+                .register(meterRegistry);
+        Gauge.builder("chat.recent_cache.bytes", bytes, AtomicLong::get)
+                .description("Estimated heap held by the recent message cache")
+                .register(meterRegistry);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("chat.recent_cache.lookups")
+                .tag("result", result)
+                .description("Chat history pages answered from the recent message cache")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void subscribe() {
+        realtimeBus.subscribe(CHANGE_CHANNEL, (channel, message) -> {
+            if (message instanceof Change change) {
+                applyLocally(change);
+            }
+        });
+    }
+
+    /** Most messages a single group's buffer holds. */
+    public int capacity() {
+        return perGroup;
+    }
+
+    /**
+     * The newest {@code count} messages, newest first, or empty if the buffer cannot answer for
+     * sure (not seeded, expired, or holding fewer than {@code count} of a longer history).
+     */
+    public Optional<List<MessageResponse>> latest(Integer groupId, int count) {
+        Ring ring = live(groupId);
+        if (ring != null) {
+            synchronized (ring) {
+                if (ring.ready && (ring.size >= count || ring.complete)) {
+                    hits.increment();
+                    return Optional.of(ring.newest(count));
+                }
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Up to {@code count} messages after the cursor, oldest first, or empty if older messages the
+     * buffer no longer holds could be part of the answer.
+     */
+    public Optional<List<MessageResponse>> after(Integer groupId, MessageCursor cursor, int count) {
+        Ring ring = live(groupId);
+        if (ring != null) {
+            synchronized (ring) {
+                if (ring.ready && (ring.complete || (ring.size > 0 && compare(cursor, ring.get(0)) >= 0))) {
+                    hits.increment();
+                    return Optional.of(ring.after(cursor, count));
+                }
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Seeds the group's buffer from {@code newestRows} (the newest {@link #capacity()} rows, newest
+     * first) and returns the newest {@code count} messages. Sends, edits and deletes that happen
+     * while the rows are being read are kept, so nothing accepted during the load is lost.
+     */
+    public List<MessageResponse> load(Integer groupId, int count, Supplier<List<MessageResponse>> newestRows) {
+        Ring ring;
+        synchronized (groups) {
+            ring = groups.get(groupId);
+            if (ring == null || ring.isExpired() || (ring.ready && !ring.complete && ring.size < count)) {
+                remove(groupId);
+                ring = new Ring(perGroup);
+                groups.put(groupId, ring);
+            } else {
+                ring = null;                          // filled by a concurrent load, or being seeded by one
+            }
+        }
+        List<MessageResponse> rows;
+        try {
+            rows = newestRows.get();
+        } catch (RuntimeException e) {
+            if (ring != null) {
+                synchronized (groups) {
+                    if (groups.get(groupId) == ring) {
+                        remove(groupId);
+                    }
+                }
+            }
+            throw e;
+        }
+        if (ring == null) {
+            return rows.subList(0, Math.min(count, rows.size()));
+        }
+        List<MessageResponse> newest;
+        synchronized (ring) {
+            long before = ring.bytes;
+            ring.seed(rows, rows.size() < perGroup, System.currentTimeMillis() + ttlMillis);
+            account(ring, before);
+            newest = ring.newest(count);
+        }
+        enforceLimit();
+        return newest;
+    }
+
+    /** Adds a message that was just sent. */
+    public void append(MessageResponse message) {
+        publish(Change.upsert(message));
+    }
+
+    /** Replaces an edited message once the edit commits. */
+    public void update(MessageResponse message) {
+        afterCommit(() -> publish(Change.upsert(message)));
+    }
+
+    /** Drops a deleted (or never written) message once the delete commits. */
+    public void remove(Integer groupId, Long messageId) {
+        afterCommit(() -> publish(Change.remove(groupId, messageId)));
+    }
+
+    /**
+     * Applies a change received from another node without publishing it again.
+     */
+    public void applyLocally(Change change) {
+        Ring ring;
+        synchronized (groups) {
+            ring = groups.get(change.groupId());
+        }
+        if (ring == null) {
+            return;
+        }
+        synchronized (ring) {
+            long before = ring.bytes;
+            if (change.message() != null) {
+                ring.upsert(change.message());
+            } else {
+                ring.remove(change.messageId());
+            }
+            account(ring, before);
+        }
+        enforceLimit();
+    }
+
+    public int groupCount() {
+        synchronized (groups) {
+            return groups.size();
+        }
+    }
+
+    public long estimatedBytes() {
+        return bytes.get();
+    }
+
+    private Ring live(Integer groupId) {
+        synchronized (groups) {
+            Ring ring = groups.get(groupId);
+            if (ring != null && ring.isExpired()) {
+                remove(groupId);
+                return null;
+            }
+            return ring;
+        }
+    }
+
+    private void publish(Change change) {
+        applyLocally(change);
+        try {
+            realtimeBus.publish(CHANGE_CHANNEL, change);
+        } catch (RuntimeException e) {
+            log.warn("Failed to broadcast recent message change for group {}: {}", change.groupId(), e.getMessage());
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void enforceLimit() {
+        if (bytes.get() <= maxBytes) {
+            return;
+        }
+        synchronized (groups) {
+            Iterator<Map.Entry<Integer, Ring>> it = groups.entrySet().iterator();
+            while (bytes.get() > maxBytes && it.hasNext()) {
+                Ring ring = it.next().getValue();
+                it.remove();
+                detach(ring);
+                evictions.increment();
+            }
+        }
+    }
+
+    /** Caller holds the {@code groups} lock. */
+    private void remove(Integer groupId) {
+        Ring ring = groups.remove(groupId);
+        if (ring != null) {
+            detach(ring);
+        }
+    }
+
+    private void detach(Ring ring) {
+        synchronized (ring) {
+            bytes.addAndGet(-ring.bytes);
+            ring.attached = false;
+        }
+    }
+
+    /** Caller holds the ring's lock; a ring already evicted no longer counts toward the cap. */
+    private void account(Ring ring, long bytesBefore) {
+        if (ring.attached) {
+            bytes.addAndGet(ring.bytes - bytesBefore);
+        }
+    }
+
+    private static int compare(MessageCursor cursor, MessageResponse message) {
+        int byTime = cursor.createdAt().compareTo(message.createdAt());
+        return byTime != 0 ? byTime : cursor.id().compareTo(message.id());
+    }
+
+    /** Rough heap cost of one cached message: object headers plus its strings. */
+    private static long estimate(MessageResponse message) {
+        int chars = (message.content() == null ? 0 : message.content().length())
+                + (message.userName() == null ? 0 : message.userName().length())
+                + (message.messageType() == null ? 0 : message.messageType().length());
+        return 200 + 2L * chars;
+    }
+
+    /**
+     * A change to one group's recent messages; {@code message} is null for a removal.
+     */
+    public record Change(Integer groupId, MessageResponse message, Long messageId) {
+
+        static Change upsert(MessageResponse message) {
+            return new Change(message.groupId(), message, message.id());
+        }
+
+        static Change remove(Integer groupId, Long messageId) {
+            return new Change(groupId, null, messageId);
+        }
+    }
+
+    /**
+     * Fixed-size ring of one group's newest messages, oldest at {@code head}. Guarded by its own monitor.
+     */
+    private static final class Ring {
+        private final MessageResponse[] slots;
+        private int head;
+        private int size;
+        private long bytes;
+        /** still in the cache; cleared on eviction so late changes are not counted */
+        private boolean attached = true;
+        /** true once seeded from the database; until then only changes are recorded */
+        private boolean ready;
+        /** the ring holds the group's entire history */
+        private boolean complete;
+        /** some message fell off the old end, so the ring can no longer be complete */
+        private boolean dropped;
+        private long expiresAt = Long.MAX_VALUE;
+        /** messages deleted while seeding, which the rows being read may still contain */
+        private Set<Long> removedWhileSeeding = new HashSet<>();
+
+        private Ring(int capacity) {
+            this.slots = new MessageResponse[capacity];
+        }
+
+        boolean isExpired() {
+            return expiresAt <= System.currentTimeMillis();
+        }
+
+        MessageResponse get(int i) {
+            return slots[(head + i) % slots.length];
+        }
+
+        private void set(int i, MessageResponse message) {
+            slots[(head + i) % slots.length] = message;
+        }
+
+        void seed(List<MessageResponse> newestFirst, boolean wholeHistory, long expiresAt) {
+            for (int i = newestFirst.size() - 1; i >= 0; i--) {
+                MessageResponse row = newestFirst.get(i);
+                // a change recorded during the load is newer than the row read for the same id
+                if (!removedWhileSeeding.contains(row.id()) && indexOf(row.id()) < 0) {
+                    insert(row, true);
+                }
+            }
+            this.complete = wholeHistory && !dropped;
+            this.ready = true;
+            this.removedWhileSeeding = null;
+            this.expiresAt = expiresAt;
+        }
+
+        void upsert(MessageResponse message) {
+            int index = indexOf(message.id());
+            if (index >= 0) {
+                bytes += estimate(message) - estimate(get(index));
+                set(index, message);
+            } else {
+                insert(message, !ready);
+            }
+        }
+
+        void remove(Long messageId) {
+            if (removedWhileSeeding != null) {
+                removedWhileSeeding.add(messageId);
+            }
+            int index = indexOf(messageId);
+            if (index < 0) {
+                return;
+            }
+            bytes -= estimate(get(index));
+            for (int i = index; i < size - 1; i++) {
+                set(i, get(i + 1));
+            }
+            set(size - 1, null);
+            size--;
+        }
+
+        private void insert(MessageResponse message, boolean seeding) {
+            int pos = size;
+            while (pos > 0 && ORDER.compare(get(pos - 1), message) > 0) {
+                pos--;
+            }
+            if (pos == 0 && size > 0 && !complete && !seeding) {
+                return;                               // older than anything held; the gap before it is unknown
+            }
+            if (size == slots.length) {
+                dropped = true;
+                complete = false;
+                if (pos == 0) {
+                    return;
+                }
+                bytes -= estimate(get(0));
+                set(0, null);
+                head = (head + 1) % slots.length;
+                size--;
+                pos--;
+            }
+            for (int i = size; i > pos; i--) {
+                set(i, get(i - 1));
+            }
+            set(pos, message);
+            size++;
+            bytes += estimate(message);
+        }
+
+        private int indexOf(Long messageId) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (get(i).id().equals(messageId)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        List<MessageResponse> newest(int count) {
+            int n = Math.min(count, size);
+            List<MessageResponse> result = new ArrayList<>(n);
+            for (int i = size - 1; i >= size - n; i--) {
+                result.add(get(i));
+            }
+            return result;
+        }
+
+        List<MessageResponse> after(MessageCursor cursor, int count) {
+            int start = size;
+            while (start > 0 && compare(cursor, get(start - 1)) < 0) {
+                start--;
+            }
+            List<MessageResponse> result = new ArrayList<>(Math.min(count, size - start));
+            for (int i = start; i < size && result.size() < count; i++) {
+                result.add(get(i));
+            }
+            return result;
+        }
+    }
+}
@@ -1,44 +1,61 @@
 package se499.kayaanbackend.Study_Group.controller;
 
+import java.security.Principal;
+import java.util.Map;
+
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 
 import lombok.RequiredArgsConstructor;
-import se499.kayaanbackend.Study_Group.dto.MessageResponse;
+import lombok.extern.slf4j.Slf4j;
 import se499.kayaanbackend.Study_Group.dto.MessageRequest;
+import se499.kayaanbackend.Study_Group.security.RateLimitService;
+import se499.kayaanbackend.Study_Group.security.ratelimit.RateLimitAction;
 import se499.kayaanbackend.Study_Group.service.GroupMessageService;
+import se499.kayaanbackend.security.user.User;
 
+/**
+ * แชทสดผ่าน STOMP: client ส่งไปที่ /app/groups/{groupId}/chat และรับข้อความจาก /topic/groups/{groupId}
+ * <p>
+ * The sender is the principal bound at CONNECT. {@link GroupMessageService#sendMessage} broadcasts
+ * the message to the group topic as soon as it is accepted and the row is written behind it.
+ * Failures go back to the sender only, on /user/queue/errors.
+ */
+@Slf4j
 @Controller
 @RequiredArgsConstructor
 public class GroupChatController {
     private final GroupMessageService groupMessageService;
+    private final RateLimitService rateLimitService;
 
     @MessageMapping("/groups/{groupId}/chat")
-    @SendTo("/topic/groups/{groupId}")
-    public MessageResponse sendMessage(@Payload IncomingMessage request) {
-        try {
-            // Extract groupId from the path variable (you might need to adjust this based on your WebSocket setup)
-            Integer groupId = extractGroupIdFromContext();
-            Integer userId = extractUserIdFromContext();
-            
-            return groupMessageService.sendMessage(userId, groupId, new MessageRequest(request.content(), "text"));
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to save message", e);
-        }
+    public void sendMessage(@DestinationVariable Integer groupId, @Payload IncomingMessage request, Principal principal) {
+        User user = currentUser(principal);
+
+        // REST sends are limited by RateLimitInterceptor; STOMP frames never pass through it
+        rateLimitService.acquireOrThrow(RateLimitAction.SEND_MESSAGE, user.getId().longValue(), groupId.longValue());
+
+        groupMessageService.sendMessage(user, groupId, new MessageRequest(request.content(), "text"));
     }
 
-    public record IncomingMessage(String content) {}
-    
-    // TODO: Implement these methods based on your WebSocket context setup
-    private Integer extractGroupIdFromContext() {
-        // This should extract groupId from WebSocket session or message context
-        throw new RuntimeException("Not implemented - need WebSocket context setup");
+    @MessageExceptionHandler
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public Map<String, String> handleError(Exception e) {
+        log.debug("Chat message rejected", e);
+        return Map.of("error", e.getClass().getSimpleName(), "message", String.valueOf(e.getMessage()));
     }
-    
-    private Integer extractUserIdFromContext() {
-        // This should extract userId from WebSocket session or message context
-        throw new RuntimeException("Not implemented - need WebSocket context setup");
+
+    public record IncomingMessage(String content) {}
+
+    private static User currentUser(Principal principal) {
+        if (principal instanceof Authentication authentication && authentication.getPrincipal() instanceof User user) {
+            return user;
+        }
+        throw new IllegalStateException("STOMP session is not authenticated");
     }
 }
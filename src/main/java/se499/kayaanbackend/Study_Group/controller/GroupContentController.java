@@ -21,6 +21,8 @@ import se499.kayaanbackend.Study_Group.dto.UploadResourceInitRequest;
 import se499.kayaanbackend.Study_Group.dto.UploadResourceInitResponse;
 import se499.kayaanbackend.Study_Group.dto.UpdateResourceRequest;
 import se499.kayaanbackend.Study_Group.service.GroupContentService;
+import se499.kayaanbackend.Study_Group.security.ratelimit.RateLimitAction;
+import se499.kayaanbackend.Study_Group.security.ratelimit.RateLimited;
 import se499.kayaanbackend.security.user.User;
 
 @RestController
@@ -42,6 +44,7 @@ public class GroupContentController {
         return ResponseEntity.ok(resources);
     }
     
+    @RateLimited(RateLimitAction.UPLOAD_FILE)
     @PostMapping("/{groupId}/resources/upload-url")
     public ResponseEntity<UploadResourceInitResponse> initUpload(
             @AuthenticationPrincipal User currentUser,
@@ -51,6 +54,7 @@ public class GroupContentController {
         return ResponseEntity.ok(response);
     }
     
+    @RateLimited(RateLimitAction.POST_CONTENT)
     @PostMapping("/{groupId}/resources")
     public ResponseEntity<ResourceResponse> completeUpload(
             @AuthenticationPrincipal User currentUser,
@@ -60,6 +64,7 @@ public class GroupContentController {
         return ResponseEntity.ok(resource);
     }
     
+    @RateLimited(RateLimitAction.DELETE_CONTENT)
     @DeleteMapping("/{groupId}/resources/{resourceId}")
     public ResponseEntity<Void> deleteResource(
             @AuthenticationPrincipal User currentUser,
@@ -75,6 +80,7 @@ public class GroupContentController {
         return ResponseEntity.ok().build();
     }
     
+    @RateLimited(RateLimitAction.EDIT_CONTENT)
     @PutMapping("/{groupId}/resources/{resourceId}")
     public ResponseEntity<ResourceResponse> updateResource(
             @AuthenticationPrincipal User currentUser,
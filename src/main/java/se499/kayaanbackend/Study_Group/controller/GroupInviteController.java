@@ -11,7 +11,10 @@ import se499.kayaanbackend.Study_Group.GroupInvite;
 import se499.kayaanbackend.Study_Group.security.GroupPermission;
 import se499.kayaanbackend.Study_Group.security.GroupPermissionService;
 import se499.kayaanbackend.Study_Group.security.InviteCodeService;
+import se499.kayaanbackend.Study_Group.security.RateLimitService;
+import se499.kayaanbackend.Study_Group.security.ratelimit.RateLimitAction;
 import se499.kayaanbackend.Study_Group.repository.GroupInviteRepository;
+import se499.kayaanbackend.security.user.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -32,17 +35,22 @@ public class GroupInviteController {
     @Autowired
     private GroupInviteRepository groupInviteRepository;
     
+    @Autowired
+    private RateLimitService rateLimitService;
+    
     /**
      * สร้างรหัสเชิญใหม่
      */
     @PostMapping("/create")
     public ResponseEntity<ApiResponse<GroupInvite>> createInvite(
             @RequestBody CreateInviteRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal User currentUser) {
+        
+        Long userId = currentUser.getId().longValue();
+        // กลุ่มมาจาก body จึงจำกัดที่นี่แทน @RateLimited ซึ่งอ่านได้เฉพาะ path variable
+        rateLimitService.acquireOrThrow(RateLimitAction.CREATE_INVITE, userId, request.groupId());
         
         try {
-            Long userId = Long.parseLong(userDetails.getUsername());
-            
             // ตรวจสอบสิทธิ์ในการเชิญสมาชิก
             if (!groupPermissionService.hasPermission(userId, request.groupId(), GroupPermission.INVITE_MEMBERS)) {
                 return ResponseEntity.status(403)
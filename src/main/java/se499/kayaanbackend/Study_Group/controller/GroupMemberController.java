@@ -20,6 +20,8 @@ import se499.kayaanbackend.Study_Group.dto.InviteByEmailRequest;
 import se499.kayaanbackend.Study_Group.dto.MemberResponse;
 import se499.kayaanbackend.Study_Group.dto.UpdateMemberRoleRequest;
 import se499.kayaanbackend.Study_Group.service.GroupMemberService;
+import se499.kayaanbackend.Study_Group.security.ratelimit.RateLimitAction;
+import se499.kayaanbackend.Study_Group.security.ratelimit.RateLimited;
 import se499.kayaanbackend.security.user.User;
 
 @RestController
@@ -62,6 +64,7 @@ public class GroupMemberController {
         return ResponseEntity.ok().build();
     }
     
+    @RateLimited(RateLimitAction.INVITE_MEMBERS)
     @PostMapping("/{groupId}/invite-by-email")
     public ResponseEntity<Void> inviteByEmail(
             @AuthenticationPrincipal User currentUser,
@@ -1,7 +1,5 @@
 package se499.kayaanbackend.Study_Group.controller;
 
-import java.util.List;
-
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,9 +13,12 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import lombok.RequiredArgsConstructor;
+import se499.kayaanbackend.Study_Group.dto.MessagePageResponse;
 import se499.kayaanbackend.Study_Group.dto.MessageRequest;
 import se499.kayaanbackend.Study_Group.dto.MessageResponse;
 import se499.kayaanbackend.Study_Group.service.GroupMessageService;
+import se499.kayaanbackend.Study_Group.security.ratelimit.RateLimitAction;
+import se499.kayaanbackend.Study_Group.security.ratelimit.RateLimited;
 import se499.kayaanbackend.security.user.User;
 
 @RestController
@@ -27,25 +28,28 @@ public class GroupMessageController {
     
     private final GroupMessageService groupMessageService;
     
+    @RateLimited(RateLimitAction.SEND_MESSAGE)
     @PostMapping("/{groupId}/messages")
     public ResponseEntity<MessageResponse> sendMessage(
             @AuthenticationPrincipal User currentUser,
             @PathVariable Integer groupId,
             @RequestBody MessageRequest request) {
-        MessageResponse message = groupMessageService.sendMessage(currentUser.getId(), groupId, request);
+        MessageResponse message = groupMessageService.sendMessage(currentUser, groupId, request);
         return ResponseEntity.ok(message);
     }
     
     @GetMapping("/{groupId}/messages")
-    public ResponseEntity<List<MessageResponse>> getMessages(
+    public ResponseEntity<MessagePageResponse> getMessages(
             @AuthenticationPrincipal User currentUser,
             @PathVariable Integer groupId,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
             @RequestParam(defaultValue = "20") int size) {
-        List<MessageResponse> messages = groupMessageService.getMessages(currentUser.getId(), groupId, page, size);
+        MessagePageResponse messages = groupMessageService.getMessages(currentUser.getId(), groupId, before, after, size);
         return ResponseEntity.ok(messages);
     }
     
+    @RateLimited(RateLimitAction.EDIT_CONTENT)
     @PutMapping("/{groupId}/messages/{messageId}")
     public ResponseEntity<MessageResponse> updateMessage(
             @AuthenticationPrincipal User currentUser,
@@ -56,6 +60,7 @@ public class GroupMessageController {
         return ResponseEntity.ok(message);
     }
     
+    @RateLimited(RateLimitAction.DELETE_CONTENT)
     @DeleteMapping("/{groupId}/messages/{messageId}")
     public ResponseEntity<Void> deleteMessage(
             @AuthenticationPrincipal User currentUser,
@@ -0,0 +1,40 @@
+package se499.kayaanbackend.Study_Group.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+import se499.kayaanbackend.Study_Group.dto.NotificationResponse;
+import se499.kayaanbackend.Study_Group.service.GroupNotificationService;
+import se499.kayaanbackend.security.user.User;
+
+@RestController
+@RequestMapping("/api/notifications")
+@RequiredArgsConstructor
+public class GroupNotificationController {
+    
+    private final GroupNotificationService notificationService;
+    
+    @GetMapping
+    public ResponseEntity<List<NotificationResponse>> getInbox(
+            @AuthenticationPrincipal User currentUser,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(notificationService.getInbox(currentUser.getId(), limit));
+    }
+    
+    @PostMapping("/groups/{groupId}/read")
+    public ResponseEntity<Void> markRead(
+            @AuthenticationPrincipal User currentUser,
+            @PathVariable Integer groupId) {
+        notificationService.markRead(currentUser.getId(), groupId);
+        return ResponseEntity.ok().build();
+    }
+}
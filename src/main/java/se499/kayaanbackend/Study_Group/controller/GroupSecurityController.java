@@ -6,12 +6,17 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import se499.kayaanbackend.Study_Group.dto.ApiResponse;
+import se499.kayaanbackend.Study_Group.dto.BatchPermissionCheckRequest;
+import se499.kayaanbackend.Study_Group.dto.BatchPermissionCheckResponse;
 import se499.kayaanbackend.Study_Group.dto.PermissionCheckResponse;
 import se499.kayaanbackend.Study_Group.security.GroupPermission;
 import se499.kayaanbackend.Study_Group.security.GroupPermissionService;
 import se499.kayaanbackend.Study_Group.security.PermissionIntegrationService;
+import se499.kayaanbackend.Study_Group.security.RateLimitService;
+import se499.kayaanbackend.Study_Group.security.ratelimit.RateLimitSnapshot;
 import se499.kayaanbackend.Study_Group.security.ContentAuditLog;
 import se499.kayaanbackend.Study_Group.repository.ContentAuditLogRepository;
+import se499.kayaanbackend.security.user.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -35,6 +40,9 @@ public class GroupSecurityController {
     @Autowired
     private ContentAuditLogRepository contentAuditLogRepository;
     
+    @Autowired
+    private RateLimitService rateLimitService;
+    
     /**
      * ตรวจสอบสิทธิ์ของผู้ใช้
      */
@@ -68,6 +76,29 @@ public class GroupSecurityController {
         }
     }
     
+    /**
+     * ตรวจสอบสิทธิ์ของผู้ใช้ในหลายกลุ่มพร้อมกัน
+     */
+    @PostMapping("/permissions/batch")
+    public ResponseEntity<ApiResponse<BatchPermissionCheckResponse>> checkPermissionsBatch(
+            @RequestBody BatchPermissionCheckRequest request,
+            @AuthenticationPrincipal User currentUser) {
+        
+        try {
+            BatchPermissionCheckResponse response = permissionIntegrationService.checkPermissions(
+                currentUser.getId().longValue(), request.groupIds(), request.permissions());
+            
+            return ResponseEntity.ok(ApiResponse.success("Batch permission check completed", response));
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                .body(ApiResponse.error("Error checking permissions: " + e.getMessage()));
+        }
+    }
+    
     /**
      * ดึงประวัติการเข้าถึงเนื้อหาของกลุ่ม
      */
@@ -175,4 +206,16 @@ public class GroupSecurityController {
                 .body(ApiResponse.error("Error retrieving group analytics: " + e.getMessage()));
         }
     }
+    
+    /**
+     * ดูโควต้าที่เหลือของทุก action ในกลุ่ม (อ่านอย่างเดียว ไม่ใช้โควต้า)
+     */
+    @GetMapping("/rate-limits/{groupId}")
+    public ResponseEntity<ApiResponse<RateLimitSnapshot>> getRateLimits(
+            @PathVariable Long groupId,
+            @AuthenticationPrincipal User currentUser) {
+        
+        RateLimitSnapshot snapshot = rateLimitService.snapshot(currentUser.getId().longValue(), groupId);
+        return ResponseEntity.ok(ApiResponse.success("Rate limit snapshot retrieved", snapshot));
+    }
 }
@@ -19,6 +19,8 @@ import se499.kayaanbackend.Study_Group.dto.InviteResponse;
 import se499.kayaanbackend.Study_Group.dto.JoinByTokenRequest;
 import se499.kayaanbackend.Study_Group.dto.StudyGroupResponse;
 import se499.kayaanbackend.Study_Group.service.StudyGroupService;
+import se499.kayaanbackend.Study_Group.security.ratelimit.RateLimitAction;
+import se499.kayaanbackend.Study_Group.security.ratelimit.RateLimited;
 import se499.kayaanbackend.security.user.User;
 
 @RestController
@@ -28,6 +30,7 @@ public class StudyGroupController {
     
     private final StudyGroupService studyGroupService;
     
+    @RateLimited(RateLimitAction.CREATE_GROUP)
     @PostMapping
     public ResponseEntity<StudyGroupResponse> createGroup(
             @AuthenticationPrincipal User user,
@@ -89,6 +92,7 @@ public class StudyGroupController {
         return ResponseEntity.ok().build();
     }
     
+    @RateLimited(RateLimitAction.CREATE_INVITE)
     @PostMapping("/{groupId}/invites")
     public ResponseEntity<InviteResponse> generateInvite(
             @AuthenticationPrincipal User currentUser,
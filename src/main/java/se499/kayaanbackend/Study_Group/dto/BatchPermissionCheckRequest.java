@@ -0,0 +1,14 @@
+package se499.kayaanbackend.Study_Group.dto;
+
+import se499.kayaanbackend.Study_Group.security.GroupPermission;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ตรวจสิทธิ์หลายกลุ่มพร้อมกัน; ถ้าไม่ระบุ permissions จะคืนสิทธิ์ทั้งหมดของบทบาท
+ */
+public record BatchPermissionCheckRequest(
+    List<Long> groupIds,
+    Set<GroupPermission> permissions
+) {}
@@ -0,0 +1,19 @@
+package se499.kayaanbackend.Study_Group.dto;
+
+import se499.kayaanbackend.Study_Group.security.GroupPermission;
+import se499.kayaanbackend.Study_Group.security.GroupRole;
+
+import java.util.List;
+import java.util.Set;
+
+public record BatchPermissionCheckResponse(
+    Long userId,
+    List<GroupPermissions> groups
+) {
+    public record GroupPermissions(
+        Long groupId,
+        boolean member,
+        GroupRole role,
+        Set<GroupPermission> permissions
+    ) {}
+}
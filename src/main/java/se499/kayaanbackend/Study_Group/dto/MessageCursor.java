@@ -0,0 +1,35 @@
+package se499.kayaanbackend.Study_Group.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import se499.kayaanbackend.Study_Group.exception.StudyGroupException;
+
+/**
+ * ตำแหน่งในประวัติแชท ตามลำดับ (created_at, id) ที่คงที่
+ * <p>
+ * Clients only see the {@link #encode() encoded} form and must treat it as opaque.
+ */
+public record MessageCursor(LocalDateTime createdAt, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = createdAt + String.valueOf(SEPARATOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MessageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new MessageCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new StudyGroupException("Invalid message cursor");
+        }
+    }
+}
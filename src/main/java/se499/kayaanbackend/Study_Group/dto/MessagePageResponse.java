@@ -0,0 +1,15 @@
+package se499.kayaanbackend.Study_Group.dto;
+
+import java.util.List;
+
+/**
+ * หน้าหนึ่งของประวัติแชท เรียงจากใหม่ไปเก่า
+ *
+ * @param nextCursor   ส่งกลับใน before/after เดิมเพื่ออ่านหน้าถัดไปในทิศเดียวกัน หรือ null ถ้าหมดแล้ว
+ * @param newestCursor ตำแหน่งของข้อความใหม่สุดที่ client เห็นแล้ว ใช้เป็น after เพื่อดึงข้อความใหม่
+ */
+public record MessagePageResponse(
+    List<MessageResponse> messages,
+    String nextCursor,
+    String newestCursor
+) {}
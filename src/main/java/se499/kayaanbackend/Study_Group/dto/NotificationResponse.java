@@ -0,0 +1,15 @@
+package se499.kayaanbackend.Study_Group.dto;
+
+import java.time.LocalDateTime;
+
+import se499.kayaanbackend.Study_Group.notification.GroupNotificationEvent;
+
+public record NotificationResponse(
+    Integer groupId,
+    GroupNotificationEvent.Type type,
+    int eventCount,
+    int unreadCount,
+    Integer lastActorId,
+    String detail,
+    LocalDateTime updatedAt
+) {}
@@ -0,0 +1,68 @@
+package se499.kayaanbackend.Study_Group.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import se499.kayaanbackend.Study_Group.notification.GroupNotificationEvent;
+
+/**
+ * แถวเดียวต่อ (ผู้ใช้, กลุ่ม, ชนิดเหตุการณ์) ใน inbox
+ * <p>
+ * {@code eventCount} counts the events since the user last read the group; it restarts when an event
+ * arrives after the read mark in {@link GroupNotificationReadMark} has passed {@code lastSeq}, which
+ * comes from the group's own sequence in {@link GroupNotificationSequence}.
+ * Rows are written by {@code NotificationInboxWriter}, never through JPA.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "group_notification",
+        uniqueConstraints = @UniqueConstraint(name = "uk_group_notification_user_group_type",
+                columnNames = { "user_id", "group_id", "type" }),
+        indexes = @Index(name = "idx_group_notification_user_updated", columnList = "user_id, updated_at"))
+public class GroupNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    @Column(name = "group_id", nullable = false)
+    private Integer groupId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private GroupNotificationEvent.Type type;
+
+    @Column(name = "event_count", nullable = false)
+    private int eventCount;
+
+    @Column(name = "last_actor_id")
+    private Integer lastActorId;
+
+    @Column(length = 255)
+    private String detail;
+
+    @Column(name = "last_seq", nullable = false)
+    private long lastSeq;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,41 @@
+package se499.kayaanbackend.Study_Group.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * จุดที่ผู้ใช้อ่านการแจ้งเตือนของกลุ่มถึงแล้ว: ทุกแถวที่ {@code last_seq <= read_seq} ถือว่าอ่านแล้ว
+ */
+@Entity
+@Table(name = "group_notification_read")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@IdClass(GroupNotificationReadMarkId.class)
+public class GroupNotificationReadMark {
+    @Id
+    @Column(name = "user_id")
+    private Integer userId;
+
+    @Id
+    @Column(name = "group_id")
+    private Integer groupId;
+
+    @Column(name = "read_seq", nullable = false)
+    private long readSeq;
+
+    @Column(name = "read_at", nullable = false)
+    private LocalDateTime readAt;
+}
@@ -0,0 +1,11 @@
+package se499.kayaanbackend.Study_Group.entity;
+
+import java.io.Serializable;
+
+import lombok.Data;
+
+@Data
+public class GroupNotificationReadMarkId implements Serializable {
+    private Integer userId;
+    private Integer groupId;
+}
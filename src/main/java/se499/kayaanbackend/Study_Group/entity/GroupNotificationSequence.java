@@ -0,0 +1,31 @@
+package se499.kayaanbackend.Study_Group.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * ลำดับการแจ้งเตือนของแต่ละกลุ่ม: {@code next_seq} คือค่า {@code last_seq} ถัดไปที่จะเขียน
+ * <p>
+ * Locked and advanced with plain SQL by {@code NotificationInboxWriter}; mapped so the schema update
+ * creates the table.
+ */
+@Entity
+@Table(name = "group_notification_seq")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupNotificationSequence {
+    @Id
+    @Column(name = "group_id")
+    private Integer groupId;
+
+    @Column(name = "next_seq", nullable = false)
+    private long nextSeq;
+}
@@ -0,0 +1,31 @@
+package se499.kayaanbackend.Study_Group.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * ตัวนับ id ที่จองเป็นก้อน: {@code next_id} คือ id แรกที่ยังไม่มีโหนดใดจองไป
+ * <p>
+ * Read and advanced with plain SQL by {@link se499.kayaanbackend.Study_Group.chat.MessageIdAllocator};
+ * mapped so the schema update creates the table.
+ */
+@Entity
+@Table(name = "message_id_block")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageIdBlock {
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    @Column(name = "next_id", nullable = false)
+    private long nextId;
+}
@@ -0,0 +1,53 @@
+package se499.kayaanbackend.Study_Group.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * ตัวนับ rate limit ที่แชร์ระหว่างโหนด: หนึ่งแถวต่อ (action, userId, groupId, window)
+ * <p>
+ * Leased out with plain SQL by
+ * {@link se499.kayaanbackend.Study_Group.security.ratelimit.JdbcRateLimitStore}; mapped so the schema
+ * update creates the table.
+ */
+@Entity
+@Table(name = "rate_limit_counter", indexes = {
+        @Index(name = "idx_rate_limit_counter_user_group", columnList = "user_id, group_id"),
+        @Index(name = "idx_rate_limit_counter_expires_at", columnList = "expires_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(RateLimitCounterId.class)
+public class RateLimitCounter {
+    @Id
+    @Column(name = "action", length = 32)
+    private String action;
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "group_id")
+    private Long groupId;
+
+    @Id
+    @Column(name = "window_start")
+    private Long windowStart;
+
+    @Column(name = "expires_at", nullable = false)
+    private long expiresAt;
+
+    @Column(name = "used", nullable = false)
+    private long used;
+}
@@ -0,0 +1,13 @@
+package se499.kayaanbackend.Study_Group.entity;
+
+import java.io.Serializable;
+
+import lombok.Data;
+
+@Data
+public class RateLimitCounterId implements Serializable {
+    private String action;
+    private Long userId;
+    private Long groupId;
+    private Long windowStart;
+}
@@ -0,0 +1,11 @@
+package se499.kayaanbackend.Study_Group.exception;
+
+/**
+ * คิวบันทึกแชทของกลุ่มเต็ม ให้ client ส่งใหม่ภายหลัง
+ */
+public class ChatBusyException extends StudyGroupException {
+
+    public ChatBusyException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +1,10 @@
 package se499.kayaanbackend.Study_Group.exception;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -17,6 +20,13 @@ public class StudyGroupExceptionHandler {
                 .body(Map.of("error", "StudyGroupException", "message", e.getMessage()));
     }
 
+    @ExceptionHandler(ChatBusyException.class)
+    public ResponseEntity<Map<String, String>> handleChatBusy(ChatBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", "ChatBusyException", "message", e.getMessage()));
+    }
+
     // Security Exceptions
     @ExceptionHandler(GroupAccessDeniedException.class)
     public ResponseEntity<Map<String, Object>> handleGroupAccessDenied(GroupAccessDeniedException e) {
@@ -73,7 +83,10 @@ public class StudyGroupExceptionHandler {
             "actionType", e.getActionType(),
             "resetTime", e.getResetTime()
         );
-        return ResponseEntity.status(e.getHttpStatus()).body(response);
+        long retryAfter = Math.max(1, Duration.between(LocalDateTime.now(), e.getResetTime()).toSeconds());
+        return ResponseEntity.status(e.getHttpStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .body(response);
     }
 
     @ExceptionHandler(org.springframework.dao.DataIntegrityViolationException.class)
@@ -0,0 +1,17 @@
+package se499.kayaanbackend.Study_Group.notification;
+
+/**
+ * เหตุการณ์ในกลุ่มที่ต้องแจ้งสมาชิก ถูกส่งหลัง transaction ของผู้เรียก commit แล้ว
+ *
+ * @param actorId ผู้ที่ทำให้เกิดเหตุการณ์ (ผู้ส่ง ผู้แก้ไข หรือสมาชิกที่เข้า/ออก)
+ * @param detail  ข้อความสั้นๆ เช่นตัวอย่างข้อความแชท หรือชนิดของ content ที่เปลี่ยน
+ */
+public record GroupNotificationEvent(Type type, Integer groupId, Integer actorId, String detail) {
+
+    public enum Type {
+        NEW_MESSAGE,
+        MEMBER_JOINED,
+        MEMBER_LEFT,
+        CONTENT_UPDATE
+    }
+}
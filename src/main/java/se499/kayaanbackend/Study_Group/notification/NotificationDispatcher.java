@@ -0,0 +1,213 @@
+package se499.kayaanbackend.Study_Group.notification;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import se499.kayaanbackend.Study_Group.notification.GroupNotificationEvent.Type;
+import se499.kayaanbackend.Study_Group.security.MembershipResolver;
+
+/**
+ * รวมเหตุการณ์แจ้งเตือนของกลุ่มเป็นชุด แล้วส่งบน thread pool ที่จำกัดขนาด
+ * <p>
+ * Events arrive after the publishing transaction commits (or straight away when there is none) and
+ * only touch an in-memory map on the caller's thread. The first event for a (group, type) opens a
+ * window of {@code coalesce-window-ms}; later events of that type for that group are folded into it,
+ * so a busy chat produces one fan-out per window instead of one per message. When the window closes,
+ * the batch is handed to a fixed pool with a bounded queue and written to the inbox of every member
+ * on the group's roster (read from {@link MembershipResolver}'s cache) by {@link NotificationInboxWriter}
+ * as one JDBC batch. Work that does not fit is dropped and counted, never
+ * pushed back onto request threads.
+ */
+@Slf4j
+@Component
+public class NotificationDispatcher implements DisposableBean {
+
+    private static final int MAX_DETAILS = 10;
+
+    private final MembershipResolver membershipResolver;
+    private final NotificationInboxWriter inboxWriter;
+    private final long windowMillis;
+    private final int maxPending;
+    private final ScheduledExecutorService windows;
+    private final ThreadPoolExecutor workers;
+    private final ConcurrentHashMap<Key, Batch> pending = new ConcurrentHashMap<>();
+    private final Counter accepted;
+    private final Counter coalesced;
+    private final Counter dropped;
+    private final Counter delivered;
+
+    public NotificationDispatcher(
+            MembershipResolver membershipResolver,
+            NotificationInboxWriter inboxWriter,
+            @Value("${kayaan.notifications.coalesce-window-ms:2000}") long windowMillis,
+            @Value("${kayaan.notifications.threads:2}") int threads,
+            @Value("${kayaan.notifications.queue-capacity:1000}") int queueCapacity,
+            @Value("${kayaan.notifications.max-pending:10000}") int maxPending,
+            MeterRegistry meterRegistry) {
+        this.membershipResolver = membershipResolver;
+        this.inboxWriter = inboxWriter;
+        this.windowMillis = windowMillis;
+        this.maxPending = maxPending;
+        this.windows = new ScheduledThreadPoolExecutor(1, daemonThreads("notification-window-"));
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("notification-worker-"));
+        this.accepted = events(meterRegistry, "accepted");
+        this.coalesced = events(meterRegistry, "coalesced");
+        this.dropped = events(meterRegistry, "dropped");
+        this.delivered = Counter.builder("group.notifications.delivered")
+                .description("Notifications fanned out to group members")
+                .register(meterRegistry);
+    }
+
+    private static Counter events(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("group.notifications.events")
+                .tag("result", result)
+                .description("Group notification events")
+                .register(meterRegistry);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger ids = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + ids.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void on(GroupNotificationEvent event) {
+        Key key = new Key(event.groupId(), event.type());
+        boolean[] opened = { false };
+        Batch batch = pending.compute(key, (k, existing) -> {
+            if (existing != null) {
+                existing.add(event);
+                return existing;
+            }
+            if (pending.size() >= maxPending) {
+                return null;
+            }
+            opened[0] = true;
+            return new Batch(event);
+        });
+        if (batch == null) {
+            dropped.increment();
+            log.warn("Dropping {} notification for group {}: {} windows already open",
+                    event.type(), event.groupId(), maxPending);
+            return;
+        }
+        if (!opened[0]) {
+            coalesced.increment();
+            return;
+        }
+        accepted.increment();
+        try {
+            windows.schedule(() -> close(key), windowMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            close(key);                               // shutting down: hand it over now
+        }
+    }
+
+    private void close(Key key) {
+        Batch batch = pending.remove(key);
+        if (batch == null) {
+            return;
+        }
+        try {
+            workers.execute(() -> deliver(batch));
+        } catch (RejectedExecutionException e) {
+            dropped.increment(batch.count);
+            log.warn("Dropping {} {} notification(s) for group {}: notification queue is full",
+                    batch.count, batch.type, batch.groupId);
+        }
+    }
+
+    private void deliver(Batch batch) {
+        try {
+            List<Integer> recipients = recipients(batch);
+            log.info("Notifying {} member(s) of group {} about {} {} event(s) by {}: {}",
+                    recipients.size(), batch.groupId, batch.count, batch.type, batch.actorIds, batch.details);
+            inboxWriter.record(batch.groupId, batch.type, recipients, batch.count, batch.lastActorId, batch.lastDetail);
+            delivered.increment(recipients.size());
+        } catch (Exception e) {
+            log.error("Error notifying members of group {} about {}", batch.groupId, batch.type, e);
+        }
+    }
+
+    private List<Integer> recipients(Batch batch) {
+        Set<Integer> recipients = new LinkedHashSet<>(membershipResolver.memberIds(batch.groupId));
+        if (batch.type == Type.MEMBER_LEFT) {
+            // removed members are no longer on the roster but still hear about it
+            recipients.addAll(batch.actorIds);
+        } else if (batch.actorIds.size() == 1) {
+            // nobody is told about their own action; with several actors each should see the others'
+            recipients.removeAll(batch.actorIds);
+        }
+        return new ArrayList<>(recipients);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        windows.shutdownNow();
+        for (Key key : List.copyOf(pending.keySet())) {
+            close(key);
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    private record Key(Integer groupId, Type type) {
+    }
+
+    /** Events folded into one window; only mutated inside {@code pending.compute}. */
+    private static final class Batch {
+        private final Integer groupId;
+        private final Type type;
+        private final Set<Integer> actorIds = new LinkedHashSet<>();
+        private final Set<String> details = new LinkedHashSet<>();
+        private int count;
+        private Integer lastActorId;
+        private String lastDetail;
+
+        private Batch(GroupNotificationEvent first) {
+            this.groupId = first.groupId();
+            this.type = first.type();
+            add(first);
+        }
+
+        private void add(GroupNotificationEvent event) {
+            count++;
+            if (event.actorId() != null) {
+                actorIds.add(event.actorId());
+                lastActorId = event.actorId();
+            }
+            if (event.detail() != null) {
+                lastDetail = event.detail();
+                if (details.size() < MAX_DETAILS) {
+                    details.add(event.detail());
+                }
+            }
+        }
+    }
+}
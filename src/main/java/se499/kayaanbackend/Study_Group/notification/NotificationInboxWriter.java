@@ -0,0 +1,129 @@
+package se499.kayaanbackend.Study_Group.notification;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * เขียน inbox การแจ้งเตือนด้วย JDBC batch: หนึ่งชุดเหตุการณ์ = หนึ่ง batch update + หนึ่ง batch insert
+ * <p>
+ * Every write takes the next value of its group's row in {@code group_notification_seq} under
+ * {@code FOR UPDATE} and keeps the lock until commit. Writers for one group, on any node, therefore
+ * commit in sequence order, which is what lets a read mark (kept per group) stand for "everything up
+ * to here": a row can never appear later with a smaller {@code last_seq} than a mark already taken.
+ * It also means the update-then-insert upsert below cannot race with another writer for the group.
+ * Writes for different groups lock different rows and do not wait for each other.
+ */
+@Component
+public class NotificationInboxWriter {
+
+    private static final String SELECT_SEQ = "SELECT next_seq FROM group_notification_seq WHERE group_id = ? FOR UPDATE";
+    private static final String INSERT_SEQ = "INSERT INTO group_notification_seq (group_id, next_seq) VALUES (?, 1)";
+    private static final String ADVANCE_SEQ = "UPDATE group_notification_seq SET next_seq = ? WHERE group_id = ?";
+
+    // restart the count when everything up to the previous event has been read
+    private static final String ADD_EVENTS =
+            "UPDATE group_notification SET "
+                    + "event_count = CASE WHEN last_seq <= COALESCE((SELECT r.read_seq FROM group_notification_read r "
+                    + "WHERE r.user_id = group_notification.user_id AND r.group_id = group_notification.group_id), 0) "
+                    + "THEN ? ELSE event_count + ? END, "
+                    + "last_actor_id = ?, detail = ?, last_seq = ?, updated_at = ? "
+                    + "WHERE user_id = ? AND group_id = ? AND type = ?";
+    private static final String INSERT_ROW =
+            "INSERT INTO group_notification (user_id, group_id, type, event_count, last_actor_id, detail, last_seq, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_GROUP_SEQ =
+            "SELECT COALESCE(MAX(last_seq), 0) FROM group_notification WHERE user_id = ? AND group_id = ?";
+    private static final String ADVANCE_MARK =
+            "UPDATE group_notification_read SET read_seq = GREATEST(read_seq, ?), read_at = ? "
+                    + "WHERE user_id = ? AND group_id = ?";
+    private static final String INSERT_MARK =
+            "INSERT INTO group_notification_read (user_id, group_id, read_seq, read_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public NotificationInboxWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                   @Value("${kayaan.notifications.inbox-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Adds {@code count} events of one type to the inbox row of every recipient, creating rows as needed.
+     */
+    public void record(Integer groupId, GroupNotificationEvent.Type type, Collection<Integer> userIds,
+                       int count, Integer actorId, String detail) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> {
+            long seq = nextSeq(groupId);
+            List<Integer> recipients = List.copyOf(userIds);
+            List<Integer> missing = new ArrayList<>();
+            for (int from = 0; from < recipients.size(); from += batchSize) {
+                List<Integer> chunk = recipients.subList(from, Math.min(from + batchSize, recipients.size()));
+                int[] updated = jdbcTemplate.batchUpdate(ADD_EVENTS, chunk.stream()
+                        .map(userId -> new Object[] {
+                                count, count, actorId, detail, seq, now, userId, groupId, type.name() })
+                        .toList());
+                for (int i = 0; i < updated.length; i++) {
+                    if (updated[i] == 0) {
+                        missing.add(chunk.get(i));
+                    }
+                }
+            }
+            for (int from = 0; from < missing.size(); from += batchSize) {
+                jdbcTemplate.batchUpdate(INSERT_ROW, missing.subList(from, Math.min(from + batchSize, missing.size()))
+                        .stream()
+                        .map(userId -> new Object[] {
+                                userId, groupId, type.name(), count, actorId, detail, seq, now })
+                        .toList());
+            }
+        });
+    }
+
+    /** Moves the user's read mark for the group past every notification written so far. */
+    public void markRead(Integer userId, Integer groupId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> {
+            long seq = jdbcTemplate.queryForObject(SELECT_GROUP_SEQ, Long.class, userId, groupId);
+            if (jdbcTemplate.update(ADVANCE_MARK, seq, now, userId, groupId) > 0) {
+                return;
+            }
+            try {
+                jdbcTemplate.update(INSERT_MARK, userId, groupId, seq, now);
+            } catch (DuplicateKeyException e) {
+                jdbcTemplate.update(ADVANCE_MARK, seq, now, userId, groupId);
+            }
+        });
+    }
+
+    private long nextSeq(Integer groupId) {
+        List<Long> rows = jdbcTemplate.queryForList(SELECT_SEQ, Long.class, groupId);
+        if (rows.isEmpty()) {
+            try {
+                jdbcTemplate.update(INSERT_SEQ, groupId);
+            } catch (DuplicateKeyException e) {
+                // another node created it first
+            }
+            rows = jdbcTemplate.queryForList(SELECT_SEQ, Long.class, groupId);
+        }
+        long seq = rows.get(0);
+        jdbcTemplate.update(ADVANCE_SEQ, seq + 1, groupId);
+        return seq;
+    }
+}
@@ -1,6 +1,7 @@
 package se499.kayaanbackend.Study_Group.repository;
 
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import se499.kayaanbackend.Study_Group.GroupContent;
+import se499.kayaanbackend.Study_Group.security.ContentAuthorization;
 
 @Repository
 public interface GroupContentRepository extends JpaRepository<GroupContent, Long> {
@@ -31,4 +33,9 @@ public interface GroupContentRepository extends JpaRepository<GroupContent, Long
     
     @Query("SELECT gc FROM GroupContent gc WHERE gc.groupId = :groupId AND gc.mimeType LIKE %:mimeType% ORDER BY gc.createdAt DESC")
     List<GroupContent> findByGroupIdAndMimeTypeContaining(@Param("groupId") Integer groupId, @Param("mimeType") String mimeType);
+    
+    @Query("SELECT new se499.kayaanbackend.Study_Group.security.ContentAuthorization(gc.id, gc.groupId, gc.uploaderId, gm.role) " +
+           "FROM GroupContent gc LEFT JOIN GroupMember gm ON gm.groupId = gc.groupId AND gm.userId = :userId " +
+           "WHERE gc.id = :contentId")
+    Optional<ContentAuthorization> findAuthorization(@Param("contentId") Long contentId, @Param("userId") Integer userId);
 }
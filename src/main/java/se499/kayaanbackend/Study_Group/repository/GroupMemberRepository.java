@@ -1,5 +1,6 @@
 package se499.kayaanbackend.Study_Group.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,12 +18,18 @@ public interface GroupMemberRepository extends JpaRepository<GroupMember, GroupM
     @Query("SELECT gm FROM GroupMember gm WHERE gm.groupId = :groupId")
     List<GroupMember> findByGroupId(@Param("groupId") Integer groupId);
     
+    @Query("SELECT gm.userId FROM GroupMember gm WHERE gm.groupId = :groupId")
+    List<Integer> findUserIdsByGroupId(@Param("groupId") Integer groupId);
+    
     @Query("SELECT gm FROM GroupMember gm WHERE gm.userId = :userId")
     List<GroupMember> findByUserId(@Param("userId") Integer userId);
     
     @Query("SELECT gm FROM GroupMember gm WHERE gm.groupId = :groupId AND gm.userId = :userId")
     Optional<GroupMember> findByGroupIdAndUserId(@Param("groupId") Integer groupId, @Param("userId") Integer userId);
     
+    @Query("SELECT gm FROM GroupMember gm WHERE gm.userId = :userId AND gm.groupId IN :groupIds")
+    List<GroupMember> findByUserIdAndGroupIdIn(@Param("userId") Integer userId, @Param("groupIds") Collection<Integer> groupIds);
+    
     @Query("SELECT COUNT(gm) > 0 FROM GroupMember gm WHERE gm.groupId = :groupId AND gm.userId = :userId")
     boolean existsByGroupIdAndUserId(@Param("groupId") Integer groupId, @Param("userId") Integer userId);
 }
@@ -1,5 +1,6 @@
 package se499.kayaanbackend.Study_Group.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.data.domain.Pageable;
@@ -8,13 +9,35 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import se499.kayaanbackend.Study_Group.dto.MessageResponse;
 import se499.kayaanbackend.Study_Group.entity.GroupMessage;
 
 @Repository
 public interface GroupMessageRepository extends JpaRepository<GroupMessage, Long> {
     
-    @Query("SELECT gm FROM GroupMessage gm WHERE gm.studyGroup.id = :groupId ORDER BY gm.createdAt DESC")
-    List<GroupMessage> findByStudyGroupIdOrderByCreatedAtDesc(@Param("groupId") Integer groupId, Pageable pageable);
-    
     List<GroupMessage> findByStudyGroupIdOrderByCreatedAtDesc(Integer groupId);
+    
+    // Keyset pagination over (created_at, id), served by idx_group_message_group_created.
+    // Rows are projected straight into MessageResponse so history reads never hydrate
+    // GroupMessage, StudyGroup or User (and the user's roles/theme).
+    
+    String MESSAGE_PROJECTION = "SELECT new se499.kayaanbackend.Study_Group.dto.MessageResponse(" +
+           "gm.id, gm.studyGroup.id, u.id, CONCAT(COALESCE(u.firstname, ''), ' ', COALESCE(u.lastname, '')), " +
+           "gm.content, gm.messageType, gm.createdAt, gm.updatedAt) " +
+           "FROM GroupMessage gm JOIN gm.user u WHERE gm.studyGroup.id = :groupId ";
+    
+    @Query(MESSAGE_PROJECTION + "ORDER BY gm.createdAt DESC, gm.id DESC")
+    List<MessageResponse> findLatest(@Param("groupId") Integer groupId, Pageable pageable);
+    
+    @Query(MESSAGE_PROJECTION +
+           "AND (gm.createdAt < :createdAt OR (gm.createdAt = :createdAt AND gm.id < :id)) " +
+           "ORDER BY gm.createdAt DESC, gm.id DESC")
+    List<MessageResponse> findBefore(@Param("groupId") Integer groupId, @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id, Pageable pageable);
+    
+    @Query(MESSAGE_PROJECTION +
+           "AND (gm.createdAt > :createdAt OR (gm.createdAt = :createdAt AND gm.id > :id)) " +
+           "ORDER BY gm.createdAt ASC, gm.id ASC")
+    List<MessageResponse> findAfter(@Param("groupId") Integer groupId, @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") Long id, Pageable pageable);
 }
@@ -0,0 +1,25 @@
+package se499.kayaanbackend.Study_Group.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import se499.kayaanbackend.Study_Group.dto.NotificationResponse;
+import se499.kayaanbackend.Study_Group.entity.GroupNotification;
+
+@Repository
+public interface GroupNotificationRepository extends JpaRepository<GroupNotification, Long> {
+
+    // inbox ของผู้ใช้ทุกกลุ่มในครั้งเดียว เดินตาม idx_group_notification_user_updated (last_seq นับแยกต่อกลุ่ม)
+    @Query("SELECT new se499.kayaanbackend.Study_Group.dto.NotificationResponse(n.groupId, n.type, n.eventCount, "
+            + "CASE WHEN n.lastSeq > COALESCE(r.readSeq, 0) THEN n.eventCount ELSE 0 END, "
+            + "n.lastActorId, n.detail, n.updatedAt) "
+            + "FROM GroupNotification n LEFT JOIN GroupNotificationReadMark r "
+            + "ON r.userId = n.userId AND r.groupId = n.groupId "
+            + "WHERE n.userId = :userId ORDER BY n.updatedAt DESC, n.id DESC")
+    List<NotificationResponse> findInbox(@Param("userId") Integer userId, Pageable pageable);
+}
@@ -2,10 +2,6 @@ package se499.kayaanbackend.Study_Group.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import se499.kayaanbackend.Study_Group.GroupContent;
-import se499.kayaanbackend.Study_Group.repository.GroupContentRepository;
-
-import java.util.Optional;
 
 /**
  * Component สำหรับควบคุมการเข้าถึงเนื้อหาในกลุ่มเรียน
@@ -16,63 +12,25 @@ public class ContentAccessControl {
     @Autowired
     private GroupPermissionService permissionService;
     
-    @Autowired
-    private GroupContentRepository groupContentRepository;
-    
     /**
      * ตรวจสอบสิทธิ์การดูเนื้อหา
      */
     public boolean canViewContent(Long userId, Long contentId) {
-        Optional<GroupContent> contentOpt = groupContentRepository.findById(contentId);
-        
-        if (contentOpt.isEmpty()) {
-            return false;
-        }
-        
-        GroupContent content = contentOpt.get();
-        return permissionService.hasPermission(userId, content.getGroupId().longValue(), GroupPermission.VIEW_GROUP);
+        return permissionService.canAccessContent(userId, contentId);
     }
     
     /**
-     * ตรวจสอบสิทธิ์การแก้ไขเนื้อหา
+     * ตรวจสอบสิทธิ์การแก้ไขเนื้อหา (เจ้าของเนื้อหาใช้ EDIT_OWN_CONTENT, คนอื่นต้องมี EDIT_ANY_CONTENT)
      */
     public boolean canEditContent(Long userId, Long contentId) {
-        Optional<GroupContent> contentOpt = groupContentRepository.findById(contentId);
-        
-        if (contentOpt.isEmpty()) {
-            return false;
-        }
-        
-        GroupContent content = contentOpt.get();
-        
-        // ถ้าเป็นเจ้าของเนื้อหา สามารถแก้ไขได้
-        if (content.getUploaderId().equals(userId.intValue())) {
-            return permissionService.hasPermission(userId, content.getGroupId().longValue(), GroupPermission.EDIT_OWN_CONTENT);
-        }
-        
-        // ถ้าไม่ใช่เจ้าของ ต้องมีสิทธิ์แก้ไขเนื้อหาใดๆ
-        return permissionService.hasPermission(userId, content.getGroupId().longValue(), GroupPermission.EDIT_ANY_CONTENT);
+        return permissionService.canEditContent(userId, contentId);
     }
     
     /**
-     * ตรวจสอบสิทธิ์การลบเนื้อหา
+     * ตรวจสอบสิทธิ์การลบเนื้อหา (เจ้าของเนื้อหาใช้ DELETE_OWN_CONTENT, คนอื่นต้องมี DELETE_ANY_CONTENT)
      */
     public boolean canDeleteContent(Long userId, Long contentId) {
-        Optional<GroupContent> contentOpt = groupContentRepository.findById(contentId);
-        
-        if (contentOpt.isEmpty()) {
-            return false;
-        }
-        
-        GroupContent content = contentOpt.get();
-        
-        // ถ้าเป็นเจ้าของเนื้อหา สามารถลบได้
-        if (content.getUploaderId().equals(userId.intValue())) {
-            return permissionService.hasPermission(userId, content.getGroupId().longValue(), GroupPermission.DELETE_OWN_CONTENT);
-        }
-        
-        // ถ้าไม่ใช่เจ้าของ ต้องมีสิทธิ์ลบเนื้อหาใดๆ
-        return permissionService.hasPermission(userId, content.getGroupId().longValue(), GroupPermission.DELETE_ANY_CONTENT);
+        return permissionService.canDeleteContent(userId, contentId);
     }
     
     /**
@@ -102,4 +60,5 @@ public class ContentAccessControl {
     public boolean canSearchContent(Long userId, Long groupId) {
         return permissionService.hasPermission(userId, groupId, GroupPermission.VIEW_GROUP);
     }
+
 }
@@ -0,0 +1,29 @@
+package se499.kayaanbackend.Study_Group.security;
+
+import se499.kayaanbackend.Study_Group.GroupMember;
+
+/**
+ * ข้อมูลที่ต้องใช้ตรวจสิทธิ์ต่อเนื้อหาหนึ่งชิ้น: ผู้อัปโหลด กลุ่ม และบทบาทของผู้ใช้ในกลุ่มนั้น
+ * <p>
+ * Loaded by {@code GroupContentRepository.findAuthorization} in one query that joins group_content to
+ * the caller's group_member row, so the full content row (description, tags) is never materialized.
+ *
+ * @param role บทบาทของผู้ใช้ หรือ null ถ้าไม่ได้เป็นสมาชิกกลุ่ม
+ */
+public record ContentAuthorization(Long contentId, Integer groupId, Integer uploaderId, GroupMember.Role role) {
+
+    public boolean isMember() {
+        return role != null;
+    }
+
+    /**
+     * ผู้อัปโหลดต้องมี {@code ownPermission}; คนอื่นต้องมี {@code anyPermission}
+     */
+    public boolean allows(Integer userId, GroupPermission ownPermission, GroupPermission anyPermission) {
+        if (role == null) {
+            return false;
+        }
+        GroupPermission required = uploaderId.equals(userId) ? ownPermission : anyPermission;
+        return GroupRole.of(role).hasPermission(required);
+    }
+}
@@ -0,0 +1,258 @@
+package se499.kayaanbackend.Study_Group.security;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import se499.kayaanbackend.Study_Group.GroupMember;
+import se499.kayaanbackend.shared.realtime.RealtimeBus;
+
+/**
+ * Cache สมาชิกภาพและบทบาทของ (groupId, userId) ข้าม request
+ * <p>
+ * It also keeps each group's roster (member user ids) for fan-out work such as notifications; any
+ * invalidation touching a group drops its roster too.
+ * <p>
+ * Both members and non-members are cached; non-members get a shorter TTL. Entries hold an immutable
+ * copy of the row, so every caller gets its own {@link GroupMember}. Writes go through
+ * {@link #invalidate}/{@link #invalidateGroup}, which drop the entry now, again after the
+ * transaction completes, and publish the invalidation on {@link #INVALIDATION_CHANNEL} so other
+ * nodes drop their copy as well.
+ */
+@Slf4j
+@Component
+public class GroupMembershipCache {
+
+    public static final String INVALIDATION_CHANNEL = "cluster.membership.invalidate";
+
+    private static final int MAX_ROSTERS = 10_000;
+
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final int maxEntries;
+    private final RealtimeBus realtimeBus;
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Roster> rosters = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter negativeHits;
+    private final Counter misses;
+    private final Counter rosterHits;
+    private final Counter rosterMisses;
+
+    public GroupMembershipCache(
+            @Value("${kayaan.membership-cache.ttl-ms:300000}") long ttlMillis,
+            @Value("${kayaan.membership-cache.negative-ttl-ms:60000}") long negativeTtlMillis,
+            @Value("${kayaan.membership-cache.max-entries:50000}") int maxEntries,
+            RealtimeBus realtimeBus,
+            MeterRegistry meterRegistry) {
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.maxEntries = maxEntries;
+        this.realtimeBus = realtimeBus;
+        this.hits = lookups(meterRegistry, "hit");
+        this.negativeHits = lookups(meterRegistry, "negative_hit");
+        this.misses = lookups(meterRegistry, "miss");
+        this.rosterHits = rosterLookups(meterRegistry, "hit");
+        this.rosterMisses = rosterLookups(meterRegistry, "miss");
+        Gauge.builder("group.membership.cache.size", entries, ConcurrentHashMap::size)
+                .register(meterRegistry);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("group.membership.cache.lookups")
+                .tag("result", result)
+                .description("Group membership cache lookups")
+                .register(meterRegistry);
+    }
+
+    private static Counter rosterLookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("group.roster.cache.lookups")
+                .tag("result", result)
+                .description("Group roster cache lookups")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void subscribe() {
+        realtimeBus.subscribe(INVALIDATION_CHANNEL, (channel, message) -> {
+            if (message instanceof Invalidation invalidation) {
+                evictLocally(invalidation);
+            }
+        });
+    }
+
+    /**
+     * Cached membership of the pair: a hit carries the row, a negative hit an empty member, and
+     * {@link Lookup#MISS} means the cache knows nothing about the pair.
+     */
+    public Lookup lookup(Integer groupId, Integer userId) {
+        Key key = new Key(groupId, userId);
+        Entry entry = entries.get(key);
+        if (entry == null || entry.expiresAt() <= System.currentTimeMillis()) {
+            if (entry != null) {
+                entries.remove(key, entry);
+            }
+            misses.increment();
+            return Lookup.MISS;
+        }
+        if (entry.role() == null) {
+            negativeHits.increment();
+            return Lookup.of(Optional.empty());
+        }
+        hits.increment();
+        return Lookup.of(Optional.of(GroupMember.builder()
+                .groupId(groupId)
+                .userId(userId)
+                .role(entry.role())
+                .joinedAt(entry.joinedAt())
+                .build()));
+    }
+
+    /**
+     * Cached membership of the pair; on a miss the loader is called and its result cached.
+     */
+    public Optional<GroupMember> get(Integer groupId, Integer userId, Supplier<Optional<GroupMember>> loader) {
+        Lookup cached = lookup(groupId, userId);
+        if (cached.hit()) {
+            return cached.member();
+        }
+        Optional<GroupMember> member = loader.get();
+        put(groupId, userId, member);
+        return member;
+    }
+
+    public void put(Integer groupId, Integer userId, Optional<GroupMember> member) {
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        long now = System.currentTimeMillis();
+        Entry entry = member
+                .map(m -> new Entry(m.getRole(), m.getJoinedAt(), now + ttlMillis))
+                .orElseGet(() -> new Entry(null, null, now + negativeTtlMillis));
+        entries.put(new Key(groupId, userId), entry);
+    }
+
+    /**
+     * User ids of every member of the group; on a miss the loader is called and its result cached.
+     */
+    public List<Integer> roster(Integer groupId, Supplier<List<Integer>> loader) {
+        Roster roster = rosters.get(groupId);
+        if (roster != null && roster.expiresAt() > System.currentTimeMillis()) {
+            rosterHits.increment();
+            return roster.userIds();
+        }
+        if (roster != null) {
+            rosters.remove(groupId, roster);
+        }
+        rosterMisses.increment();
+        List<Integer> userIds = loader.get();
+        putRoster(groupId, userIds);
+        return userIds;
+    }
+
+    public void putRoster(Integer groupId, List<Integer> userIds) {
+        if (rosters.size() >= MAX_ROSTERS) {
+            long now = System.currentTimeMillis();
+            rosters.values().removeIf(roster -> roster.expiresAt() <= now);
+            Iterator<Integer> it = rosters.keySet().iterator();
+            while (rosters.size() >= MAX_ROSTERS && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        rosters.put(groupId, new Roster(List.copyOf(userIds), System.currentTimeMillis() + ttlMillis));
+    }
+
+    public void invalidate(Integer groupId, Integer userId) {
+        invalidate(new Invalidation(groupId, userId));
+    }
+
+    public void invalidateGroup(Integer groupId) {
+        invalidate(new Invalidation(groupId, null));
+    }
+
+    /**
+     * Applies an invalidation received from another node without publishing it again.
+     */
+    public void evictLocally(Invalidation invalidation) {
+        rosters.remove(invalidation.groupId());
+        if (invalidation.userId() != null) {
+            entries.remove(new Key(invalidation.groupId(), invalidation.userId()));
+        } else {
+            entries.keySet().removeIf(key -> key.groupId().equals(invalidation.groupId()));
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void invalidate(Invalidation invalidation) {
+        evictLocally(invalidation);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictLocally(invalidation);
+                    broadcast(invalidation);
+                }
+            });
+        } else {
+            broadcast(invalidation);
+        }
+    }
+
+    private void broadcast(Invalidation invalidation) {
+        try {
+            realtimeBus.publish(INVALIDATION_CHANNEL, invalidation);
+        } catch (RuntimeException e) {
+            log.warn("Failed to broadcast membership invalidation {}: {}", invalidation, e.getMessage());
+        }
+    }
+
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+        Iterator<Key> it = entries.keySet().iterator();
+        while (entries.size() >= maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    /** Invalidation message; a null {@code userId} covers every member of the group. */
+    public record Invalidation(Integer groupId, Integer userId) {
+    }
+
+    /** Result of {@link #lookup}: {@code member} is only meaningful when {@code hit} is true. */
+    public record Lookup(boolean hit, Optional<GroupMember> member) {
+
+        public static final Lookup MISS = new Lookup(false, Optional.empty());
+
+        static Lookup of(Optional<GroupMember> member) {
+            return new Lookup(true, member);
+        }
+    }
+
+    private record Key(Integer groupId, Integer userId) {
+    }
+
+    private record Entry(GroupMember.Role role, LocalDateTime joinedAt, long expiresAt) {
+    }
+
+    private record Roster(List<Integer> userIds, long expiresAt) {
+    }
+}
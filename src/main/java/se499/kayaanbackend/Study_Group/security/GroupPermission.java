@@ -1,5 +1,9 @@
 package se499.kayaanbackend.Study_Group.security;
 
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Enum สำหรับสิทธิ์ต่างๆ ที่ผู้ใช้สามารถมีในกลุ่มเรียน
  */
@@ -15,5 +19,40 @@ public enum GroupPermission {
     INVITE_MEMBERS,       // เชิญสมาชิกใหม่
     VIEW_ANALYTICS,       // ดูสถิติกลุ่ม
     MODERATE_CONTENT,     // ควบคุมเนื้อหา
-    MANAGE_ROLES          // จัดการบทบาทของสมาชิก
+    MANAGE_ROLES;         // จัดการบทบาทของสมาชิก
+
+    private static final GroupPermission[] VALUES = values();
+
+    private final long mask = 1L << ordinal();
+
+    /** บิตของสิทธิ์นี้ใน permission mask */
+    public long mask() {
+        return mask;
+    }
+
+    public static long maskOf(Collection<GroupPermission> permissions) {
+        long mask = 0;
+        for (GroupPermission permission : permissions) {
+            mask |= permission.mask;
+        }
+        return mask;
+    }
+
+    public static long maskOf(GroupPermission... permissions) {
+        long mask = 0;
+        for (GroupPermission permission : permissions) {
+            mask |= permission.mask;
+        }
+        return mask;
+    }
+
+    public static Set<GroupPermission> fromMask(long mask) {
+        Set<GroupPermission> permissions = EnumSet.noneOf(GroupPermission.class);
+        for (GroupPermission permission : VALUES) {
+            if ((mask & permission.mask) != 0) {
+                permissions.add(permission);
+            }
+        }
+        return permissions;
+    }
 }
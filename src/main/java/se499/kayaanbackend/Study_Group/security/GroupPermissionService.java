@@ -3,9 +3,7 @@ package se499.kayaanbackend.Study_Group.security;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import se499.kayaanbackend.Study_Group.GroupMember;
-import se499.kayaanbackend.Study_Group.GroupContent;
 import se499.kayaanbackend.Study_Group.StudyGroup;
-import se499.kayaanbackend.Study_Group.repository.GroupMemberRepository;
 import se499.kayaanbackend.Study_Group.repository.GroupContentRepository;
 import se499.kayaanbackend.Study_Group.repository.StudyGroupRepository;
 import se499.kayaanbackend.Study_Group.security.GroupPermission;
@@ -22,7 +20,7 @@ import java.util.Set;
 public class GroupPermissionService {
     
     @Autowired
-    private GroupMemberRepository groupMemberRepository;
+    private MembershipResolver membershipResolver;
     
     @Autowired
     private GroupContentRepository groupContentRepository;
@@ -37,97 +35,55 @@ public class GroupPermissionService {
      * ตรวจสอบว่าผู้ใช้มีสิทธิ์ทำอะไรในกลุ่ม
      */
     public boolean hasPermission(Long userId, Long groupId, GroupPermission permission) {
-        Optional<GroupMember> memberOpt = groupMemberRepository.findByGroupIdAndUserId(groupId.intValue(), userId.intValue());
+        Optional<GroupMember> memberOpt = membershipResolver.find(groupId.intValue(), userId.intValue());
         
         if (memberOpt.isEmpty()) {
             return false;
         }
         
-        GroupMember member = memberOpt.get();
-        // Convert GroupMember.Role to GroupRole
-        GroupRole role;
-        if (member.getRole() == GroupMember.Role.admin) {
-            role = GroupRole.ADMIN;
-        } else {
-            role = GroupRole.MEMBER;
-        }
-        
-        return role.hasPermission(permission);
+        return GroupRole.of(memberOpt.get().getRole()).hasPermission(permission);
     }
     
     /**
      * ตรวจสอบบทบาทของผู้ใช้ในกลุ่ม
      */
     public GroupRole getUserRole(Long groupId, Long userId) {
-        Optional<GroupMember> memberOpt = groupMemberRepository.findByGroupIdAndUserId(groupId.intValue(), userId.intValue());
+        Optional<GroupMember> memberOpt = membershipResolver.find(groupId.intValue(), userId.intValue());
         
         if (memberOpt.isEmpty()) {
             return GroupRole.MEMBER; // Default role
         }
 
-        GroupMember member = memberOpt.get();
-        // Convert GroupMember.Role to GroupRole
-        if (member.getRole() == GroupMember.Role.admin) {
-            return GroupRole.ADMIN;
-        } else {
-            return GroupRole.MEMBER;
-        }
+        return GroupRole.of(memberOpt.get().getRole());
     }
     
     /**
      * ตรวจสอบสิทธิ์การเข้าถึงเนื้อหา
      */
     public boolean canAccessContent(Long userId, Long contentId) {
-        Optional<GroupContent> contentOpt = groupContentRepository.findById(contentId);
-        
-        if (contentOpt.isEmpty()) {
-            return false;
-        }
-        
-        GroupContent content = contentOpt.get();
-        return hasPermission(userId, content.getGroupId().longValue(), GroupPermission.VIEW_GROUP);
+        return authorizeContent(userId, contentId, GroupPermission.VIEW_GROUP, GroupPermission.VIEW_GROUP);
     }
     
     /**
      * ตรวจสอบสิทธิ์การแก้ไขเนื้อหา
      */
     public boolean canEditContent(Long userId, Long contentId) {
-        Optional<GroupContent> contentOpt = groupContentRepository.findById(contentId);
-        
-        if (contentOpt.isEmpty()) {
-            return false;
-        }
-        
-        GroupContent content = contentOpt.get();
-        
-        // ถ้าเป็นเจ้าของเนื้อหา สามารถแก้ไขได้
-        if (content.getUploaderId().equals(userId.intValue())) {
-            return hasPermission(userId, content.getGroupId().longValue(), GroupPermission.EDIT_OWN_CONTENT);
-        }
-        
-        // ถ้าไม่ใช่เจ้าของ ต้องมีสิทธิ์แก้ไขเนื้อหาใดๆ
-        return hasPermission(userId, content.getGroupId().longValue(), GroupPermission.EDIT_ANY_CONTENT);
+        return authorizeContent(userId, contentId, GroupPermission.EDIT_OWN_CONTENT, GroupPermission.EDIT_ANY_CONTENT);
     }
     
     /**
      * ตรวจสอบสิทธิ์การลบเนื้อหา
      */
     public boolean canDeleteContent(Long userId, Long contentId) {
-        Optional<GroupContent> contentOpt = groupContentRepository.findById(contentId);
-        
-        if (contentOpt.isEmpty()) {
-            return false;
-        }
-        
-        GroupContent content = contentOpt.get();
-        
-        // ถ้าเป็นเจ้าของเนื้อหา สามารถลบได้
-        if (content.getUploaderId().equals(userId.intValue())) {
-            return hasPermission(userId, content.getGroupId().longValue(), GroupPermission.DELETE_OWN_CONTENT);
-        }
-        
-        // ถ้าไม่ใช่เจ้าของ ต้องมีสิทธิ์ลบเนื้อหาใดๆ
-        return hasPermission(userId, content.getGroupId().longValue(), GroupPermission.DELETE_ANY_CONTENT);
+        return authorizeContent(userId, contentId, GroupPermission.DELETE_OWN_CONTENT, GroupPermission.DELETE_ANY_CONTENT);
+    }
+    
+    // อัปโหลดเดอร์ กลุ่ม และบทบาทของผู้ใช้มาจาก query เดียว โดยไม่โหลด GroupContent ทั้งแถว
+    private boolean authorizeContent(Long userId, Long contentId, GroupPermission ownPermission, GroupPermission anyPermission) {
+        Integer uid = userId.intValue();
+        return groupContentRepository.findAuthorization(contentId, uid)
+            .map(authorization -> authorization.allows(uid, ownPermission, anyPermission))
+            .orElse(false);
     }
     
     /**
@@ -169,7 +125,7 @@ public class GroupPermissionService {
      * ตรวจสอบว่าผู้ใช้เป็นสมาชิกในกลุ่มหรือไม่
      */
     public boolean isGroupMember(Long userId, Long groupId) {
-        return groupMemberRepository.findByGroupIdAndUserId(groupId.intValue(), userId.intValue()).isPresent();
+        return membershipResolver.find(groupId.intValue(), userId.intValue()).isPresent();
     }
 
     /**
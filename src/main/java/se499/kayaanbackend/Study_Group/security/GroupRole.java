@@ -1,5 +1,10 @@
 package se499.kayaanbackend.Study_Group.security;
 
+import java.util.Collections;
+import java.util.Set;
+
+import se499.kayaanbackend.Study_Group.GroupMember;
+
 /**
  * Enum สำหรับบทบาทต่างๆ ที่ผู้ใช้สามารถมีในกลุ่มเรียน
  */
@@ -37,21 +42,42 @@ public enum GroupRole {
     });
 
     private final GroupPermission[] permissions;
+    // สิทธิ์ของบทบาทคำนวณไว้ล่วงหน้า: การตรวจสิทธิ์เป็นการ AND บิตครั้งเดียว
+    private final long mask;
+    private final Set<GroupPermission> permissionSet;
 
     GroupRole(GroupPermission[] permissions) {
         this.permissions = permissions;
+        this.mask = GroupPermission.maskOf(permissions);
+        this.permissionSet = Collections.unmodifiableSet(GroupPermission.fromMask(mask));
     }
 
     public GroupPermission[] getPermissions() {
-        return permissions;
+        return permissions.clone();
+    }
+
+    /** สิทธิ์ทั้งหมดของบทบาท (แก้ไขไม่ได้) */
+    public Set<GroupPermission> getPermissionSet() {
+        return permissionSet;
+    }
+
+    public long mask() {
+        return mask;
     }
 
     public boolean hasPermission(GroupPermission permission) {
-        for (GroupPermission perm : permissions) {
-            if (perm == permission) {
-                return true;
-            }
-        }
-        return false;
+        return (mask & permission.mask()) != 0;
+    }
+
+    /** true ถ้าบทบาทมีทุกสิทธิ์ใน {@code requiredMask} */
+    public boolean hasAll(long requiredMask) {
+        return (mask & requiredMask) == requiredMask;
+    }
+
+    /**
+     * แปลง GroupMember.Role เป็น GroupRole
+     */
+    public static GroupRole of(GroupMember.Role memberRole) {
+        return memberRole == GroupMember.Role.admin ? ADMIN : MEMBER;
     }
 }
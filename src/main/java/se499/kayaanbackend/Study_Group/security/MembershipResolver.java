@@ -0,0 +1,152 @@
+package se499.kayaanbackend.Study_Group.security;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import lombok.RequiredArgsConstructor;
+import se499.kayaanbackend.Study_Group.GroupMember;
+import se499.kayaanbackend.Study_Group.repository.GroupMemberRepository;
+
+/**
+ * อ่านสมาชิกภาพ (group, user) ครั้งเดียวต่อ request
+ * <p>
+ * The first lookup of a pair loads its {@link GroupMember} row, present or absent, and keeps it in a
+ * request attribute; later exists, role and permission checks in the same request are served from
+ * that memo. A memo miss is served from {@link GroupMembershipCache} before going to the repository,
+ * and outside a web request (schedulers, message handlers) only that cache is used. Code that saves or
+ * deletes a membership must call {@link #remember}, {@link #forget} or {@link #forgetGroup}, which
+ * also invalidate the cache on this and every other node.
+ */
+@Component
+@RequiredArgsConstructor
+public class MembershipResolver {
+
+    private static final String MEMO_ATTRIBUTE = MembershipResolver.class.getName() + ".MEMO";
+
+    private final GroupMemberRepository groupMemberRepository;
+    private final GroupMembershipCache membershipCache;
+
+    public Optional<GroupMember> find(Integer groupId, Integer userId) {
+        if (groupId == null || userId == null) {
+            return Optional.empty();
+        }
+        Map<Key, Optional<GroupMember>> memo = memo();
+        if (memo == null) {
+            return load(groupId, userId);
+        }
+        return memo.computeIfAbsent(new Key(groupId, userId), key -> load(groupId, userId));
+    }
+
+    /**
+     * สมาชิกภาพของผู้ใช้ในหลายกลุ่ม: คู่ที่ยังไม่อยู่ใน memo หรือ cache ถูกโหลดด้วย IN query เดียว
+     */
+    public Map<Integer, Optional<GroupMember>> findAll(Integer userId, Collection<Integer> groupIds) {
+        Map<Integer, Optional<GroupMember>> result = new LinkedHashMap<>();
+        if (userId == null) {
+            groupIds.forEach(groupId -> result.put(groupId, Optional.empty()));
+            return result;
+        }
+        Map<Key, Optional<GroupMember>> memo = memo();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer groupId : groupIds) {
+            if (groupId == null || result.containsKey(groupId)) {
+                continue;
+            }
+            Optional<GroupMember> memoized = memo != null ? memo.get(new Key(groupId, userId)) : null;
+            if (memoized != null) {
+                result.put(groupId, memoized);
+                continue;
+            }
+            GroupMembershipCache.Lookup cached = membershipCache.lookup(groupId, userId);
+            if (cached.hit()) {
+                result.put(groupId, cached.member());
+            } else {
+                missing.add(groupId);
+                result.put(groupId, Optional.empty());
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<Integer, GroupMember> loaded = new HashMap<>();
+            for (GroupMember member : groupMemberRepository.findByUserIdAndGroupIdIn(userId, missing)) {
+                loaded.put(member.getGroupId(), member);
+            }
+            for (Integer groupId : missing) {
+                Optional<GroupMember> member = Optional.ofNullable(loaded.get(groupId));
+                membershipCache.put(groupId, userId, member);
+                result.put(groupId, member);
+            }
+        }
+        if (memo != null) {
+            result.forEach((groupId, member) -> memo.putIfAbsent(new Key(groupId, userId), member));
+        }
+        return result;
+    }
+
+    /** user ids ของสมาชิกทุกคนในกลุ่ม จาก cache ถ้ามี */
+    public List<Integer> memberIds(Integer groupId) {
+        return membershipCache.roster(groupId, () -> groupMemberRepository.findUserIdsByGroupId(groupId));
+    }
+
+    public boolean isMember(Integer groupId, Integer userId) {
+        return find(groupId, userId).isPresent();
+    }
+
+    /** บทบาทในกลุ่ม หรือ null ถ้าไม่ใช่สมาชิก */
+    public GroupMember.Role role(Integer groupId, Integer userId) {
+        return find(groupId, userId).map(GroupMember::getRole).orElse(null);
+    }
+
+    public void remember(GroupMember member) {
+        membershipCache.invalidate(member.getGroupId(), member.getUserId());
+        Map<Key, Optional<GroupMember>> memo = memo();
+        if (memo != null) {
+            memo.put(new Key(member.getGroupId(), member.getUserId()), Optional.of(member));
+        }
+    }
+
+    public void forget(Integer groupId, Integer userId) {
+        membershipCache.invalidate(groupId, userId);
+        Map<Key, Optional<GroupMember>> memo = memo();
+        if (memo != null) {
+            memo.remove(new Key(groupId, userId));
+        }
+    }
+
+    public void forgetGroup(Integer groupId) {
+        membershipCache.invalidateGroup(groupId);
+        Map<Key, Optional<GroupMember>> memo = memo();
+        if (memo != null) {
+            memo.keySet().removeIf(key -> key.groupId().equals(groupId));
+        }
+    }
+
+    private Optional<GroupMember> load(Integer groupId, Integer userId) {
+        return membershipCache.get(groupId, userId, () -> groupMemberRepository.findByGroupIdAndUserId(groupId, userId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Key, Optional<GroupMember>> memo() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Object memo = attributes.getAttribute(MEMO_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (memo == null) {
+            memo = new HashMap<Key, Optional<GroupMember>>();
+            attributes.setAttribute(MEMO_ATTRIBUTE, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Map<Key, Optional<GroupMember>>) memo;
+    }
+
+    private record Key(Integer groupId, Integer userId) {
+    }
+}
@@ -6,7 +6,10 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import se499.kayaanbackend.Study_Group.dto.ApiResponse;
+import se499.kayaanbackend.Study_Group.dto.BatchPermissionCheckRequest;
+import se499.kayaanbackend.Study_Group.dto.BatchPermissionCheckResponse;
 import se499.kayaanbackend.Study_Group.dto.PermissionCheckResponse;
+import se499.kayaanbackend.security.user.User;
 
 import java.util.Set;
 
@@ -126,4 +129,27 @@ public class PermissionController {
                 .body(ApiResponse.error("Error checking hierarchical permission: " + e.getMessage()));
         }
     }
+    
+    /**
+     * ตรวจสอบสิทธิ์ในหลายกลุ่มพร้อมกัน (query เดียว) สำหรับหน้าที่แสดง UI ตามสิทธิ์ของทุกกลุ่ม
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<BatchPermissionCheckResponse>> checkPermissionsBatch(
+            @RequestBody BatchPermissionCheckRequest request,
+            @AuthenticationPrincipal User currentUser) {
+        
+        try {
+            BatchPermissionCheckResponse response = permissionIntegrationService.checkPermissions(
+                currentUser.getId().longValue(), request.groupIds(), request.permissions());
+            
+            return ResponseEntity.ok(ApiResponse.success("Batch permission check completed", response));
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                .body(ApiResponse.error("Error checking permissions: " + e.getMessage()));
+        }
+    }
 }
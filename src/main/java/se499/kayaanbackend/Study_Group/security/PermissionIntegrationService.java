@@ -3,10 +3,15 @@ package se499.kayaanbackend.Study_Group.security;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import se499.kayaanbackend.Study_Group.GroupMember;
-import se499.kayaanbackend.Study_Group.repository.GroupMemberRepository;
+import se499.kayaanbackend.Study_Group.dto.BatchPermissionCheckResponse;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -16,54 +21,37 @@ import java.util.Set;
 @Service
 public class PermissionIntegrationService {
     
-    @Autowired
-    private GroupMemberRepository groupMemberRepository;
+    private static final int MAX_BATCH_GROUPS = 200;
     
-    /**
-     * แปลง GroupMember.Role เป็น GroupRole
-     */
-    private GroupRole mapToGroupRole(GroupMember.Role memberRole) {
-        switch (memberRole) {
-            case admin:
-                return GroupRole.ADMIN;
-            case member:
-            default:
-                return GroupRole.MEMBER;
-        }
-    }
+    @Autowired
+    private MembershipResolver membershipResolver;
     
     /**
      * ตรวจสอบสิทธิ์แบบ hierarchical
      */
     public boolean hasHierarchicalPermission(Long groupId, Long userId, GroupPermission permission) {
-        Optional<GroupMember> memberOpt = groupMemberRepository.findByGroupIdAndUserId(
+        Optional<GroupMember> memberOpt = membershipResolver.find(
             groupId.intValue(), userId.intValue());
         
         if (memberOpt.isEmpty()) {
             return false;
         }
         
-        GroupMember member = memberOpt.get();
-        GroupRole role = mapToGroupRole(member.getRole());
-        
-        return role.hasPermission(permission);
+        return GroupRole.of(memberOpt.get().getRole()).hasPermission(permission);
     }
     
     /**
      * ดึงสิทธิ์ทั้งหมดของผู้ใช้
      */
     public Set<GroupPermission> getUserPermissions(Long groupId, Long userId) {
-        Optional<GroupMember> memberOpt = groupMemberRepository.findByGroupIdAndUserId(
+        Optional<GroupMember> memberOpt = membershipResolver.find(
             groupId.intValue(), userId.intValue());
         
         if (memberOpt.isEmpty()) {
-            return new HashSet<>();
+            return Collections.emptySet();
         }
         
-        GroupMember member = memberOpt.get();
-        GroupRole role = mapToGroupRole(member.getRole());
-        
-        return new HashSet<>(Arrays.asList(role.getPermissions()));
+        return GroupRole.of(memberOpt.get().getRole()).getPermissionSet();
     }
     
     /**
@@ -85,26 +73,63 @@ public class PermissionIntegrationService {
      * ดึงบทบาทของผู้ใช้
      */
     public GroupRole getUserRole(Long groupId, Long userId) {
-        Optional<GroupMember> memberOpt = groupMemberRepository.findByGroupIdAndUserId(
+        Optional<GroupMember> memberOpt = membershipResolver.find(
             groupId.intValue(), userId.intValue());
         
         if (memberOpt.isEmpty()) {
             return null;
         }
         
-        GroupMember member = memberOpt.get();
-        return mapToGroupRole(member.getRole());
+        return GroupRole.of(memberOpt.get().getRole());
     }
     
     /**
      * ตรวจสอบว่าผู้ใช้มีสิทธิ์ในหลายกลุ่ม
      */
     public boolean hasPermissionInMultipleGroups(Long userId, GroupPermission permission, Long... groupIds) {
+        Map<Long, GroupRole> roles = getUserRoles(userId, Arrays.asList(groupIds));
         for (Long groupId : groupIds) {
-            if (!hasHierarchicalPermission(groupId, userId, permission)) {
+            GroupRole role = roles.get(groupId);
+            if (role == null || !role.hasPermission(permission)) {
                 return false;
             }
         }
         return true;
     }
+    
+    /**
+     * ดึงบทบาทของผู้ใช้ในหลายกลุ่มด้วย query เดียว (กลุ่มที่ไม่ได้เป็นสมาชิกจะไม่อยู่ใน map)
+     */
+    public Map<Long, GroupRole> getUserRoles(Long userId, Collection<Long> groupIds) {
+        List<Integer> ids = groupIds.stream().map(Long::intValue).distinct().toList();
+        Map<Long, GroupRole> roles = new LinkedHashMap<>();
+        membershipResolver.findAll(userId.intValue(), ids).forEach((groupId, member) ->
+            member.ifPresent(m -> roles.put(groupId.longValue(), GroupRole.of(m.getRole()))));
+        return roles;
+    }
+    
+    /**
+     * ตรวจสอบหลายสิทธิ์ในหลายกลุ่มพร้อมกัน: คืนสิทธิ์ที่ผู้ใช้มีจาก {@code permissions} ของแต่ละกลุ่ม
+     * (ทุกสิทธิ์ของบทบาทถ้า {@code permissions} ว่าง)
+     */
+    public BatchPermissionCheckResponse checkPermissions(Long userId, Collection<Long> groupIds,
+                                                         Collection<GroupPermission> permissions) {
+        if (groupIds == null) {
+            throw new IllegalArgumentException("groupIds is required");
+        }
+        if (groupIds.size() > MAX_BATCH_GROUPS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_GROUPS + " groups can be checked at once");
+        }
+        long requested = permissions == null || permissions.isEmpty() ? -1L : GroupPermission.maskOf(permissions);
+        Map<Long, GroupRole> roles = getUserRoles(userId, groupIds);
+        List<BatchPermissionCheckResponse.GroupPermissions> groups = new ArrayList<>(groupIds.size());
+        for (Long groupId : groupIds) {
+            GroupRole role = roles.get(groupId);
+            Set<GroupPermission> granted = role == null
+                ? Collections.emptySet()
+                : GroupPermission.fromMask(role.mask() & requested);
+            groups.add(new BatchPermissionCheckResponse.GroupPermissions(groupId, role != null, role, granted));
+        }
+        return new BatchPermissionCheckResponse(userId, groups);
+    }
 }
@@ -1,183 +1,169 @@
 package se499.kayaanbackend.Study_Group.security;
 
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import lombok.extern.slf4j.Slf4j;
+import se499.kayaanbackend.Study_Group.security.ratelimit.RateLimitAction;
+import se499.kayaanbackend.Study_Group.security.ratelimit.RateLimitDecision;
+import se499.kayaanbackend.Study_Group.security.ratelimit.RateLimitSnapshot;
+import se499.kayaanbackend.Study_Group.security.ratelimit.RateLimitStore;
+
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.ZoneId;
 
 /**
  * Service สำหรับจำกัดการใช้งานระบบ (Rate Limiting)
  */
+@Slf4j
 @Service
 public class RateLimitService {
     
-    // เก็บข้อมูลการใช้งาน (ใน production ควรใช้ Redis)
-    private final Map<String, UserActionCount> userActionCounts = new ConcurrentHashMap<>();
-    
-    // จำกัดการสร้างกลุ่ม: 5 กลุ่มต่อวัน
-    private static final int MAX_GROUPS_PER_DAY = 5;
-    
-    // จำกัดการโพสต์เนื้อหา: 50 โพสต์ต่อวัน
-    private static final int MAX_POSTS_PER_DAY = 50;
+    // สถานะของแต่ละ (action, userId, groupId): ในโหนดเดียว หรือแชร์ข้ามโหนด ตาม kayaan.rate-limit.store
+    private final RateLimitStore store;
     
-    // จำกัดการเชิญสมาชิก: 20 ครั้งต่อวัน
-    private static final int MAX_INVITES_PER_DAY = 20;
-    
-    // จำกัดการส่งข้อความ: 100 ข้อความต่อวัน
-    private static final int MAX_MESSAGES_PER_DAY = 100;
+    public RateLimitService(RateLimitStore store) {
+        this.store = store;
+    }
     
     /**
      * จำกัดการสร้างกลุ่ม
      */
     public boolean canCreateGroup(Long userId) {
-        String key = "create_group:" + userId;
-        return checkRateLimit(key, MAX_GROUPS_PER_DAY);
+        return tryAcquire(RateLimitAction.CREATE_GROUP, userId, null).allowed();
     }
     
     /**
      * จำกัดการโพสต์เนื้อหา
      */
     public boolean canPostContent(Long userId, Long groupId) {
-        String key = "post_content:" + userId + ":" + groupId;
-        return checkRateLimit(key, MAX_POSTS_PER_DAY);
+        return tryAcquire(RateLimitAction.POST_CONTENT, userId, groupId).allowed();
     }
     
     /**
      * จำกัดการเชิญสมาชิก
      */
     public boolean canInviteMembers(Long userId, Long groupId) {
-        String key = "invite_members:" + userId + ":" + groupId;
-        return checkRateLimit(key, MAX_INVITES_PER_DAY);
+        return tryAcquire(RateLimitAction.INVITE_MEMBERS, userId, groupId).allowed();
     }
     
     /**
      * จำกัดการส่งข้อความ
      */
     public boolean canSendMessage(Long userId, Long groupId) {
-        String key = "send_message:" + userId + ":" + groupId;
-        return checkRateLimit(key, MAX_MESSAGES_PER_DAY);
+        return tryAcquire(RateLimitAction.SEND_MESSAGE, userId, groupId).allowed();
     }
     
     /**
      * จำกัดการอัปโหลดไฟล์
      */
     public boolean canUploadFile(Long userId, Long groupId) {
-        String key = "upload_file:" + userId + ":" + groupId;
-        return checkRateLimit(key, MAX_POSTS_PER_DAY); // ใช้ limit เดียวกับโพสต์เนื้อหา
+        return tryAcquire(RateLimitAction.UPLOAD_FILE, userId, groupId).allowed();
     }
     
     /**
      * จำกัดการสร้างรหัสเชิญ
      */
     public boolean canCreateInvite(Long userId, Long groupId) {
-        String key = "create_invite:" + userId + ":" + groupId;
-        return checkRateLimit(key, MAX_INVITES_PER_DAY);
+        return tryAcquire(RateLimitAction.CREATE_INVITE, userId, groupId).allowed();
     }
     
     /**
      * จำกัดการลบเนื้อหา
      */
     public boolean canDeleteContent(Long userId, Long groupId) {
-        String key = "delete_content:" + userId + ":" + groupId;
-        return checkRateLimit(key, 20); // จำกัดการลบ 20 ครั้งต่อวัน
+        return tryAcquire(RateLimitAction.DELETE_CONTENT, userId, groupId).allowed();
     }
     
     /**
      * จำกัดการแก้ไขเนื้อหา
      */
     public boolean canEditContent(Long userId, Long groupId) {
-        String key = "edit_content:" + userId + ":" + groupId;
-        return checkRateLimit(key, 30); // จำกัดการแก้ไข 30 ครั้งต่อวัน
+        return tryAcquire(RateLimitAction.EDIT_CONTENT, userId, groupId).allowed();
     }
     
     /**
-     * ตรวจสอบ rate limit
+     * ตรวจสอบและใช้โควต้าหนึ่งครั้ง
+     * <p>
+     * User-scoped actions are counted under group 0 whatever {@code groupId} is; group-scoped
+     * actions need the group, since counting them under 0 would pool every group together.
      */
-    private boolean checkRateLimit(String key, int maxActions) {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime startOfDay = now.toLocalDate().atStartOfDay();
-        
-        UserActionCount count = userActionCounts.get(key);
-        
-        if (count == null) {
-            // สร้างใหม่
-            count = new UserActionCount(key, startOfDay, 1);
-            userActionCounts.put(key, count);
-            return true;
-        }
-        
-        // ตรวจสอบว่าต้อง reset หรือไม่
-        if (count.getStartTime().isBefore(startOfDay)) {
-            // reset สำหรับวันใหม่
-            count.setStartTime(startOfDay);
-            count.setCount(1);
-            return true;
+    public RateLimitDecision tryAcquire(RateLimitAction action, Long userId, Long groupId) {
+        if (groupId == null && action.scope() == RateLimitAction.Scope.GROUP) {
+            throw new IllegalArgumentException(action + " is limited per group; groupId is required");
         }
-        
-        // ตรวจสอบจำนวนครั้ง
-        if (count.getCount() >= maxActions) {
-            return false;
-        }
-        
-        // เพิ่มจำนวนครั้ง
-        count.incrementCount();
-        return true;
+        return store.tryAcquire(action, userId, groupId == null ? 0L : groupId);
+    }
+    
+    /**
+     * ใช้โควต้าหนึ่งครั้ง หรือโยน {@link se499.kayaanbackend.Study_Group.exception.RateLimitExceededException}
+     * เมื่อเกินขีดจำกัด
+     */
+    public RateLimitDecision acquireOrThrow(RateLimitAction action, Long userId, Long groupId) {
+        return tryAcquire(action, userId, groupId).orThrow(action);
+    }
+    
+    /**
+     * จำนวนครั้งสูงสุดของ action ตาม policy ที่ตั้งค่าไว้
+     */
+    public long limit(RateLimitAction action) {
+        return store.limit(action);
     }
     
     /**
-     * รับข้อมูล rate limit ของผู้ใช้
+     * อ่านโควต้าที่เหลือของทุก action โดยไม่ใช้โควต้า (action ระดับผู้ใช้อ่านจากคีย์เดียวกับตอนใช้)
+     */
+    public RateLimitSnapshot snapshot(Long userId, Long groupId) {
+        return store.snapshot(userId, groupId == null ? 0L : groupId);
+    }
+    
+    /**
+     * รับข้อมูล rate limit ของผู้ใช้ (อ่านอย่างเดียว ไม่ใช้โควต้า)
      */
     public RateLimitInfo getRateLimitInfo(Long userId, Long groupId) {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime startOfDay = now.toLocalDate().atStartOfDay();
+        RateLimitSnapshot snapshot = snapshot(userId, groupId);
+        long resetAtMillis = snapshot.actions().values().stream()
+                .mapToLong(RateLimitSnapshot.Quota::resetAtMillis)
+                .max()
+                .orElse(snapshot.takenAtMillis());
         
         return RateLimitInfo.builder()
-                .canCreateGroup(canCreateGroup(userId))
-                .canPostContent(canPostContent(userId, groupId))
-                .canInviteMembers(canInviteMembers(userId, groupId))
-                .canSendMessage(canSendMessage(userId, groupId))
-                .canUploadFile(canUploadFile(userId, groupId))
-                .canCreateInvite(canCreateInvite(userId, groupId))
-                .canDeleteContent(canDeleteContent(userId, groupId))
-                .canEditContent(canEditContent(userId, groupId))
-                .resetTime(startOfDay.plusDays(1))
+                .canCreateGroup(snapshot.get(RateLimitAction.CREATE_GROUP).allowed())
+                .canPostContent(snapshot.get(RateLimitAction.POST_CONTENT).allowed())
+                .canInviteMembers(snapshot.get(RateLimitAction.INVITE_MEMBERS).allowed())
+                .canSendMessage(snapshot.get(RateLimitAction.SEND_MESSAGE).allowed())
+                .canUploadFile(snapshot.get(RateLimitAction.UPLOAD_FILE).allowed())
+                .canCreateInvite(snapshot.get(RateLimitAction.CREATE_INVITE).allowed())
+                .canDeleteContent(snapshot.get(RateLimitAction.DELETE_CONTENT).allowed())
+                .canEditContent(snapshot.get(RateLimitAction.EDIT_CONTENT).allowed())
+                .resetTime(LocalDateTime.ofInstant(Instant.ofEpochMilli(resetAtMillis), ZoneId.systemDefault()))
                 .build();
     }
     
     /**
-     * ล้างข้อมูล rate limit (สำหรับ testing หรือ admin)
+     * ลบคีย์ที่ไม่ได้ใช้งานแล้ว (สถานะเท่ากับคีย์ใหม่) เพื่อไม่ให้ map โตไปเรื่อยๆ
      */
-    public void clearRateLimit(String key) {
-        userActionCounts.remove(key);
+    @Scheduled(fixedDelayString = "${kayaan.rate-limit.evict-interval-ms:60000}")
+    public void evictIdleKeys() {
+        int evicted = store.evictIdle();
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate limit keys, {} remaining", evicted, store.size());
+        }
     }
     
     /**
-     * ล้างข้อมูล rate limit ทั้งหมด (สำหรับ testing หรือ admin)
+     * ล้างข้อมูล rate limit (สำหรับ testing หรือ admin)
      */
-    public void clearAllRateLimits() {
-        userActionCounts.clear();
+    public void clearRateLimit(RateLimitAction action, Long userId, Long groupId) {
+        store.clear(action, userId, groupId == null ? 0L : groupId);
     }
     
     /**
-     * Class สำหรับเก็บจำนวนการกระทำของผู้ใช้
+     * ล้างข้อมูล rate limit ทั้งหมด (สำหรับ testing หรือ admin)
      */
-    private static class UserActionCount {
-        private final String key;
-        private LocalDateTime startTime;
-        private int count;
-        
-        public UserActionCount(String key, LocalDateTime startTime, int count) {
-            this.key = key;
-            this.startTime = startTime;
-            this.count = count;
-        }
-        
-        public LocalDateTime getStartTime() { return startTime; }
-        public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
-        public int getCount() { return count; }
-        public void setCount(int count) { this.count = count; }
-        public void incrementCount() { this.count++; }
+    public void clearAllRateLimits() {
+        store.clearAll();
     }
     
     /**
@@ -0,0 +1,91 @@
+package se499.kayaanbackend.Study_Group.security.ratelimit;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * ตัวแทนของ store ที่แชร์กัน สำหรับใช้ใน test
+ * <p>
+ * Instances built over the same {@link SharedCounters} behave like nodes sharing one
+ * {@link JdbcRateLimitStore} table, with {@link SharedCounters#roundTrips()} standing in for
+ * database calls.
+ */
+public class EmbeddedRateLimitStore extends LeasedRateLimitStore {
+
+    private final SharedCounters counters;
+
+    public EmbeddedRateLimitStore(RateLimitProperties properties, SharedCounters counters, LongSupplier clock) {
+        super(properties, clock);
+        this.counters = counters;
+    }
+
+    @Override
+    protected Grant grant(Counter counter, long want, long limit, long expiresAt) {
+        counters.roundTrips.incrementAndGet();
+        long[] granted = new long[1];
+        long[] row = counters.rows.compute(counter, (c, current) -> {
+            long[] next = current == null ? new long[] { 0, expiresAt } : current.clone();
+            granted[0] = Math.max(0, Math.min(want, limit - next[0]));
+            next[0] += granted[0];
+            return next;
+        });
+        return new Grant(granted[0], row[0]);
+    }
+
+    @Override
+    protected void release(List<Release> releases) {
+        counters.roundTrips.incrementAndGet();
+        for (Release release : releases) {
+            counters.rows.computeIfPresent(release.counter(),
+                    (c, current) -> new long[] { Math.max(0, current[0] - release.permits()), current[1] });
+        }
+    }
+
+    @Override
+    protected long[] usage(long userId, long groupId, long[] windowStarts) {
+        counters.roundTrips.incrementAndGet();
+        long[] used = new long[windowStarts.length];
+        for (RateLimitAction action : RateLimitAction.values()) {
+            long[] row = counters.rows.get(
+                    new Counter(action, userId, action.keyGroupId(groupId), windowStarts[action.ordinal()]));
+            if (row != null) {
+                used[action.ordinal()] = row[0];
+            }
+        }
+        return used;
+    }
+
+    @Override
+    protected void purgeExpired(long now) {
+        counters.rows.values().removeIf(row -> row[1] <= now);
+    }
+
+    @Override
+    protected void reset(RateLimitAction action, long userId, long groupId) {
+        counters.rows.keySet().removeIf(c -> c.action() == action && c.userId() == userId && c.groupId() == groupId);
+    }
+
+    @Override
+    protected void resetAll() {
+        counters.rows.clear();
+    }
+
+    /** The shared table: counter to {@code [used, expiresAt]}. */
+    public static final class SharedCounters {
+
+        private final Map<Counter, long[]> rows = new ConcurrentHashMap<>();
+        private final AtomicInteger roundTrips = new AtomicInteger();
+
+        public long used(Counter counter) {
+            long[] row = rows.get(counter);
+            return row == null ? 0 : row[0];
+        }
+
+        public int roundTrips() {
+            return roundTrips.get();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package se499.kayaanbackend.Study_Group.security.ratelimit;
+
+/**
+ * นับบนโหนดนี้เท่านั้น ผ่าน {@link RateLimiterEngine}
+ */
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private final RateLimiterEngine engine;
+
+    public InMemoryRateLimitStore(RateLimiterEngine engine) {
+        this.engine = engine;
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(RateLimitAction action, long userId, long groupId) {
+        return engine.tryAcquire(action, userId, groupId);
+    }
+
+    @Override
+    public RateLimitSnapshot snapshot(long userId, long groupId) {
+        return engine.snapshot(userId, groupId);
+    }
+
+    @Override
+    public long limit(RateLimitAction action) {
+        return engine.policy(action).limit();
+    }
+
+    @Override
+    public int evictIdle() {
+        return engine.evictIdle();
+    }
+
+    @Override
+    public int size() {
+        return engine.size();
+    }
+
+    @Override
+    public void clear(RateLimitAction action, long userId, long groupId) {
+        engine.clear(action, userId, groupId);
+    }
+
+    @Override
+    public void clearAll() {
+        engine.clearAll();
+    }
+}
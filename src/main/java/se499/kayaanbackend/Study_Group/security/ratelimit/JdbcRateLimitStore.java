@@ -0,0 +1,149 @@
+package se499.kayaanbackend.Study_Group.security.ratelimit;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * แชร์ตัวนับ rate limit ระหว่างโหนดผ่านตาราง {@code rate_limit_counter}
+ * <p>
+ * A lease is granted with a read followed by a compare-and-set update on {@code used}, so no row
+ * lock is held across round trips. When a counter is contended enough that a few compare-and-set
+ * attempts in a row lose, the grant is made under {@code SELECT ... FOR UPDATE} in its own short
+ * transaction instead, which always reaches a decision. Returned permits are written with one JDBC
+ * batch.
+ */
+@Slf4j
+public class JdbcRateLimitStore extends LeasedRateLimitStore {
+
+    private static final int OPTIMISTIC_ATTEMPTS = 4;
+
+    private static final String SELECT_USED =
+            "SELECT used FROM rate_limit_counter WHERE action = ? AND user_id = ? AND group_id = ? AND window_start = ?";
+    private static final String INSERT_COUNTER =
+            "INSERT IGNORE INTO rate_limit_counter (action, user_id, group_id, window_start, expires_at, used) VALUES (?, ?, ?, ?, ?, 0)";
+    private static final String SELECT_USED_FOR_UPDATE = SELECT_USED + " FOR UPDATE";
+    private static final String ADD =
+            "UPDATE rate_limit_counter SET used = used + ? "
+                    + "WHERE action = ? AND user_id = ? AND group_id = ? AND window_start = ?";
+    private static final String COMPARE_AND_ADD =
+            "UPDATE rate_limit_counter SET used = used + ? "
+                    + "WHERE action = ? AND user_id = ? AND group_id = ? AND window_start = ? AND used = ?";
+    private static final String RELEASE =
+            "UPDATE rate_limit_counter SET used = GREATEST(used - ?, 0) "
+                    + "WHERE action = ? AND user_id = ? AND group_id = ? AND window_start = ?";
+    private static final String SELECT_USAGE =
+            "SELECT action, group_id, window_start, used FROM rate_limit_counter "
+                    + "WHERE user_id = ? AND group_id IN (?, 0) AND expires_at > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate lockedGrants;
+
+    public JdbcRateLimitStore(RateLimitProperties properties, JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager) {
+        super(properties, System::currentTimeMillis);
+        this.jdbcTemplate = jdbcTemplate;
+        // the row lock must be released as soon as the grant is made, whatever the caller is doing
+        this.lockedGrants = new TransactionTemplate(transactionManager);
+        this.lockedGrants.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    protected Grant grant(Counter counter, long want, long limit, long expiresAt) {
+        String action = counter.action().name();
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            List<Long> rows = jdbcTemplate.queryForList(SELECT_USED, Long.class,
+                    action, counter.userId(), counter.groupId(), counter.windowStart());
+            if (rows.isEmpty()) {
+                insert(counter, expiresAt);
+                continue;
+            }
+            long used = rows.get(0);
+            long granted = Math.min(want, limit - used);
+            if (granted <= 0) {
+                return new Grant(0, used);
+            }
+            int updated = jdbcTemplate.update(COMPARE_AND_ADD,
+                    granted, action, counter.userId(), counter.groupId(), counter.windowStart(), used);
+            if (updated == 1) {
+                return new Grant(granted, used + granted);
+            }
+        }
+        log.debug("Leasing rate limit permits for {} under a row lock after {} conflicting updates",
+                counter, OPTIMISTIC_ATTEMPTS);
+        return lockedGrants.execute(status -> grantLocked(counter, want, limit, expiresAt));
+    }
+
+    private Grant grantLocked(Counter counter, long want, long limit, long expiresAt) {
+        String action = counter.action().name();
+        List<Long> rows = jdbcTemplate.queryForList(SELECT_USED_FOR_UPDATE, Long.class,
+                action, counter.userId(), counter.groupId(), counter.windowStart());
+        if (rows.isEmpty()) {
+            insert(counter, expiresAt);
+            rows = jdbcTemplate.queryForList(SELECT_USED_FOR_UPDATE, Long.class,
+                    action, counter.userId(), counter.groupId(), counter.windowStart());
+        }
+        long used = rows.get(0);
+        long granted = Math.max(0, Math.min(want, limit - used));
+        if (granted > 0) {
+            jdbcTemplate.update(ADD, granted, action, counter.userId(), counter.groupId(), counter.windowStart());
+        }
+        return new Grant(granted, used + granted);
+    }
+
+    private void insert(Counter counter, long expiresAt) {
+        jdbcTemplate.update(INSERT_COUNTER, counter.action().name(),
+                counter.userId(), counter.groupId(), counter.windowStart(), expiresAt);
+    }
+
+    @Override
+    protected void release(List<Release> releases) {
+        jdbcTemplate.batchUpdate(RELEASE, releases.stream()
+                .map(r -> new Object[] {
+                        r.permits(), r.counter().action().name(), r.counter().userId(),
+                        r.counter().groupId(), r.counter().windowStart() })
+                .toList());
+    }
+
+    @Override
+    protected long[] usage(long userId, long groupId, long[] windowStarts) {
+        long[] used = new long[windowStarts.length];
+        jdbcTemplate.query(SELECT_USAGE, rs -> {
+            RateLimitAction action;
+            try {
+                action = RateLimitAction.valueOf(rs.getString("action"));
+            } catch (IllegalArgumentException e) {
+                return;                        // row written by a node that knows an action we don't
+            }
+            if (rs.getLong("group_id") == action.keyGroupId(groupId)
+                    && rs.getLong("window_start") == windowStarts[action.ordinal()]) {
+                used[action.ordinal()] = rs.getLong("used");
+            }
+        }, userId, groupId, System.currentTimeMillis());
+        return used;
+    }
+
+    @Override
+    protected void purgeExpired(long now) {
+        int purged = jdbcTemplate.update("DELETE FROM rate_limit_counter WHERE expires_at <= ?", now);
+        if (purged > 0) {
+            log.debug("Purged {} expired rate limit counters", purged);
+        }
+    }
+
+    @Override
+    protected void reset(RateLimitAction action, long userId, long groupId) {
+        jdbcTemplate.update("DELETE FROM rate_limit_counter WHERE action = ? AND user_id = ? AND group_id = ?",
+                action.name(), userId, groupId);
+    }
+
+    @Override
+    protected void resetAll() {
+        jdbcTemplate.update("DELETE FROM rate_limit_counter");
+    }
+}
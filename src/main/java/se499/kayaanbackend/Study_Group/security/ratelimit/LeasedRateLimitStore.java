@@ -0,0 +1,298 @@
+package se499.kayaanbackend.Study_Group.security.ratelimit;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import lombok.extern.slf4j.Slf4j;
+import se499.kayaanbackend.Study_Group.security.ratelimit.RateLimiterEngine.Key;
+import se499.kayaanbackend.shared.realtime.RealtimeBus;
+
+/**
+ * ฐานสำหรับ store ที่แชร์ตัวนับระหว่างหลายโหนด โดยจองโควต้าเป็นก้อน (lease)
+ * <p>
+ * Every key has one shared counter per fixed window. Instead of incrementing it on each request, a
+ * node reserves a lease of permits in one round trip and serves later requests from it, so the
+ * shared store sees one call per lease rather than one per request. A lease is at most a tenth of
+ * the action's limit (and never more than {@code lease-size}), so small limits are leased one permit
+ * at a time. A node can hold at most one unused lease per key; permits still unused once a key goes
+ * quiet are handed back in one batch, and when a node is refused it announces the counter on
+ * {@link #REFUSED_CHANNEL} so nodes still holding permits for it hand them back straight away.
+ * <p>
+ * Shared counters use fixed windows of each action's configured length; token-bucket actions are
+ * enforced as {@code limit} permits per window.
+ */
+@Slf4j
+public abstract class LeasedRateLimitStore implements RateLimitStore, DisposableBean {
+
+    public static final String REFUSED_CHANNEL = "cluster.ratelimit.refused";
+
+    private final long[] limits;
+    private final long[] windows;
+    private final long[] leaseSizes;
+    private final long leaseIdleMillis;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<Key, Lease> leases = new ConcurrentHashMap<>();
+    private volatile RealtimeBus refusals;
+
+    protected LeasedRateLimitStore(RateLimitProperties properties, LongSupplier clock) {
+        RateLimitAction[] actions = RateLimitAction.values();
+        this.limits = new long[actions.length];
+        this.windows = new long[actions.length];
+        this.leaseSizes = new long[actions.length];
+        int leaseSize = Math.max(1, properties.getLeaseSize());
+        for (RateLimitAction action : actions) {
+            RateLimitProperties.ActionLimit limit = properties.limitFor(action);
+            limits[action.ordinal()] = limit.getLimit();
+            windows[action.ordinal()] = limit.getWindow().toMillis();
+            leaseSizes[action.ordinal()] = Math.min(leaseSize, Math.max(1, limit.getLimit() / 10));
+        }
+        this.leaseIdleMillis = properties.getLeaseIdle().toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Reserves up to {@code want} permits on the shared counter without passing {@code limit}.
+     * Returns how many were reserved and the counter's value afterwards.
+     */
+    protected abstract Grant grant(Counter counter, long want, long limit, long expiresAt);
+
+    /** Hands unused permits back to their shared counters in one batch. */
+    protected abstract void release(List<Release> releases);
+
+    /**
+     * Shared counter values for the key's current windows, indexed by action ordinal. Each action is
+     * read under {@link RateLimitAction#keyGroupId}, so user-scoped actions come from group 0.
+     */
+    protected abstract long[] usage(long userId, long groupId, long[] windowStarts);
+
+    /** Deletes shared counters whose window ended at or before {@code now}. */
+    protected abstract void purgeExpired(long now);
+
+    protected abstract void reset(RateLimitAction action, long userId, long groupId);
+
+    protected abstract void resetAll();
+
+    /**
+     * Publishes refusals on {@code bus} and hands back leased permits when another node is refused.
+     */
+    public void shareRefusals(RealtimeBus bus) {
+        bus.subscribe(REFUSED_CHANNEL, (channel, message) -> {
+            if (message instanceof Counter counter) {
+                releaseLease(counter);
+            }
+        });
+        this.refusals = bus;
+    }
+
+    /**
+     * Hands this node's unused permits for {@code counter} back to the shared store, so a node that
+     * was refused can have them. Does nothing when the lease is from another window or already empty.
+     */
+    public void releaseLease(Counter counter) {
+        Lease lease = leases.get(new Key(counter.action().ordinal(), counter.userId(), counter.groupId()));
+        if (lease == null) {
+            return;
+        }
+        long permits;
+        synchronized (lease) {
+            if (lease.retired || lease.windowStart != counter.windowStart() || lease.available == 0) {
+                return;
+            }
+            permits = lease.available;
+            lease.available = 0;
+            lease.sharedUsed -= permits;
+        }
+        release(List.of(new Release(counter, permits)));
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(RateLimitAction action, long userId, long requestedGroupId) {
+        int a = action.ordinal();
+        long groupId = action.keyGroupId(requestedGroupId);
+        long now = clock.getAsLong();
+        long windowStart = windowStart(a, now);
+        long resetAt = windowStart + windows[a];
+        Key key = new Key(a, userId, groupId);
+        while (true) {
+            Lease lease = leases.computeIfAbsent(key, k -> new Lease());
+            synchronized (lease) {
+                if (lease.retired) {
+                    leases.remove(key, lease);
+                    continue;
+                }
+                if (lease.windowStart != windowStart) {
+                    // permits leased for an earlier window expired with it
+                    lease.windowStart = windowStart;
+                    lease.available = 0;
+                    lease.sharedUsed = 0;
+                    lease.refusalAnnounced = false;
+                }
+                lease.lastUsedAt = now;
+                if (lease.available == 0) {
+                    Counter counter = new Counter(action, userId, groupId, windowStart);
+                    Grant grant = grant(counter, leaseSizes[a], limits[a], resetAt);
+                    lease.available = grant.granted();
+                    lease.sharedUsed = grant.used();
+                    if (grant.granted() == 0) {
+                        if (!lease.refusalAnnounced) {
+                            lease.refusalAnnounced = true;
+                            announceRefusal(counter);
+                        }
+                        return new RateLimitDecision(false, 0, resetAt);
+                    }
+                    lease.refusalAnnounced = false;
+                }
+                lease.available--;
+                return new RateLimitDecision(true, remaining(limits[a], lease.sharedUsed, lease.available), resetAt);
+            }
+        }
+    }
+
+    @Override
+    public RateLimitSnapshot snapshot(long userId, long groupId) {
+        long now = clock.getAsLong();
+        RateLimitAction[] actions = RateLimitAction.values();
+        long[] windowStarts = new long[actions.length];
+        for (RateLimitAction action : actions) {
+            windowStarts[action.ordinal()] = windowStart(action.ordinal(), now);
+        }
+        long[] used = usage(userId, groupId, windowStarts);
+
+        Map<RateLimitAction, RateLimitSnapshot.Quota> quotas = new EnumMap<>(RateLimitAction.class);
+        for (RateLimitAction action : actions) {
+            int a = action.ordinal();
+            long available = 0;
+            Lease lease = leases.get(new Key(a, userId, action.keyGroupId(groupId)));
+            if (lease != null) {
+                synchronized (lease) {
+                    if (!lease.retired && lease.windowStart == windowStarts[a]) {
+                        available = lease.available;
+                    }
+                }
+            }
+            quotas.put(action, new RateLimitSnapshot.Quota(
+                    limits[a], remaining(limits[a], used[a], available), windowStarts[a] + windows[a]));
+        }
+        return new RateLimitSnapshot(now, quotas);
+    }
+
+    @Override
+    public long limit(RateLimitAction action) {
+        return limits[action.ordinal()];
+    }
+
+    /**
+     * Drops leases from past windows and hands back permits of leases idle for longer than
+     * {@code lease-idle}, then purges expired shared counters.
+     */
+    @Override
+    public int evictIdle() {
+        long now = clock.getAsLong();
+        int evicted = drain(now, false);
+        purgeExpired(now);
+        return evicted;
+    }
+
+    @Override
+    public int size() {
+        return leases.size();
+    }
+
+    @Override
+    public void clear(RateLimitAction action, long userId, long requestedGroupId) {
+        long groupId = action.keyGroupId(requestedGroupId);
+        Lease lease = leases.remove(new Key(action.ordinal(), userId, groupId));
+        if (lease != null) {
+            synchronized (lease) {
+                lease.retired = true;
+            }
+        }
+        reset(action, userId, groupId);
+    }
+
+    @Override
+    public void clearAll() {
+        leases.clear();
+        resetAll();
+    }
+
+    /** Returns every unused permit so other nodes can use it after this one stops. */
+    @Override
+    public void destroy() {
+        drain(clock.getAsLong(), true);
+    }
+
+    private void announceRefusal(Counter counter) {
+        RealtimeBus bus = refusals;
+        if (bus == null) {
+            return;
+        }
+        try {
+            bus.publish(REFUSED_CHANNEL, counter);
+        } catch (RuntimeException e) {
+            log.warn("Failed to announce rate limit refusal for {}: {}", counter, e.getMessage());
+        }
+    }
+
+    private int drain(long now, boolean all) {
+        List<Release> releases = new ArrayList<>();
+        int evicted = 0;
+        for (Map.Entry<Key, Lease> entry : leases.entrySet()) {
+            Key key = entry.getKey();
+            Lease lease = entry.getValue();
+            synchronized (lease) {
+                boolean current = lease.windowStart == windowStart(key.action(), now);
+                if (!all && current && now - lease.lastUsedAt < leaseIdleMillis) {
+                    continue;
+                }
+                if (current && lease.available > 0) {
+                    RateLimitAction action = RateLimitAction.values()[key.action()];
+                    releases.add(new Release(
+                            new Counter(action, key.userId(), key.groupId(), lease.windowStart), lease.available));
+                }
+                lease.retired = true;
+                leases.remove(key, lease);
+                evicted++;
+            }
+        }
+        if (!releases.isEmpty()) {
+            release(releases);
+        }
+        return evicted;
+    }
+
+    private long windowStart(int action, long now) {
+        long window = windows[action];
+        return RateLimiterEngine.EPOCH_MILLIS + Math.floorDiv(now - RateLimiterEngine.EPOCH_MILLIS, window) * window;
+    }
+
+    private static long remaining(long limit, long sharedUsed, long available) {
+        return Math.max(0, Math.min(limit, limit - sharedUsed + available));
+    }
+
+    /** One shared counter: a key within one window starting at {@code windowStart} (epoch millis). */
+    public record Counter(RateLimitAction action, long userId, long groupId, long windowStart) {
+    }
+
+    public record Grant(long granted, long used) {
+    }
+
+    public record Release(Counter counter, long permits) {
+    }
+
+    private static final class Lease {
+        long windowStart = Long.MIN_VALUE;
+        long available;
+        long sharedUsed;
+        long lastUsedAt;
+        boolean retired;
+        /** set once this node has asked the others for their permits, until it is granted some again */
+        boolean refusalAnnounced;
+    }
+}
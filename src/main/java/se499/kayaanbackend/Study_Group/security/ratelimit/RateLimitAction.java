@@ -0,0 +1,42 @@
+package se499.kayaanbackend.Study_Group.security.ratelimit;
+
+/**
+ * Enum สำหรับประเภทการกระทำที่ถูกจำกัดจำนวนครั้ง
+ * <p>
+ * {@link Scope#USER} actions count per user across all groups and are always keyed under group 0;
+ * {@link Scope#GROUP} actions count per user within each group. Stores apply {@link #keyGroupId}
+ * when consuming and when reading snapshots, so both always look at the same counter.
+ */
+public enum RateLimitAction {
+    CREATE_GROUP(Scope.USER),       // สร้างกลุ่ม (ไม่ผูกกับกลุ่ม)
+    POST_CONTENT(Scope.GROUP),      // โพสต์เนื้อหา
+    INVITE_MEMBERS(Scope.GROUP),    // เชิญสมาชิก
+    SEND_MESSAGE(Scope.GROUP),      // ส่งข้อความ
+    UPLOAD_FILE(Scope.GROUP),       // อัปโหลดไฟล์
+    CREATE_INVITE(Scope.GROUP),     // สร้างรหัสเชิญ
+    DELETE_CONTENT(Scope.GROUP),    // ลบเนื้อหา
+    EDIT_CONTENT(Scope.GROUP);      // แก้ไขเนื้อหา
+
+    /**
+     * ขอบเขตของตัวนับ: ต่อผู้ใช้ หรือต่อผู้ใช้ในแต่ละกลุ่ม
+     */
+    public enum Scope {
+        USER,
+        GROUP
+    }
+
+    private final Scope scope;
+
+    RateLimitAction(Scope scope) {
+        this.scope = scope;
+    }
+
+    public Scope scope() {
+        return scope;
+    }
+
+    /** The group id this action is counted under: 0 for user-scoped actions. */
+    public long keyGroupId(long groupId) {
+        return scope == Scope.USER ? 0L : groupId;
+    }
+}
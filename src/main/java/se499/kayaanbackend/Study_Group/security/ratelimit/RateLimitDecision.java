@@ -0,0 +1,29 @@
+package se499.kayaanbackend.Study_Group.security.ratelimit;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import se499.kayaanbackend.Study_Group.exception.RateLimitExceededException;
+
+/**
+ * ผลการตรวจสอบ rate limit หนึ่งครั้ง
+ *
+ * @param allowed     อนุญาตหรือไม่
+ * @param remaining   จำนวนครั้งที่เหลือหลังจากการตรวจสอบนี้
+ * @param resetAtMillis เวลา (epoch millis) ที่จะทำรายการได้อีกครั้ง หรือโควต้าเต็มอีกครั้ง
+ */
+public record RateLimitDecision(boolean allowed, long remaining, long resetAtMillis) {
+
+    /**
+     * Returns this decision when allowed, otherwise throws the {@link RateLimitExceededException}
+     * every caller reports a rejection with (mapped to 429 with {@code Retry-After}).
+     */
+    public RateLimitDecision orThrow(RateLimitAction action) {
+        if (allowed) {
+            return this;
+        }
+        LocalDateTime resetTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(resetAtMillis), ZoneId.systemDefault());
+        throw new RateLimitExceededException("Rate limit exceeded for " + action, action.name(), resetTime);
+    }
+}
@@ -0,0 +1,82 @@
+package se499.kayaanbackend.Study_Group.security.ratelimit;
+
+import java.util.Map;
+
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import se499.kayaanbackend.Study_Group.security.RateLimitService;
+import se499.kayaanbackend.security.user.User;
+
+/**
+ * ตรวจสอบ {@link RateLimited} ก่อนเรียก controller
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    public static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    private final RateLimitService rateLimitService;
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request,
+                             @NonNull HttpServletResponse response,
+                             @NonNull Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        RateLimited rateLimited = handlerMethod.getMethodAnnotation(RateLimited.class);
+        if (rateLimited == null) {
+            return true;
+        }
+        Long userId = currentUserId();
+        if (userId == null) {
+            return true;                       // unauthenticated calls are rejected by Spring Security
+        }
+        RateLimitAction action = rateLimited.value();
+        Long groupId = null;
+        if (action.scope() == RateLimitAction.Scope.GROUP) {
+            String value = pathVariable(request, rateLimited.groupIdVariable());
+            if (value == null) {
+                throw new IllegalStateException("@RateLimited(" + action + ") is limited per group but "
+                        + handlerMethod.getShortLogMessage() + " has no {" + rateLimited.groupIdVariable() + "} path variable");
+            }
+            try {
+                groupId = Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                return true;                   // argument binding rejects the request with 400
+            }
+        }
+
+        RateLimitDecision decision = rateLimitService.tryAcquire(action, userId, groupId);
+        response.setHeader(LIMIT_HEADER, String.valueOf(rateLimitService.limit(action)));
+        response.setHeader(REMAINING_HEADER, String.valueOf(decision.remaining()));
+        decision.orThrow(action);
+        return true;
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user && user.getId() != null) {
+            return user.getId().longValue();
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String pathVariable(HttpServletRequest request, String variable) {
+        Map<String, String> variables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return variables == null ? null : variables.get(variable);
+    }
+}
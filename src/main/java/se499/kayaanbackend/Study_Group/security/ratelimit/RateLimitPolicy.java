@@ -0,0 +1,32 @@
+package se499.kayaanbackend.Study_Group.security.ratelimit;
+
+/**
+ * นโยบาย rate limit ที่ทำงานบน state ขนาด 64 บิตหนึ่งค่า
+ * <p>
+ * The whole per-key state is packed into one {@code long}, so {@link RateLimiterEngine} can update it
+ * with a single compare-and-set. Implementations are stateless and must be pure functions of
+ * {@code (state, now)}; times are millis since the engine's epoch.
+ */
+public interface RateLimitPolicy {
+
+    /** Returned by {@link #acquire} when the request must be rejected. */
+    long REJECTED = Long.MIN_VALUE;
+
+    /** State of a key that has never been used. */
+    long initialState(long now);
+
+    /** New state after taking one permit, or {@link #REJECTED}. */
+    long acquire(long state, long now);
+
+    /** Permits that could still be taken at {@code now}. */
+    long remaining(long state, long now);
+
+    /** Time at which the next permit becomes available (rejected) or the quota is full again (allowed). */
+    long resetAt(long state, long now);
+
+    /** True once the state is indistinguishable from {@link #initialState}, so the key can be dropped. */
+    boolean isIdle(long state, long now);
+
+    /** Configured ceiling, reported as the limit header. */
+    long limit();
+}
@@ -0,0 +1,77 @@
+package se499.kayaanbackend.Study_Group.security.ratelimit;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * ค่าจำกัดของแต่ละ action จาก {@code kayaan.rate-limit.actions.*}
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "kayaan.rate-limit")
+public class RateLimitProperties {
+
+    private Map<RateLimitAction, ActionLimit> actions = new EnumMap<>(RateLimitAction.class);
+
+    /** where counters live: this node only, or a table shared by every node */
+    private StoreType store = StoreType.MEMORY;
+
+    /** most permits a node reserves from the shared store in one round trip; never more than a tenth of a limit */
+    private int leaseSize = 10;
+
+    /** unused leased permits are handed back once a key has been quiet this long */
+    private Duration leaseIdle = Duration.ofSeconds(30);
+
+    public Map<RateLimitAction, RateLimitPolicy> toPolicies() {
+        Map<RateLimitAction, RateLimitPolicy> policies = new EnumMap<>(RateLimitAction.class);
+        for (RateLimitAction action : RateLimitAction.values()) {
+            policies.put(action, limitFor(action).toPolicy());
+        }
+        return policies;
+    }
+
+    public ActionLimit limitFor(RateLimitAction action) {
+        ActionLimit limit = actions.get(action);
+        if (limit == null) {
+            throw new IllegalStateException("No rate limit configured for kayaan.rate-limit.actions." + action);
+        }
+        return limit;
+    }
+
+    public enum PolicyType {
+        SLIDING_WINDOW,
+        TOKEN_BUCKET
+    }
+
+    public enum StoreType {
+        MEMORY,
+        JDBC
+    }
+
+    @Getter
+    @Setter
+    public static class ActionLimit {
+
+        private PolicyType policy = PolicyType.SLIDING_WINDOW;
+
+        /** requests per window, or bucket capacity refilled once per window */
+        private long limit;
+
+        private Duration window = Duration.ofDays(1);
+
+        RateLimitPolicy toPolicy() {
+            return switch (policy) {
+                case SLIDING_WINDOW -> new SlidingWindowPolicy(limit, window.toMillis());
+                case TOKEN_BUCKET -> new TokenBucketPolicy(limit, limit, window.toMillis());
+            };
+        }
+    }
+}
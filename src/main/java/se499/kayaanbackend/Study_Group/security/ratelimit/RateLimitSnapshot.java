@@ -0,0 +1,28 @@
+package se499.kayaanbackend.Study_Group.security.ratelimit;
+
+import java.util.Map;
+
+/**
+ * สถานะโควต้าของทุก action สำหรับผู้ใช้และกลุ่มหนึ่ง ณ เวลาหนึ่ง (อ่านอย่างเดียว ไม่ใช้โควต้า)
+ *
+ * @param takenAtMillis เวลา (epoch millis) ที่อ่านสถานะ
+ * @param actions       โควต้าของแต่ละ action
+ */
+public record RateLimitSnapshot(long takenAtMillis, Map<RateLimitAction, Quota> actions) {
+
+    public Quota get(RateLimitAction action) {
+        return actions.get(action);
+    }
+
+    /**
+     * @param limit         จำนวนครั้งสูงสุดตาม policy
+     * @param remaining     จำนวนครั้งที่ยังทำได้
+     * @param resetAtMillis เวลา (epoch millis) ที่จะทำรายการได้อีกครั้ง หรือโควต้าเต็มอีกครั้ง
+     */
+    public record Quota(long limit, long remaining, long resetAtMillis) {
+
+        public boolean allowed() {
+            return remaining > 0;
+        }
+    }
+}
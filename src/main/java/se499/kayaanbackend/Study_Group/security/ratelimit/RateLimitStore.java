@@ -0,0 +1,28 @@
+package se499.kayaanbackend.Study_Group.security.ratelimit;
+
+/**
+ * ที่เก็บสถานะ rate limit ของคีย์ (action, userId, groupId)
+ * <p>
+ * {@link InMemoryRateLimitStore} counts on this node only. {@link JdbcRateLimitStore} shares one
+ * counter per key and window between every node, and {@link EmbeddedRateLimitStore} does the same
+ * against an in-process counter table so multi-node behaviour can be tested without a database.
+ */
+public interface RateLimitStore {
+
+    /** Takes one permit for the key if the limit allows it. */
+    RateLimitDecision tryAcquire(RateLimitAction action, long userId, long groupId);
+
+    /** Reads every action's quota for the key without taking a permit. */
+    RateLimitSnapshot snapshot(long userId, long groupId);
+
+    long limit(RateLimitAction action);
+
+    /** Drops state that no longer affects any decision. Returns the number of keys removed. */
+    int evictIdle();
+
+    int size();
+
+    void clear(RateLimitAction action, long userId, long groupId);
+
+    void clearAll();
+}
@@ -0,0 +1,31 @@
+package se499.kayaanbackend.Study_Group.security.ratelimit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import se499.kayaanbackend.shared.realtime.RealtimeBus;
+
+/**
+ * เลือก store ตาม {@code kayaan.rate-limit.store}
+ */
+@Configuration
+public class RateLimitStoreConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "kayaan.rate-limit", name = "store", havingValue = "memory", matchIfMissing = true)
+    public RateLimitStore inMemoryRateLimitStore(RateLimitProperties properties) {
+        return new InMemoryRateLimitStore(new RateLimiterEngine(properties.toPolicies()));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "kayaan.rate-limit", name = "store", havingValue = "jdbc")
+    public RateLimitStore jdbcRateLimitStore(RateLimitProperties properties, JdbcTemplate jdbcTemplate,
+                                             PlatformTransactionManager transactionManager, RealtimeBus realtimeBus) {
+        JdbcRateLimitStore store = new JdbcRateLimitStore(properties, jdbcTemplate, transactionManager);
+        store.shareRefusals(realtimeBus);
+        return store;
+    }
+}
@@ -0,0 +1,26 @@
+package se499.kayaanbackend.Study_Group.security.ratelimit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * ระบุว่า endpoint นี้ถูกจำกัดจำนวนครั้งตาม action ที่กำหนด
+ * <p>
+ * Enforced by {@link RateLimitInterceptor} before the controller runs, so a rejected call never
+ * reaches a {@code @Transactional} service or borrows a database connection. The key is the
+ * authenticated user, plus, for {@link RateLimitAction.Scope#GROUP} actions, the group taken from
+ * the {@link #groupIdVariable} path variable. Group-scoped actions on endpoints without that
+ * variable (the group comes from the body) must call {@code RateLimitService} themselves.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+
+    RateLimitAction value();
+
+    String groupIdVariable() default "groupId";
+}
@@ -0,0 +1,147 @@
+package se499.kayaanbackend.Study_Group.security.ratelimit;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * เครื่องมือ rate limit แบบ lock-free สำหรับคีย์ (action, userId, groupId)
+ * <p>
+ * Each key owns one {@link AtomicLong} holding the policy state, so the hot path for an existing key
+ * is a map lookup plus a compare-and-set loop with no locks and no string building. Idle keys are
+ * retired by {@link #evictIdle()} only when their state is equivalent to a fresh one; a retired slot
+ * is marked first so a concurrent caller that still holds it retries against a new slot instead of
+ * losing its count.
+ */
+public class RateLimiterEngine {
+
+    /** Fixed epoch (2025-01-01T00:00Z) so every node and restart agrees on window boundaries. */
+    static final long EPOCH_MILLIS = 1_735_689_600_000L;
+
+    private static final long RETIRED = -1L;
+
+    private final RateLimitPolicy[] policies;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<Key, Slot> slots = new ConcurrentHashMap<>();
+
+    public RateLimiterEngine(Map<RateLimitAction, RateLimitPolicy> policies) {
+        this(policies, System::currentTimeMillis);
+    }
+
+    public RateLimiterEngine(Map<RateLimitAction, RateLimitPolicy> policies, LongSupplier clock) {
+        this.policies = new RateLimitPolicy[RateLimitAction.values().length];
+        for (RateLimitAction action : RateLimitAction.values()) {
+            RateLimitPolicy policy = policies.get(action);
+            if (policy == null) {
+                throw new IllegalArgumentException("No rate limit policy for " + action);
+            }
+            this.policies[action.ordinal()] = policy;
+        }
+        this.clock = clock;
+    }
+
+    /**
+     * Takes one permit for the key if the policy allows it.
+     */
+    public RateLimitDecision tryAcquire(RateLimitAction action, long userId, long groupId) {
+        RateLimitPolicy policy = policies[action.ordinal()];
+        Key key = new Key(action.ordinal(), userId, action.keyGroupId(groupId));
+        long now = now();
+        while (true) {
+            Slot slot = slots.get(key);
+            if (slot == null) {
+                slot = slots.computeIfAbsent(key, k -> new Slot(policy.initialState(now)));
+            }
+            while (true) {
+                long state = slot.get();
+                if (state == RETIRED) {
+                    slots.remove(key, slot);
+                    break;
+                }
+                long next = policy.acquire(state, now);
+                if (next == RateLimitPolicy.REJECTED) {
+                    return new RateLimitDecision(false, policy.remaining(state, now), toEpochMillis(policy.resetAt(state, now)));
+                }
+                if (slot.compareAndSet(state, next)) {
+                    return new RateLimitDecision(true, policy.remaining(next, now), toEpochMillis(policy.resetAt(next, now)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads every action's quota for the key without taking a permit. All actions are evaluated
+     * against the same instant, user-scoped actions are read under group 0 as they are consumed, and
+     * keys that were never used are reported from their initial state without being created.
+     */
+    public RateLimitSnapshot snapshot(long userId, long groupId) {
+        long now = now();
+        Map<RateLimitAction, RateLimitSnapshot.Quota> quotas = new EnumMap<>(RateLimitAction.class);
+        for (RateLimitAction action : RateLimitAction.values()) {
+            RateLimitPolicy policy = policies[action.ordinal()];
+            Slot slot = slots.get(new Key(action.ordinal(), userId, action.keyGroupId(groupId)));
+            long state = slot == null ? RETIRED : slot.get();
+            if (state == RETIRED) {
+                state = policy.initialState(now);
+            }
+            quotas.put(action, new RateLimitSnapshot.Quota(
+                    policy.limit(), policy.remaining(state, now), toEpochMillis(policy.resetAt(state, now))));
+        }
+        return new RateLimitSnapshot(toEpochMillis(now), quotas);
+    }
+
+    public RateLimitPolicy policy(RateLimitAction action) {
+        return policies[action.ordinal()];
+    }
+
+    /**
+     * Drops keys whose state is back to initial. Returns the number of keys removed.
+     */
+    public int evictIdle() {
+        long now = now();
+        int evicted = 0;
+        for (Map.Entry<Key, Slot> entry : slots.entrySet()) {
+            Slot slot = entry.getValue();
+            long state = slot.get();
+            if (state != RETIRED
+                    && policies[entry.getKey().action()].isIdle(state, now)
+                    && slot.compareAndSet(state, RETIRED)) {
+                slots.remove(entry.getKey(), slot);
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public void clear(RateLimitAction action, long userId, long groupId) {
+        slots.remove(new Key(action.ordinal(), userId, action.keyGroupId(groupId)));
+    }
+
+    public void clearAll() {
+        slots.clear();
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    long now() {
+        return clock.getAsLong() - EPOCH_MILLIS;
+    }
+
+    static long toEpochMillis(long engineTime) {
+        return engineTime + EPOCH_MILLIS;
+    }
+
+    record Key(int action, long userId, long groupId) {
+    }
+
+    @SuppressWarnings("serial")
+    static final class Slot extends AtomicLong {
+        Slot(long initialState) {
+            super(initialState);
+        }
+    }
+}
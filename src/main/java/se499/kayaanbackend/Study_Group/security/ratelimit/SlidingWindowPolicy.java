@@ -0,0 +1,142 @@
+package se499.kayaanbackend.Study_Group.security.ratelimit;
+
+/**
+ * Sliding-window counter: นับจำนวนในหน้าต่างปัจจุบันและหน้าต่างก่อนหน้า แล้วถ่วงน้ำหนักตามเวลาที่ผ่านไป
+ * <p>
+ * State layout: window index (23 bits) | previous count (20 bits) | current count (20 bits); the sign
+ * bit stays clear so the engine can use negative values as markers.
+ * The estimate {@code previous * (1 - elapsed/window) + current} smooths out the burst a fixed
+ * window allows at its boundary.
+ */
+public final class SlidingWindowPolicy implements RateLimitPolicy {
+
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long WINDOW_MASK = (1L << 23) - 1;
+
+    private final long limit;
+    private final long windowMillis;
+
+    public SlidingWindowPolicy(long limit, long windowMillis) {
+        if (limit <= 0 || limit > COUNT_MASK) {
+            throw new IllegalArgumentException("limit must be between 1 and " + COUNT_MASK);
+        }
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("windowMillis must be positive");
+        }
+        this.limit = limit;
+        this.windowMillis = windowMillis;
+    }
+
+    @Override
+    public long initialState(long now) {
+        return pack(windowIndex(now), 0, 0);
+    }
+
+    @Override
+    public long acquire(long state, long now) {
+        long window = currentWindow(state, now);
+        long previous = previousCount(state, window);
+        long current = currentCount(state, window);
+        if (estimate(previous, current, now) + 1 > limit) {
+            return REJECTED;
+        }
+        return pack(window, previous, current + 1);
+    }
+
+    @Override
+    public long remaining(long state, long now) {
+        long window = currentWindow(state, now);
+        double used = estimate(previousCount(state, window), currentCount(state, window), now);
+        return Math.max(0, limit - (long) Math.ceil(used));
+    }
+
+    @Override
+    public long resetAt(long state, long now) {
+        long window = currentWindow(state, now);
+        long previous = previousCount(state, window);
+        long current = currentCount(state, window);
+        long windowStart = (now / windowMillis) * windowMillis;
+        if (current + 1 <= limit) {
+            long at = firstAllowed(windowStart, previous, current);
+            if (at > now) {
+                return at;
+            }
+            return windowStart + windowMillis;
+        }
+        // the current window is full: room only opens once it has become the previous window
+        return firstAllowed(windowStart + windowMillis, current, 0);
+    }
+
+    /**
+     * First moment in the window starting at {@code windowStart} at which one more request passes
+     * {@link #acquire}, i.e. {@code previous * (1 - elapsed) + current + 1 <= limit}.
+     */
+    private long firstAllowed(long windowStart, long previous, long current) {
+        if (previous == 0) {
+            return windowStart;
+        }
+        double fraction = 1.0 - (double) (limit - current - 1) / previous;
+        long offset = (long) Math.ceil(Math.max(0, fraction) * windowMillis);
+        // rounding can land a millisecond early; acquire must agree with what we report
+        while (offset < windowMillis && estimate(previous, current, windowStart + offset) + 1 > limit) {
+            offset++;
+        }
+        return windowStart + offset;
+    }
+
+    @Override
+    public boolean isIdle(long state, long now) {
+        long window = currentWindow(state, now);
+        return previousCount(state, window) == 0 && currentCount(state, window) == 0;
+    }
+
+    @Override
+    public long limit() {
+        return limit;
+    }
+
+    private double estimate(long previous, long current, long now) {
+        double elapsed = (double) (now % windowMillis) / windowMillis;
+        return previous * (1.0 - elapsed) + current;
+    }
+
+    /**
+     * Window for {@code now}, except when another thread already stored a later window: callers may
+     * read the clock slightly before a concurrent update, and must not roll the state backwards.
+     */
+    private long currentWindow(long state, long now) {
+        long window = windowIndex(now);
+        long stored = storedWindow(state);
+        long ahead = (stored - window) & WINDOW_MASK;
+        return ahead != 0 && ahead < (WINDOW_MASK >>> 1) ? stored : window;
+    }
+
+    private long windowIndex(long now) {
+        return (now / windowMillis) & WINDOW_MASK;
+    }
+
+    private static long pack(long window, long previous, long current) {
+        return (window << (2 * COUNT_BITS)) | (previous << COUNT_BITS) | current;
+    }
+
+    private static long storedWindow(long state) {
+        return state >>> (2 * COUNT_BITS);
+    }
+
+    /** Count of the window before {@code window}, rolling the stored state forward as needed. */
+    private static long previousCount(long state, long window) {
+        long stored = storedWindow(state);
+        if (stored == window) {
+            return (state >>> COUNT_BITS) & COUNT_MASK;
+        }
+        if (((stored + 1) & WINDOW_MASK) == window) {
+            return state & COUNT_MASK;
+        }
+        return 0;
+    }
+
+    private static long currentCount(long state, long window) {
+        return storedWindow(state) == window ? state & COUNT_MASK : 0;
+    }
+}
@@ -0,0 +1,100 @@
+package se499.kayaanbackend.Study_Group.security.ratelimit;
+
+/**
+ * Token bucket: เติมโทเค็นอย่างต่อเนื่องตามอัตราที่กำหนด และยอมให้ burst ได้ไม่เกินความจุ
+ * <p>
+ * State layout: last refill time (40 bits, millis since engine epoch) | tokens (24 bits, fixed point
+ * with 8 fractional bits). Capacity is therefore limited to 65535 tokens, and the state stays
+ * non-negative for the first 2^39 ms (about 17 years) after the engine epoch.
+ */
+public final class TokenBucketPolicy implements RateLimitPolicy {
+
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long ONE = 1L << 8;
+
+    private final long capacity;
+    private final long capacityFixed;
+    private final double refillPerMilliFixed;
+
+    /**
+     * @param capacity        maximum burst, in tokens
+     * @param refillPerPeriod tokens added per {@code periodMillis}
+     */
+    public TokenBucketPolicy(long capacity, long refillPerPeriod, long periodMillis) {
+        if (capacity <= 0 || capacity * ONE > TOKEN_MASK) {
+            throw new IllegalArgumentException("capacity must be between 1 and " + (TOKEN_MASK / ONE));
+        }
+        if (refillPerPeriod <= 0 || periodMillis <= 0) {
+            throw new IllegalArgumentException("refill rate must be positive");
+        }
+        this.capacity = capacity;
+        this.capacityFixed = capacity * ONE;
+        this.refillPerMilliFixed = (double) refillPerPeriod * ONE / periodMillis;
+    }
+
+    @Override
+    public long initialState(long now) {
+        return pack(now, capacityFixed);
+    }
+
+    @Override
+    public long acquire(long state, long now) {
+        long refilled = refill(state, now);
+        long tokens = refilled & TOKEN_MASK;
+        if (tokens < ONE) {
+            return REJECTED;
+        }
+        return refilled - ONE;
+    }
+
+    @Override
+    public long remaining(long state, long now) {
+        return tokensAt(state, now) / ONE;
+    }
+
+    @Override
+    public long resetAt(long state, long now) {
+        long tokens = tokensAt(state, now);
+        long missing = tokens < ONE ? ONE - tokens : capacityFixed - tokens;
+        return now + (long) Math.ceil(missing / refillPerMilliFixed);
+    }
+
+    @Override
+    public boolean isIdle(long state, long now) {
+        return tokensAt(state, now) >= capacityFixed;
+    }
+
+    @Override
+    public long limit() {
+        return capacity;
+    }
+
+    private long tokensAt(long state, long now) {
+        return refill(state, now) & TOKEN_MASK;
+    }
+
+    /**
+     * Adds the tokens earned since the last refill. The timestamp only advances by the time that was
+     * actually converted into tokens, so frequent requests against a slow refill rate do not lose
+     * the fractional remainder on every update.
+     */
+    private long refill(long state, long now) {
+        long last = state >>> TOKEN_BITS;
+        long tokens = state & TOKEN_MASK;
+        long elapsed = now - last;
+        if (elapsed <= 0) {
+            return state;
+        }
+        long added = (long) (elapsed * refillPerMilliFixed);
+        if (tokens + added >= capacityFixed) {
+            return pack(now, capacityFixed);
+        }
+        long consumed = Math.min(elapsed, (long) (added / refillPerMilliFixed));
+        return pack(last + consumed, tokens + added);
+    }
+
+    private static long pack(long time, long tokens) {
+        return (time << TOKEN_BITS) | tokens;
+    }
+}
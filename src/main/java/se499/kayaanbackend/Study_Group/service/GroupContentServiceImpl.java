@@ -19,7 +19,7 @@ import se499.kayaanbackend.Study_Group.dto.UploadResourceCompleteRequest;
 import se499.kayaanbackend.Study_Group.dto.UploadResourceInitRequest;
 import se499.kayaanbackend.Study_Group.dto.UploadResourceInitResponse;
 import se499.kayaanbackend.Study_Group.repository.GroupContentRepository;
-import se499.kayaanbackend.Study_Group.repository.GroupMemberRepository;
+import se499.kayaanbackend.Study_Group.security.MembershipResolver;
 
 @Service
 @RequiredArgsConstructor
@@ -27,7 +27,7 @@ import se499.kayaanbackend.Study_Group.repository.GroupMemberRepository;
 public class GroupContentServiceImpl implements GroupContentService {
     
     private final GroupContentRepository groupContentRepository;
-    private final GroupMemberRepository groupMemberRepository;
+    private final MembershipResolver membershipResolver;
     private final GroupStorageService groupStorageService;
     private final GroupNotificationService notificationService;
     private final ObjectMapper objectMapper = new ObjectMapper();
@@ -35,7 +35,7 @@ public class GroupContentServiceImpl implements GroupContentService {
     @Override
     public List<ResourceResponse> listResources(Integer currentUserId, Integer groupId, String search, String type, int page, int size) {
         // Check if user is a member
-        if (!groupMemberRepository.existsByGroupIdAndUserId(groupId, currentUserId)) {
+        if (!membershipResolver.isMember(groupId, currentUserId)) {
             throw new RuntimeException("Access denied: User is not a member of this group");
         }
         
@@ -61,7 +61,7 @@ public class GroupContentServiceImpl implements GroupContentService {
     @Override
     public UploadResourceInitResponse initUpload(Integer currentUserId, Integer groupId, UploadResourceInitRequest request) {
         // Check if user is a member
-        if (!groupMemberRepository.existsByGroupIdAndUserId(groupId, currentUserId)) {
+        if (!membershipResolver.isMember(groupId, currentUserId)) {
             throw new RuntimeException("Access denied: User is not a member of this group");
         }
         
@@ -85,7 +85,7 @@ public class GroupContentServiceImpl implements GroupContentService {
     @Override
     public ResourceResponse completeUpload(Integer currentUserId, Integer groupId, UploadResourceCompleteRequest request) {
         // Check if user is a member
-        if (!groupMemberRepository.existsByGroupIdAndUserId(groupId, currentUserId)) {
+        if (!membershipResolver.isMember(groupId, currentUserId)) {
             throw new RuntimeException("Access denied: User is not a member of this group");
         }
         
@@ -113,7 +113,7 @@ public class GroupContentServiceImpl implements GroupContentService {
     @Override
     public void deleteResource(Integer currentUserId, Integer groupId, Long resourceId) {
         // Check if user is a member
-        if (!groupMemberRepository.existsByGroupIdAndUserId(groupId, currentUserId)) {
+        if (!membershipResolver.isMember(groupId, currentUserId)) {
             throw new RuntimeException("Access denied: User is not a member of this group");
         }
         
@@ -121,7 +121,7 @@ public class GroupContentServiceImpl implements GroupContentService {
                 .orElseThrow(() -> new RuntimeException("Resource not found"));
         
         // Check if user is the uploader or has moderator/owner role
-        GroupMember member = groupMemberRepository.findByGroupIdAndUserId(groupId, currentUserId)
+        GroupMember member = membershipResolver.find(groupId, currentUserId)
                 .orElseThrow(() -> new RuntimeException("User is not a member of this group"));
         
         if (!content.getUploaderId().equals(currentUserId) && 
@@ -142,7 +142,7 @@ public class GroupContentServiceImpl implements GroupContentService {
     public ResourceResponse updateResource(Integer currentUserId, Integer groupId, Long resourceId, 
                                  String title, String description, List<String> tags) {
         // Check if user is a member
-        if (!groupMemberRepository.existsByGroupIdAndUserId(groupId, currentUserId)) {
+        if (!membershipResolver.isMember(groupId, currentUserId)) {
             throw new RuntimeException("Access denied: User is not a member of this group");
         }
 
@@ -150,7 +150,7 @@ public class GroupContentServiceImpl implements GroupContentService {
                 .orElseThrow(() -> new RuntimeException("Resource not found"));
 
         // Check if user is the uploader or has moderator/owner role
-        GroupMember member = groupMemberRepository.findByGroupIdAndUserId(groupId, currentUserId)
+        GroupMember member = membershipResolver.find(groupId, currentUserId)
                 .orElseThrow(() -> new RuntimeException("User is not a member of this group"));
 
         if (!content.getUploaderId().equals(currentUserId) && 
@@ -12,6 +12,7 @@ import se499.kayaanbackend.Study_Group.dto.MemberResponse;
 import se499.kayaanbackend.Study_Group.dto.UpdateMemberRoleRequest;
 import se499.kayaanbackend.Study_Group.repository.GroupMemberRepository;
 import se499.kayaanbackend.Study_Group.repository.StudyGroupRepository;
+import se499.kayaanbackend.Study_Group.security.MembershipResolver;
 import se499.kayaanbackend.security.user.UserRepository;
 
 @Service
@@ -20,6 +21,7 @@ import se499.kayaanbackend.security.user.UserRepository;
 public class GroupMemberServiceImpl implements GroupMemberService {
     
     private final GroupMemberRepository groupMemberRepository;
+    private final MembershipResolver membershipResolver;
     private final StudyGroupRepository studyGroupRepository;
     private final UserRepository userRepository;
     private final GroupNotificationService notificationService;
@@ -27,7 +29,7 @@ public class GroupMemberServiceImpl implements GroupMemberService {
     @Override
     public List<MemberResponse> getGroupMembers(Integer currentUserId, Integer groupId) {
         // Check if user is a member
-        if (!groupMemberRepository.existsByGroupIdAndUserId(groupId, currentUserId)) {
+        if (!membershipResolver.isMember(groupId, currentUserId)) {
             throw new RuntimeException("Access denied: User is not a member of this group");
         }
         
@@ -41,11 +43,11 @@ public class GroupMemberServiceImpl implements GroupMemberService {
     @Override
     public MemberResponse updateMemberRole(Integer currentUserId, Integer groupId, Integer memberId, UpdateMemberRoleRequest request) {
         // Check if current user is a member
-        GroupMember currentMember = groupMemberRepository.findByGroupIdAndUserId(groupId, currentUserId)
+        GroupMember currentMember = membershipResolver.find(groupId, currentUserId)
                 .orElseThrow(() -> new RuntimeException("Access denied: User is not a member of this group"));
         
         // Check if target user is a member
-        GroupMember targetMember = groupMemberRepository.findByGroupIdAndUserId(groupId, memberId)
+        GroupMember targetMember = membershipResolver.find(groupId, memberId)
                 .orElseThrow(() -> new RuntimeException("Target user is not a member of this group"));
         
         // Check permissions
@@ -71,6 +73,7 @@ public class GroupMemberServiceImpl implements GroupMemberService {
         
         targetMember.setRole(request.role());
         GroupMember updatedMember = groupMemberRepository.save(targetMember);
+        membershipResolver.remember(updatedMember);
         
         // Notify about role change
         notificationService.notifyContentUpdate(groupId, currentUserId, "role update");
@@ -81,11 +84,11 @@ public class GroupMemberServiceImpl implements GroupMemberService {
     @Override
     public void removeMember(Integer currentUserId, Integer groupId, Integer memberId) {
         // Check if current user is a member
-        GroupMember currentMember = groupMemberRepository.findByGroupIdAndUserId(groupId, currentUserId)
+        GroupMember currentMember = membershipResolver.find(groupId, currentUserId)
                 .orElseThrow(() -> new RuntimeException("Access denied: User is not a member of this group"));
         
         // Check if target user is a member
-        GroupMember targetMember = groupMemberRepository.findByGroupIdAndUserId(groupId, memberId)
+        GroupMember targetMember = membershipResolver.find(groupId, memberId)
                 .orElseThrow(() -> new RuntimeException("Target user is not a member of this group"));
         
         // Check permissions
@@ -106,6 +109,7 @@ public class GroupMemberServiceImpl implements GroupMemberService {
         }
         
         groupMemberRepository.delete(targetMember);
+        membershipResolver.forget(groupId, memberId);
         
         // Notify about member removal
         notificationService.notifyMemberLeft(groupId, memberId);
@@ -114,7 +118,7 @@ public class GroupMemberServiceImpl implements GroupMemberService {
     @Override
     public void inviteByEmail(Integer currentUserId, Integer groupId, String email) {
         // Check if user is a member
-        if (!groupMemberRepository.existsByGroupIdAndUserId(groupId, currentUserId)) {
+        if (!membershipResolver.isMember(groupId, currentUserId)) {
             throw new RuntimeException("Access denied: User is not a member of this group");
         }
         
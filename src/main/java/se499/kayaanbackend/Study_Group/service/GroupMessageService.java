@@ -1,21 +1,24 @@
 package se499.kayaanbackend.Study_Group.service;
 
-import java.util.List;
-
+import se499.kayaanbackend.Study_Group.dto.MessagePageResponse;
 import se499.kayaanbackend.Study_Group.dto.MessageRequest;
 import se499.kayaanbackend.Study_Group.dto.MessageResponse;
+import se499.kayaanbackend.security.user.User;
 
 public interface GroupMessageService {
     
     /**
-     * Sends a message to a study group
+     * Sends a message to a study group. The message is written behind by
+     * {@link se499.kayaanbackend.Study_Group.chat.ChatWriteBehind}; the response already carries its final id.
      */
-    MessageResponse sendMessage(Integer currentUserId, Integer groupId, MessageRequest request);
+    MessageResponse sendMessage(User sender, Integer groupId, MessageRequest request);
     
     /**
-     * Gets messages from a study group with pagination
+     * Gets messages from a study group, newest first, using keyset cursors.
+     * Pass {@code before} to page back into history or {@code after} to fetch newer messages;
+     * with neither, the latest page is returned.
      */
-    List<MessageResponse> getMessages(Integer currentUserId, Integer groupId, int page, int size);
+    MessagePageResponse getMessages(Integer currentUserId, Integer groupId, String before, String after, int size);
     
     /**
      * Updates a message (only by the sender)
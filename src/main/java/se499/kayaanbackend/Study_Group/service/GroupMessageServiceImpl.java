@@ -1,22 +1,28 @@
 package se499.kayaanbackend.Study_Group.service;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import lombok.RequiredArgsConstructor;
 import se499.kayaanbackend.Study_Group.GroupMember;
-import se499.kayaanbackend.Study_Group.StudyGroup;
+import se499.kayaanbackend.Study_Group.chat.ChatWriteBehind;
+import se499.kayaanbackend.Study_Group.chat.PendingMessage;
+import se499.kayaanbackend.Study_Group.chat.RecentMessageCache;
+import se499.kayaanbackend.Study_Group.dto.MessageCursor;
+import se499.kayaanbackend.Study_Group.dto.MessagePageResponse;
 import se499.kayaanbackend.Study_Group.dto.MessageRequest;
 import se499.kayaanbackend.Study_Group.dto.MessageResponse;
 import se499.kayaanbackend.Study_Group.entity.GroupMessage;
-import se499.kayaanbackend.Study_Group.repository.GroupMemberRepository;
+import se499.kayaanbackend.Study_Group.exception.StudyGroupException;
 import se499.kayaanbackend.Study_Group.repository.GroupMessageRepository;
-import se499.kayaanbackend.Study_Group.repository.StudyGroupRepository;
+import se499.kayaanbackend.Study_Group.security.MembershipResolver;
+import se499.kayaanbackend.realtime.GroupChatRelay;
 import se499.kayaanbackend.security.user.User;
 import se499.kayaanbackend.security.user.UserRepository;
 
@@ -25,57 +31,105 @@ import se499.kayaanbackend.security.user.UserRepository;
 @Transactional
 public class GroupMessageServiceImpl implements GroupMessageService {
     
+    private static final int MAX_PAGE_SIZE = 100;
+    
     private final GroupMessageRepository groupMessageRepository;
-    private final GroupMemberRepository groupMemberRepository;
-    private final StudyGroupRepository studyGroupRepository;
+    private final MembershipResolver membershipResolver;
+    private final ChatWriteBehind chatWriteBehind;
+    private final RecentMessageCache recentMessageCache;
     private final UserRepository userRepository;
     private final GroupNotificationService notificationService;
+    private final GroupChatRelay groupChatRelay;
     
     @Override
-    public MessageResponse sendMessage(Integer currentUserId, Integer groupId, MessageRequest request) {
-        // Check if user is a member of the group
-        GroupMember membership = groupMemberRepository.findByGroupIdAndUserId(groupId, currentUserId)
-                .orElseThrow(() -> new RuntimeException("Access denied: User is not a member of this group"));
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public MessageResponse sendMessage(User sender, Integer groupId, MessageRequest request) {
+        // Membership comes from the cache; a member row also proves the group exists
+        if (!membershipResolver.isMember(groupId, sender.getId())) {
+            throw new RuntimeException("Access denied: User is not a member of this group");
+        }
+        
+        if (request.content() == null || request.content().isBlank()) {
+            throw new StudyGroupException("Message content is required");
+        }
         
-        User user = userRepository.findById(currentUserId)
+        // The authenticated principal is a detached User without profile fields
+        String senderName = userRepository.findDisplayNameById(sender.getId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        StudyGroup group = studyGroupRepository.findById(groupId)
-                .orElseThrow(() -> new RuntimeException("Group not found"));
+        String messageType = request.messageType() != null ? request.messageType() : "text";
+        PendingMessage message = chatWriteBehind.submit(groupId, sender.getId(), request.content(), messageType);
+        
+        MessageResponse response = new MessageResponse(
+                message.id(),
+                groupId,
+                sender.getId(),
+                senderName,
+                message.content(),
+                message.messageType(),
+                message.createdAt(),
+                message.createdAt()
+        );
         
-        GroupMessage message = GroupMessage.builder()
-                .studyGroup(group)
-                .user(user)
-                .content(request.content())
-                .messageType(request.messageType())
-                .createdAt(LocalDateTime.now())
-                .build();
+        recentMessageCache.append(response);
+        message.persisted().whenComplete((ok, error) -> {
+            if (error != null) {
+                recentMessageCache.remove(groupId, message.id());
+            }
+        });
         
-        GroupMessage savedMessage = groupMessageRepository.save(message);
+        // Live subscribers see the message now; the row is written behind it
+        groupChatRelay.broadcast(groupId, response);
         
         // Send notification to other group members
-        notificationService.notifyNewMessage(groupId, currentUserId, request.content());
+        notificationService.notifyNewMessage(groupId, sender.getId(), request.content());
         
-        return mapToResponse(savedMessage);
+        return response;
     }
     
     @Override
-    public List<MessageResponse> getMessages(Integer currentUserId, Integer groupId, int page, int size) {
+    @Transactional(readOnly = true)
+    public MessagePageResponse getMessages(Integer currentUserId, Integer groupId, String before, String after, int size) {
         // Check if user is a member of the group
-        if (!groupMemberRepository.existsByGroupIdAndUserId(groupId, currentUserId)) {
+        if (!membershipResolver.isMember(groupId, currentUserId)) {
             throw new RuntimeException("Access denied: User is not a member of this group");
         }
+        if (before != null && after != null) {
+            throw new StudyGroupException("Only one of before or after may be given");
+        }
         
-        PageRequest pageRequest = PageRequest.of(page, size);
-        List<GroupMessage> messages = groupMessageRepository.findByStudyGroupIdOrderByCreatedAtDesc(groupId, pageRequest);
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // ดึงเกินหนึ่งแถวเพื่อรู้ว่ายังมีหน้าถัดไปหรือไม่ โดยไม่ต้อง count
+        PageRequest window = PageRequest.of(0, limit + 1);
+        
+        if (after != null) {
+            MessageCursor cursor = MessageCursor.decode(after);
+            List<MessageResponse> rows = recentMessageCache.after(groupId, cursor, limit + 1)
+                    .orElseGet(() -> groupMessageRepository.findAfter(groupId, cursor.createdAt(), cursor.id(), window));
+            boolean hasMore = rows.size() > limit;
+            List<MessageResponse> page = new ArrayList<>(rows.subList(0, Math.min(rows.size(), limit)));
+            Collections.reverse(page);
+            String newest = page.isEmpty() ? after : cursorOf(page.get(0));
+            return new MessagePageResponse(page, hasMore ? newest : null, newest);
+        }
         
-        return messages.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        List<MessageResponse> rows;
+        if (before != null) {
+            MessageCursor cursor = MessageCursor.decode(before);
+            rows = groupMessageRepository.findBefore(groupId, cursor.createdAt(), cursor.id(), window);
+        } else {
+            rows = latest(groupId, limit + 1);
+        }
+        boolean hasMore = rows.size() > limit;
+        List<MessageResponse> page = rows.subList(0, Math.min(rows.size(), limit));
+        String next = hasMore ? cursorOf(page.get(page.size() - 1)) : null;
+        String newest = page.isEmpty() ? null : cursorOf(page.get(0));
+        return new MessagePageResponse(List.copyOf(page), next, newest);
     }
     
     @Override
     public MessageResponse updateMessage(Integer currentUserId, Integer groupId, Long messageId, MessageRequest request) {
+        chatWriteBehind.flush(groupId);
         GroupMessage message = groupMessageRepository.findById(messageId)
                 .orElseThrow(() -> new RuntimeException("Message not found"));
         
@@ -90,22 +144,25 @@ public class GroupMessageServiceImpl implements GroupMessageService {
         }
         
         // Check if user is still a member
-        if (!groupMemberRepository.existsByGroupIdAndUserId(groupId, currentUserId)) {
+        if (!membershipResolver.isMember(groupId, currentUserId)) {
             throw new RuntimeException("Access denied: User is not a member of this group");
         }
         
         message.setContent(request.content());
         message.setMessageType(request.messageType());
         GroupMessage updatedMessage = groupMessageRepository.save(message);
+        MessageResponse response = mapToResponse(updatedMessage);
+        recentMessageCache.update(response);
         
         // Notify about content update
         notificationService.notifyContentUpdate(groupId, currentUserId, "message update");
         
-        return mapToResponse(updatedMessage);
+        return response;
     }
     
     @Override
     public void deleteMessage(Integer currentUserId, Integer groupId, Long messageId) {
+        chatWriteBehind.flush(groupId);
         GroupMessage message = groupMessageRepository.findById(messageId)
                 .orElseThrow(() -> new RuntimeException("Message not found"));
         
@@ -115,7 +172,7 @@ public class GroupMessageServiceImpl implements GroupMessageService {
         }
         
         // Check if user is the sender or admin
-        GroupMember membership = groupMemberRepository.findByGroupIdAndUserId(groupId, currentUserId)
+        GroupMember membership = membershipResolver.find(groupId, currentUserId)
                 .orElseThrow(() -> new RuntimeException("Access denied: User is not a member of this group"));
         
         if (!message.getUser().getId().equals(currentUserId) && membership.getRole() != GroupMember.Role.admin) {
@@ -123,11 +180,33 @@ public class GroupMessageServiceImpl implements GroupMessageService {
         }
         
         groupMessageRepository.delete(message);
+        recentMessageCache.remove(groupId, messageId);
         
         // Notify about content update
         notificationService.notifyContentUpdate(groupId, currentUserId, "message deletion");
     }
     
+    /**
+     * The newest {@code count} messages, from the recent message cache when it can answer and
+     * otherwise from the database, seeding the cache on the way when the page fits in it.
+     */
+    private List<MessageResponse> latest(Integer groupId, int count) {
+        return recentMessageCache.latest(groupId, count).orElseGet(() -> {
+            if (count > recentMessageCache.capacity()) {
+                return groupMessageRepository.findLatest(groupId, PageRequest.of(0, count));
+            }
+            return recentMessageCache.load(groupId, count, () -> {
+                // queued messages must be in the rows the buffer is seeded from
+                chatWriteBehind.flush(groupId);
+                return groupMessageRepository.findLatest(groupId, PageRequest.of(0, recentMessageCache.capacity()));
+            });
+        });
+    }
+    
+    private static String cursorOf(MessageResponse message) {
+        return new MessageCursor(message.createdAt(), message.id()).encode();
+    }
+    
     private MessageResponse mapToResponse(GroupMessage message) {
         return new MessageResponse(
                 message.getId(),
@@ -1,5 +1,9 @@
 package se499.kayaanbackend.Study_Group.service;
 
+import java.util.List;
+
+import se499.kayaanbackend.Study_Group.dto.NotificationResponse;
+
 public interface GroupNotificationService {
     
     /**
@@ -21,4 +25,14 @@ public interface GroupNotificationService {
      * Notifies group members about content updates
      */
     void notifyContentUpdate(Integer groupId, Integer updaterId, String contentType);
+    
+    /**
+     * The user's inbox across all groups, most recent first, with unread counts from the read marks
+     */
+    List<NotificationResponse> getInbox(Integer userId, int limit);
+    
+    /**
+     * Marks every notification of the group as read for the user
+     */
+    void markRead(Integer userId, Integer groupId);
 }
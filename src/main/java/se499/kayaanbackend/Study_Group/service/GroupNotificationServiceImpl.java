@@ -2,89 +2,68 @@ package se499.kayaanbackend.Study_Group.service;
 
 import java.util.List;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import se499.kayaanbackend.Study_Group.GroupMember;
-import se499.kayaanbackend.Study_Group.repository.GroupMemberRepository;
-import se499.kayaanbackend.security.user.UserRepository;
+import se499.kayaanbackend.Study_Group.dto.NotificationResponse;
+import se499.kayaanbackend.Study_Group.notification.GroupNotificationEvent;
+import se499.kayaanbackend.Study_Group.notification.GroupNotificationEvent.Type;
+import se499.kayaanbackend.Study_Group.notification.NotificationDispatcher;
+import se499.kayaanbackend.Study_Group.notification.NotificationInboxWriter;
+import se499.kayaanbackend.Study_Group.repository.GroupNotificationRepository;
 
+/**
+ * แปลงการแจ้งเตือนเป็น {@link GroupNotificationEvent} แล้วปล่อยให้ {@link NotificationDispatcher} ส่งต่อ
+ * <p>
+ * Publishing is cheap and happens on the caller's thread; the roster lookup and fan-out run after
+ * commit on the dispatcher's pool, so a rolled-back change never notifies anyone.
+ */
 @Service
 @RequiredArgsConstructor
-@Slf4j
 public class GroupNotificationServiceImpl implements GroupNotificationService {
-    
-    private final GroupMemberRepository groupMemberRepository;
-    private final UserRepository userRepository;
-    
+
+    private static final int PREVIEW_LENGTH = 50;
+    private static final int MAX_INBOX_SIZE = 100;
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final GroupNotificationRepository notificationRepository;
+    private final NotificationInboxWriter inboxWriter;
+
     @Override
     public void notifyNewMessage(Integer groupId, Integer senderId, String message) {
-        try {
-            List<GroupMember> members = groupMemberRepository.findByGroupId(groupId);
-            
-            for (GroupMember member : members) {
-                if (!member.getUserId().equals(senderId)) {
-                    // TODO: Implement actual notification system (WebSocket, email, push notification)
-                    log.info("Notifying user {} about new message in group {}: {}", 
-                            member.getUserId(), groupId, message.substring(0, Math.min(message.length(), 50)));
-                }
-            }
-        } catch (Exception e) {
-            log.error("Error notifying group members about new message", e);
-        }
+        String preview = message == null ? null : message.substring(0, Math.min(message.length(), PREVIEW_LENGTH));
+        publish(Type.NEW_MESSAGE, groupId, senderId, preview);
     }
-    
+
     @Override
     public void notifyMemberJoined(Integer groupId, Integer newMemberId) {
-        try {
-            List<GroupMember> members = groupMemberRepository.findByGroupId(groupId);
-            
-            for (GroupMember member : members) {
-                if (!member.getUserId().equals(newMemberId)) {
-                    // TODO: Implement actual notification system
-                    log.info("Notifying user {} about new member {} joining group {}", 
-                            member.getUserId(), newMemberId, groupId);
-                }
-            }
-        } catch (Exception e) {
-            log.error("Error notifying group members about new member", e);
-        }
+        publish(Type.MEMBER_JOINED, groupId, newMemberId, null);
     }
-    
+
     @Override
     public void notifyMemberLeft(Integer groupId, Integer memberId) {
-        try {
-            List<GroupMember> members = groupMemberRepository.findByGroupId(groupId);
-            
-            for (GroupMember member : members) {
-                // TODO: Implement actual notification system
-                log.info("Notifying user {} about member {} leaving group {}", 
-                        member.getUserId(), memberId, groupId);
-            }
-            
-            // TODO: Send notification to the removed member
-            log.info("Sending removal notification to user {} about being removed from group {}", 
-                    memberId, groupId);
-        } catch (Exception e) {
-            log.error("Error notifying group members about member leaving", e);
-        }
+        publish(Type.MEMBER_LEFT, groupId, memberId, null);
     }
-    
+
     @Override
     public void notifyContentUpdate(Integer groupId, Integer updaterId, String contentType) {
-        try {
-            List<GroupMember> members = groupMemberRepository.findByGroupId(groupId);
-            
-            for (GroupMember member : members) {
-                if (!member.getUserId().equals(updaterId)) {
-                    // TODO: Implement actual notification system
-                    log.info("Notifying user {} about {} update in group {} by user {}", 
-                            member.getUserId(), contentType, groupId, updaterId);
-                }
-            }
-        } catch (Exception e) {
-            log.error("Error notifying group members about content update", e);
-        }
+        publish(Type.CONTENT_UPDATE, groupId, updaterId, contentType);
+    }
+
+    @Override
+    public List<NotificationResponse> getInbox(Integer userId, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_INBOX_SIZE));
+        return notificationRepository.findInbox(userId, PageRequest.of(0, size));
+    }
+
+    @Override
+    public void markRead(Integer userId, Integer groupId) {
+        inboxWriter.markRead(userId, groupId);
+    }
+
+    private void publish(Type type, Integer groupId, Integer actorId, String detail) {
+        eventPublisher.publishEvent(new GroupNotificationEvent(type, groupId, actorId, detail));
     }
 }
@@ -18,6 +18,7 @@ import se499.kayaanbackend.Study_Group.dto.StudyGroupResponse;
 import se499.kayaanbackend.Study_Group.repository.GroupInviteRepository;
 import se499.kayaanbackend.Study_Group.repository.GroupMemberRepository;
 import se499.kayaanbackend.Study_Group.repository.StudyGroupRepository;
+import se499.kayaanbackend.Study_Group.security.MembershipResolver;
 import se499.kayaanbackend.security.user.User;
 import se499.kayaanbackend.security.user.UserRepository;
 
@@ -28,6 +29,7 @@ public class StudyGroupServiceImpl implements StudyGroupService {
     
     private final StudyGroupRepository studyGroupRepository;
     private final GroupMemberRepository groupMemberRepository;
+    private final MembershipResolver membershipResolver;
     private final GroupInviteRepository groupInviteRepository;
     private final UserRepository userRepository;
     private final GroupNotificationService notificationService;
@@ -53,7 +55,7 @@ public class StudyGroupServiceImpl implements StudyGroupService {
                 .role(GroupMember.Role.admin)
                 .build();
         
-        groupMemberRepository.save(ownerMember);
+        membershipResolver.remember(groupMemberRepository.save(ownerMember));
         
         return mapToResponse(savedGroup);
     }
@@ -75,7 +77,7 @@ public class StudyGroupServiceImpl implements StudyGroupService {
     @Override
     public StudyGroupResponse getGroup(Integer currentUserId, Integer groupId) {
         // Check if user is a member
-        if (!groupMemberRepository.existsByGroupIdAndUserId(groupId, currentUserId)) {
+        if (!membershipResolver.isMember(groupId, currentUserId)) {
             throw new RuntimeException("Access denied: User is not a member of this group");
         }
         
@@ -91,7 +93,7 @@ public class StudyGroupServiceImpl implements StudyGroupService {
                 .orElseThrow(() -> new RuntimeException("Invalid or expired invite token"));
         
         // Check if user is already a member
-        if (groupMemberRepository.existsByGroupIdAndUserId(invite.getGroupId(), currentUserId)) {
+        if (membershipResolver.isMember(invite.getGroupId(), currentUserId)) {
             throw new RuntimeException("User is already a member of this group");
         }
         
@@ -108,7 +110,7 @@ public class StudyGroupServiceImpl implements StudyGroupService {
                 .joinedAt(LocalDateTime.now())
                 .build();
         
-        groupMemberRepository.save(member);
+        membershipResolver.remember(groupMemberRepository.save(member));
         
         // Notify about new member joining
         notificationService.notifyMemberJoined(invite.getGroupId(), currentUserId);
@@ -121,7 +123,7 @@ public class StudyGroupServiceImpl implements StudyGroupService {
     
     @Override
     public void leaveGroup(Integer currentUserId, Integer groupId) {
-        GroupMember membership = groupMemberRepository.findByGroupIdAndUserId(groupId, currentUserId)
+        GroupMember membership = membershipResolver.find(groupId, currentUserId)
                 .orElseThrow(() -> new RuntimeException("User is not a member of this group"));
         
         // Check if user is the admin
@@ -134,6 +136,7 @@ public class StudyGroupServiceImpl implements StudyGroupService {
         }
         
         groupMemberRepository.delete(membership);
+        membershipResolver.forget(groupId, currentUserId);
         
         // Notify about member leaving
         notificationService.notifyMemberLeft(groupId, currentUserId);
@@ -141,7 +144,7 @@ public class StudyGroupServiceImpl implements StudyGroupService {
     
     @Override
     public void deleteGroup(Integer currentUserId, Integer groupId) {
-        GroupMember membership = groupMemberRepository.findByGroupIdAndUserId(groupId, currentUserId)
+        GroupMember membership = membershipResolver.find(groupId, currentUserId)
                 .orElseThrow(() -> new RuntimeException("User is not a member of this group"));
         
         if (membership.getRole() != GroupMember.Role.admin) {
@@ -149,12 +152,13 @@ public class StudyGroupServiceImpl implements StudyGroupService {
         }
         
         studyGroupRepository.deleteById(groupId);
+        membershipResolver.forgetGroup(groupId);
     }
     
     @Override
     public InviteResponse generateInvite(Integer currentUserId, Integer groupId, int expiryDays) {
         // Check if user is a member
-        if (!groupMemberRepository.existsByGroupIdAndUserId(groupId, currentUserId)) {
+        if (!membershipResolver.isMember(groupId, currentUserId)) {
             throw new RuntimeException("Access denied: User is not a member of this group");
         }
         
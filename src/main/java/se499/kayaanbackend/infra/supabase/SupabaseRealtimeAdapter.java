@@ -1,8 +1,10 @@
 package se499.kayaanbackend.infra.supabase;
 
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import lombok.extern.slf4j.Slf4j;
@@ -10,6 +12,7 @@ import se499.kayaanbackend.shared.realtime.RealtimeBus;
 
 @Slf4j
 @Component
+@ConditionalOnProperty(prefix = "kayaan.supabase.realtime", name = "enabled", havingValue = "true")
 public class SupabaseRealtimeAdapter implements RealtimeBus {
     
     private final ConcurrentHashMap<String, CopyOnWriteArrayList<MessageHandler>> subscriptions = new ConcurrentHashMap<>();
@@ -35,6 +38,20 @@ public class SupabaseRealtimeAdapter implements RealtimeBus {
         // TODO: Implement actual Supabase Realtime unsubscribe
     }
     
+    /**
+     * Removes only this handler from the channel's local subscribers; the channel entry is dropped
+     * with its last handler, the same as the in-process bus.
+     */
+    @Override
+    public void unsubscribe(String channel, MessageHandler handler) {
+        Objects.requireNonNull(handler, "handler");
+        log.info("Unsubscribing handler from channel: {}", channel);
+        subscriptions.computeIfPresent(channel, (k, handlers) -> {
+            handlers.remove(handler);
+            return handlers.isEmpty() ? null : handlers;
+        });
+    }
+    
     /**
      * Notifies all local subscribers of a message
      * This is a helper method for testing and local development
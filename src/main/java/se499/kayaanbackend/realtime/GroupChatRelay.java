@@ -0,0 +1,47 @@
+package se499.kayaanbackend.realtime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import se499.kayaanbackend.shared.realtime.RealtimeBus;
+
+/**
+ * ส่งข้อความแชทสดผ่าน {@link RealtimeBus} แล้วให้ทุก node ส่งต่อให้ STOMP subscriber ของตัวเอง
+ * <p>
+ * The simple broker only knows the sessions connected to this node. Broadcasting on
+ * {@code <groupChannelPrefix><groupId>.chat} instead lets a clustered bus carry the message to the
+ * other nodes, where this relay pushes it to {@code /topic/groups/{groupId}}.
+ */
+@Component
+public class GroupChatRelay {
+
+    private static final String CHAT_SUFFIX = ".chat";
+
+    private final RealtimeBus realtimeBus;
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final String channelPrefix;
+
+    public GroupChatRelay(RealtimeBus realtimeBus, SimpMessageSendingOperations messagingTemplate,
+                          @Value("${kayaan.supabase.realtime.groupChannelPrefix:groups.}") String channelPrefix) {
+        this.realtimeBus = realtimeBus;
+        this.messagingTemplate = messagingTemplate;
+        this.channelPrefix = channelPrefix;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        realtimeBus.subscribe(channelPrefix + "*" + CHAT_SUFFIX, this::relay);
+    }
+
+    /** Sends the payload to the group's topic on every node. */
+    public void broadcast(Integer groupId, Object payload) {
+        realtimeBus.publish(channelPrefix + groupId + CHAT_SUFFIX, payload);
+    }
+
+    private void relay(String channel, Object payload) {
+        String groupId = channel.substring(channelPrefix.length(), channel.length() - CHAT_SUFFIX.length());
+        messagingTemplate.convertAndSend(StompAuthChannelInterceptor.GROUP_TOPIC_PREFIX + groupId, payload);
+    }
+}
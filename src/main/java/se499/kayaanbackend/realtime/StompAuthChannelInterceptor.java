@@ -0,0 +1,91 @@
+package se499.kayaanbackend.realtime;
+
+import java.security.Principal;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import se499.kayaanbackend.Study_Group.security.MembershipResolver;
+import se499.kayaanbackend.security.config.JwtAuthenticator;
+import se499.kayaanbackend.security.user.User;
+
+/**
+ * ยืนยันตัวตน STOMP ด้วย JWT ใน CONNECT frame และตรวจสิทธิ์ก่อน SUBSCRIBE/SEND
+ * <p>
+ * Browsers cannot set headers on the WebSocket handshake, so the access token travels in the
+ * {@code Authorization: Bearer ...} header of the CONNECT frame. The resulting authentication is
+ * bound to the session and is the {@link Principal} of every later frame. Group topics can only be
+ * subscribed to by members, checked through the membership cache.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    public static final String GROUP_TOPIC_PREFIX = "/topic/groups/";
+    private static final String USER_QUEUE_PREFIX = "/user/queue/";
+    private static final String BEARER = "Bearer ";
+
+    private final JwtAuthenticator jwtAuthenticator;
+    private final MembershipResolver membershipResolver;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        switch (accessor.getCommand()) {
+            case CONNECT -> accessor.setUser(authenticate(accessor));
+            case SUBSCRIBE -> authorizeSubscription(accessor);
+            case SEND -> currentUser(accessor.getUser());
+            default -> { }
+        }
+        return message;
+    }
+
+    private Authentication authenticate(StompHeaderAccessor accessor) {
+        String header = accessor.getFirstNativeHeader("Authorization");
+        if (header == null || !header.startsWith(BEARER)) {
+            throw new AccessDeniedException("Missing bearer token on CONNECT");
+        }
+        return jwtAuthenticator.authenticate(header.substring(BEARER.length()))
+                .orElseThrow(() -> new AccessDeniedException("Invalid or expired token"));
+    }
+
+    private void authorizeSubscription(StompHeaderAccessor accessor) {
+        User user = currentUser(accessor.getUser());
+        String destination = accessor.getDestination();
+        if (destination != null && destination.startsWith(USER_QUEUE_PREFIX)) {
+            return;
+        }
+        Integer groupId = groupId(destination);
+        if (groupId == null || !membershipResolver.isMember(groupId, user.getId())) {
+            throw new AccessDeniedException("Cannot subscribe to " + destination);
+        }
+    }
+
+    private static User currentUser(Principal principal) {
+        if (principal instanceof Authentication authentication && authentication.getPrincipal() instanceof User user) {
+            return user;
+        }
+        throw new AccessDeniedException("Not authenticated");
+    }
+
+    private static Integer groupId(String destination) {
+        if (destination == null || !destination.startsWith(GROUP_TOPIC_PREFIX)) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(destination.substring(GROUP_TOPIC_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.DisabledException;
@@ -17,14 +18,20 @@ import org.springframework.stereotype.Service;
 
 import org.springframework.web.server.ResponseStatusException;
 import se499.kayaanbackend.security.config.JwtService;
+import se499.kayaanbackend.security.config.ParsedToken;
 import se499.kayaanbackend.security.token.Token;
+import se499.kayaanbackend.security.token.TokenDigest;
 import se499.kayaanbackend.security.token.TokenRepository;
 import se499.kayaanbackend.security.token.TokenType;
+import se499.kayaanbackend.security.user.PrincipalCache;
+import se499.kayaanbackend.security.user.PrincipalService;
 import se499.kayaanbackend.security.user.Role;
 import se499.kayaanbackend.security.user.User;
 import se499.kayaanbackend.security.user.UserRepository;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @Service
@@ -35,6 +42,9 @@ public class AuthenticationService {
   private final PasswordEncoder passwordEncoder;
   private final JwtService jwtService;
   private final AuthenticationManager authenticationManager;
+  private final PrincipalService principalService;
+  private final PrincipalCache principalCache;
+  private final ObjectMapper objectMapper;
 
   public AuthenticationResponse register(RegisterRequest request) {
     User user = User.builder()
@@ -69,7 +79,7 @@ public class AuthenticationService {
 
     String jwtToken = jwtService.generateToken(user);
     String refreshToken = jwtService.generateRefreshToken(user);
-//    revokeAllUserTokens(user);
+//    revokeAllUserTokens(user.getId());
     saveUserToken(user, jwtToken);
     return AuthenticationResponse.builder()
             .accessToken(jwtToken)
@@ -81,50 +91,67 @@ public class AuthenticationService {
   private void saveUserToken(User user, String jwtToken) {
     Token token = Token.builder()
             .user(user)
-            .token(jwtToken)
+            .tokenHash(TokenDigest.of(jwtToken))
             .tokenType(TokenType.BEARER)
             .expired(false)
             .revoked(false)
+            // upper bound of the signed exp, since the token was built just before this call
+            .expiresAt(LocalDateTime.now().plus(jwtService.getJwtExpiration(), ChronoUnit.MILLIS))
             .build();
     tokenRepository.save(token);
   }
 
-  private void revokeAllUserTokens(User user) {
-    List<Token> validUserTokens = tokenRepository.findAllValidTokenByUser(user.getId());
-    if (validUserTokens.isEmpty())
-      return;
-    validUserTokens.forEach(token -> {
-      token.setExpired(true);
-      token.setRevoked(true);
-    });
-    tokenRepository.saveAll(validUserTokens);
+  /**
+   * Invalidates every access and refresh token the user holds with a single counter increment;
+   * tokens carrying an older "ver" claim fail validation from then on.
+   */
+  public void revokeAllUserTokens(Integer userId) {
+    repository.incrementTokenVersion(userId);
+    principalCache.invalidate(userId);
   }
 
+  /**
+   * Issues a new access token from a refresh token without touching the database on the happy path:
+   * the refresh token's signature, expiry and token version are checked against the cached principal.
+   */
   public void refreshToken(
           HttpServletRequest request,
           HttpServletResponse response
   ) throws IOException {
     final String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
     final String refreshToken;
-    final String userEmail;
+    final String subject;
     if (authHeader == null ||!authHeader.startsWith("Bearer ")) {
       return;
     }
     refreshToken = authHeader.substring(7);
-    userEmail = jwtService.extractUsername(refreshToken);
-    if (userEmail != null) {
-      User user = this.repository.findByUsername(userEmail)
-              .orElseThrow();
-      if (jwtService.isTokenValid(refreshToken, user)) {
+    ParsedToken parsedRefreshToken = jwtService.parse(refreshToken);
+    subject = parsedRefreshToken.subject();
+    if (subject != null && parsedRefreshToken.isRefreshToken()) {
+      User user = resolveRefreshUser(parsedRefreshToken);
+      if (user != null && user.isEnabled() && jwtService.isTokenValid(parsedRefreshToken, user)) {
         String accessToken = jwtService.generateToken(user);
-        revokeAllUserTokens(user);
-        saveUserToken(user, accessToken);
         AuthenticationResponse authResponse = AuthenticationResponse.builder()
                 .accessToken(accessToken)
                 .refreshToken(refreshToken)
                 .build();
-        new ObjectMapper().writeValue(response.getOutputStream(), authResponse);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), authResponse);
       }
     }
   }
+
+  private User resolveRefreshUser(ParsedToken refreshToken) {
+    String subject = refreshToken.subject();
+    if (!subject.matches("\\d+")) {                // legacy username subject
+      return repository.findByUsername(subject).orElse(null);
+    }
+    return principalService.findById(Integer.parseInt(subject))
+            .map(principal -> {
+              User user = principal.toUser();
+              user.setEmail(refreshToken.email());
+              return user;
+            })
+            .orElse(null);
+  }
 }
@@ -1,17 +1,22 @@
 package se499.kayaanbackend.security.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import se499.kayaanbackend.security.hashing.BoundedPasswordEncoder;
+import se499.kayaanbackend.security.user.User;
+import se499.kayaanbackend.security.user.UserDao;
 import se499.kayaanbackend.security.user.UserRepository;
 
 @Configuration
@@ -19,6 +24,17 @@ import se499.kayaanbackend.security.user.UserRepository;
 public class ApplicationConfig {
 
   private final UserRepository repository;
+  private final UserDao userDao;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${application.security.password-hashing.strength:10}")
+  private int hashingStrength;
+  @Value("${application.security.password-hashing.threads:0}")
+  private int hashingThreads;
+  @Value("${application.security.password-hashing.queue-capacity:64}")
+  private int hashingQueueCapacity;
+  @Value("${application.security.password-hashing.retry-after-seconds:2}")
+  private long hashingRetryAfterSeconds;
 
   @Bean
   public UserDetailsService userDetailsService() {
@@ -31,9 +47,20 @@ public class ApplicationConfig {
     DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
     authProvider.setUserDetailsService(userDetailsService());
     authProvider.setPasswordEncoder(passwordEncoder());
+    authProvider.setUserDetailsPasswordService(userDetailsPasswordService());
     return authProvider;
   }
 
+  // re-hashes a password at login when its BCrypt cost differs from the configured strength
+  @Bean
+  public UserDetailsPasswordService userDetailsPasswordService() {
+    return (userDetails, newPassword) -> {
+      User user = (User) userDetails;
+      user.setPassword(newPassword);
+      return userDao.save(user);
+    };
+  }
+
   @Bean
   public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
     return config.getAuthenticationManager();
@@ -49,7 +76,11 @@ public class ApplicationConfig {
 
   @Bean
   public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    int threads = hashingThreads > 0
+            ? hashingThreads
+            : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    return new BoundedPasswordEncoder(
+            hashingStrength, threads, hashingQueueCapacity, hashingRetryAfterSeconds, meterRegistry);
   }
 
 }
@@ -0,0 +1,72 @@
+package se499.kayaanbackend.security.config;
+
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+import se499.kayaanbackend.security.token.TokenRevocationIndex;
+import se499.kayaanbackend.security.user.PrincipalService;
+import se499.kayaanbackend.security.user.UserPrincipal;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Turns a bearer access token into an authentication, for both HTTP requests and STOMP CONNECT frames.
+ */
+@Component
+@RequiredArgsConstructor
+public class JwtAuthenticator {
+
+  private final JwtService jwtService;
+  private final UserDetailsService userDetailsService;
+  private final TokenRevocationIndex revocationIndex;
+  private final PrincipalService principalService;
+
+  /**
+   * Empty when the token is malformed, expired, revoked, a refresh token, or its user is gone or disabled.
+   */
+  public Optional<UsernamePasswordAuthenticationToken> authenticate(String jwt) {
+    final ParsedToken parsedToken;
+    try {
+      // verify the signature once; every check below reads the same claims
+      parsedToken = jwtService.parse(jwt);
+    } catch (JwtException | IllegalArgumentException e) {
+      return Optional.empty();
+    }
+    if (parsedToken.isRefreshToken()) {            // refresh tokens only work on /api/v1/auth/refresh-token
+      return Optional.empty();
+    }
+    String userIdentifier = parsedToken.subject();
+    if (userIdentifier == null) {
+      return Optional.empty();
+    }
+    UserDetails userDetails;
+    if (userIdentifier.matches("\\d+")) {          // subject is numeric -> treat as id
+      Optional<UserPrincipal> principalOpt = principalService.findById(Integer.parseInt(userIdentifier));
+      if (principalOpt.isEmpty() || !principalOpt.get().enabled()) {
+        return Optional.empty();
+      }
+      userDetails = principalOpt.get().toUser();
+    } else {                                       // normal case -> username
+      userDetails = userDetailsService.loadUserByUsername(userIdentifier);
+    }
+    if (!jwtService.isTokenValid(parsedToken, userDetails) || revocationIndex.isRevoked(parsedToken)) {
+      return Optional.empty();
+    }
+    // ---- build authorities from JWT roles claim (if present) ----
+    List<String> rolesFromToken = parsedToken.roles();
+    Collection<? extends GrantedAuthority> authorities =
+            (rolesFromToken == null || rolesFromToken.isEmpty())
+                    ? userDetails.getAuthorities()
+                    : rolesFromToken.stream()
+                                    .map(SimpleGrantedAuthority::new)
+                                    .toList();
+    return Optional.of(new UsernamePasswordAuthenticationToken(userDetails, null, authorities));
+  }
+}
@@ -1,17 +1,19 @@
 package se499.kayaanbackend.security.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import se499.kayaanbackend.security.user.User;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -22,6 +24,10 @@ import java.util.stream.Collectors;
 @Service
 public class JwtService {
 
+  static final String TOKEN_TYPE_CLAIM = "token_type";
+  static final String REFRESH_TOKEN_TYPE = "refresh";
+  static final String TOKEN_VERSION_CLAIM = "ver";
+
   @Value("${application.security.jwt.secret-key}")
   private String secretKey;
   @Value("${application.security.jwt.expiration}")
@@ -29,13 +35,34 @@ public class JwtService {
   @Value("${application.security.jwt.refresh-token.expiration}")
   private long refreshExpiration;
 
+  private SecretKey signingKey;
+  private JwtParser parser;
+
+  @PostConstruct
+  void initSigningKey() {
+    byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+    this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+    this.parser = Jwts.parser().verifyWith(signingKey).build();
+  }
+
+  public long getJwtExpiration() {
+    return jwtExpiration;
+  }
+
+  /**
+   * Verifies the signature once and returns the claims for reuse by every later check.
+   * Throws {@link io.jsonwebtoken.JwtException} when the token is malformed, tampered or expired.
+   */
+  public ParsedToken parse(String token) {
+    return new ParsedToken(token, parser.parseSignedClaims(token).getPayload());
+  }
+
   public String extractUsername(String token) {
     return extractClaim(token, Claims::getSubject);
   }
 
   public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-    final Claims claims = extractAllClaims(token);
-    return claimsResolver.apply(claims);
+    return parse(token).claim(claimsResolver);
   }
 
   public String generateToken(UserDetails userDetails) {
@@ -52,6 +79,7 @@ public class JwtService {
       User user = (User) userDetails;
       extraClaims.put("username", user.getUsername());
       extraClaims.put("email", user.getEmail());
+      extraClaims.put(TOKEN_VERSION_CLAIM, user.getTokenVersion());
       return buildTokenWithUserId(extraClaims, user, jwtExpiration);
     }
 
@@ -75,11 +103,14 @@ public class JwtService {
 
   public String generateRefreshToken(UserDetails userDetails) {
     Map<String, Object> extraClaims = new HashMap<>();
+    extraClaims.put(TOKEN_TYPE_CLAIM, REFRESH_TOKEN_TYPE);
 
     // Add minimal claims for refresh token
     if (userDetails instanceof User) {
       User user = (User) userDetails;
       extraClaims.put("username", user.getUsername());
+      extraClaims.put("email", user.getEmail());
+      extraClaims.put(TOKEN_VERSION_CLAIM, user.getTokenVersion());
       return buildTokenWithUserId(extraClaims, user, refreshExpiration);
     }
 
@@ -97,7 +128,7 @@ public class JwtService {
             .setSubject(userDetails.getUsername())
             .setIssuedAt(new Date(System.currentTimeMillis()))
             .setExpiration(new Date(System.currentTimeMillis() + expiration))
-            .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+            .signWith(signingKey, SignatureAlgorithm.HS256)
             .compact();
   }
 
@@ -112,56 +143,46 @@ public class JwtService {
             .setSubject(user.getId().toString()) // Use ID as subject
             .setIssuedAt(new Date(System.currentTimeMillis()))
             .setExpiration(new Date(System.currentTimeMillis() + expiration))
-            .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+            .signWith(signingKey, SignatureAlgorithm.HS256)
             .compact();
   }
 
   public boolean isTokenValid(String token, UserDetails userDetails) {
-    final String subject = extractUsername(token);
+    return isTokenValid(parse(token), userDetails);
+  }
+
+  public boolean isTokenValid(ParsedToken token, UserDetails userDetails) {
+    final String subject = token.subject();
+    if (subject == null) {
+      return false;
+    }
 
     // Check if subject is user ID or username
     if (userDetails instanceof User) {
       User user = (User) userDetails;
+      // tokens issued before the user's last revoke-all carry an older version
+      Integer version = token.tokenVersion();
+      if (version != null && !version.equals(user.getTokenVersion())) {
+        return false;
+      }
       // Support both ID and username as subject
       return (subject.equals(user.getId().toString()) || subject.equals(user.getUsername()))
-              && !isTokenExpired(token);
+              && !token.isExpired();
     }
 
-    return (subject.equals(userDetails.getUsername())) && !isTokenExpired(token);
-  }
-
-  private boolean isTokenExpired(String token) {
-    return extractExpiration(token).before(new Date());
-  }
-
-  private Date extractExpiration(String token) {
-    return extractClaim(token, Claims::getExpiration);
-  }
-
-  private Claims extractAllClaims(String token) {
-    return Jwts
-            .parser()
-            .setSigningKey(getSignInKey())
-            .build()
-            .parseClaimsJws(token)
-            .getBody();
-  }
-
-  private Key getSignInKey() {
-    byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-    return Keys.hmacShaKeyFor(keyBytes);
+    return (subject.equals(userDetails.getUsername())) && !token.isExpired();
   }
 
   // Additional helper methods
   public List<String> extractRoles(String token) {
-    return extractClaim(token, claims -> claims.get("roles", List.class));
+    return parse(token).roles();
   }
 
   public String extractEmail(String token) {
-    return extractClaim(token, claims -> claims.get("email", String.class));
+    return parse(token).email();
   }
 
   public String extractUsernameFromClaims(String token) {
-    return extractClaim(token, claims -> claims.get("username", String.class));
+    return parse(token).username();
   }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package se499.kayaanbackend.security.config;
 
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -7,13 +8,24 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.logout.LogoutHandler;
 import org.springframework.stereotype.Service;
+import se499.kayaanbackend.security.token.Token;
+import se499.kayaanbackend.security.token.TokenDigest;
 import se499.kayaanbackend.security.token.TokenRepository;
+import se499.kayaanbackend.security.token.TokenRevocationIndex;
+import se499.kayaanbackend.security.token.TokenType;
+import se499.kayaanbackend.security.user.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 @Service
 @RequiredArgsConstructor
 public class LogoutService implements LogoutHandler {
 
+  private final JwtService jwtService;
   private final TokenRepository tokenRepository;
+  private final TokenRevocationIndex revocationIndex;
+  private final UserRepository userRepository;
 
   @Override
   public void logout(
@@ -23,12 +35,19 @@ public class LogoutService implements LogoutHandler {
   ) {
     final String authHeader = request.getHeader("Authorization");
     final String jwt;
+    final ParsedToken parsedToken;
     if (authHeader == null ||!authHeader.startsWith("Bearer ")) {
       return;
     }
     jwt = authHeader.substring(7);
-    var storedToken = tokenRepository.findByToken(jwt)
-        .orElse(null);
+    try {
+      parsedToken = jwtService.parse(jwt);
+    } catch (JwtException | IllegalArgumentException e) {
+      return;                                      // expired or forged: nothing left to revoke
+    }
+    revocationIndex.revoke(parsedToken);
+    var storedToken = tokenRepository.findByTokenHash(TokenDigest.of(jwt))
+        .orElseGet(() -> newTokenRow(parsedToken));
     if (storedToken != null) {
       storedToken.setExpired(true);
       storedToken.setRevoked(true);
@@ -36,4 +55,18 @@ public class LogoutService implements LogoutHandler {
       SecurityContextHolder.clearContext();
     }
   }
+
+  // tokens issued by the stateless refresh flow have no row yet; persist the revocation so it survives a restart
+  private Token newTokenRow(ParsedToken parsedToken) {
+    String subject = parsedToken.subject();
+    if (subject == null || !subject.matches("\\d+") || parsedToken.expiration() == null) {
+      return null;
+    }
+    return Token.builder()
+        .user(userRepository.getReferenceById(Integer.parseInt(subject)))
+        .tokenHash(TokenDigest.of(parsedToken.token()))
+        .tokenType(TokenType.BEARER)
+        .expiresAt(LocalDateTime.ofInstant(parsedToken.expiration().toInstant(), ZoneId.systemDefault()))
+        .build();
+  }
 }
@@ -0,0 +1,53 @@
+package se499.kayaanbackend.security.config;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A JWT whose signature has already been verified by {@link JwtService#parse(String)}.
+ * Every accessor reads from the verified claims, so a request only pays for one HMAC check.
+ */
+public record ParsedToken(String token, Claims claims) {
+
+  public String subject() {
+    return claims.getSubject();
+  }
+
+  public Date expiration() {
+    return claims.getExpiration();
+  }
+
+  public boolean isExpired() {
+    Date expiration = claims.getExpiration();
+    return expiration != null && expiration.before(new Date());
+  }
+
+  @SuppressWarnings("unchecked")
+  public List<String> roles() {
+    return claims.get("roles", List.class);
+  }
+
+  public String email() {
+    return claims.get("email", String.class);
+  }
+
+  public String username() {
+    return claims.get("username", String.class);
+  }
+
+  /** token version the token was issued at, or null for tokens issued before versioning */
+  public Integer tokenVersion() {
+    return claims.get(JwtService.TOKEN_VERSION_CLAIM, Integer.class);
+  }
+
+  public boolean isRefreshToken() {
+    return JwtService.REFRESH_TOKEN_TYPE.equals(claims.get(JwtService.TOKEN_TYPE_CLAIM, String.class));
+  }
+
+  public <T> T claim(Function<Claims, T> claimsResolver) {
+    return claimsResolver.apply(claims);
+  }
+}
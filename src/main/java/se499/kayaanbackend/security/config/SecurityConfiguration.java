@@ -43,6 +43,8 @@ public class SecurityConfiguration {
                       .requestMatchers("/api/v1/auth/**", "/api/auth/**").permitAll()
                       .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()   // เผื่อ preflight
                       .requestMatchers("/api/public/**").permitAll()
+                      // STOMP handshake; the JWT is checked on the CONNECT frame (StompAuthChannelInterceptor)
+                      .requestMatchers("/ws/**").permitAll()
                       
                       // Theme endpoints
                       .requestMatchers(HttpMethod.GET, "/api/themes").permitAll()
@@ -65,6 +67,10 @@ public class SecurityConfiguration {
                       
                       // Admin endpoints - ต้องมี role ADMIN
                       .requestMatchers("/api/admin/**").hasRole("ADMIN")
+
+                      // Actuator
+                      .requestMatchers("/actuator/health").permitAll()
+                      .requestMatchers("/actuator/**").hasRole("ADMIN")
                       
                       // อื่นๆ ต้องมี authentication
                       .anyRequest().authenticated()
@@ -0,0 +1,27 @@
+package se499.kayaanbackend.security.hashing;
+
+import java.util.Map;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// ordered ahead of StudyGroupExceptionHandler, whose catch-all would otherwise turn this into a 500
+@RestControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class PasswordHashingExceptionHandler {
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<Map<String, Object>> handleBusy(PasswordHashingBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of(
+                        "error", "PasswordHashingBusyException",
+                        "message", e.getMessage(),
+                        "httpStatus", HttpStatus.SERVICE_UNAVAILABLE.value()));
+    }
+}
@@ -7,28 +7,41 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import se499.kayaanbackend.security.user.User;
 
+import java.time.LocalDateTime;
+
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(name = "token", indexes = {
+    @Index(name = "idx_token_hash", columnList = "token_hash", unique = true),
+    // covers findAllValidTokenByUser without touching the clustered rows
+    @Index(name = "idx_token_user_valid", columnList = "user_id, expired, revoked, expires_at, token_hash, token_type"),
+    @Index(name = "idx_token_expires_at", columnList = "expires_at")
+})
 public class Token {
 
   @Id
   @GeneratedValue
   public Integer id;
 
-  @Column(unique = true)
-  public String token;
+  /** hex SHA-256 of the JWT, see {@link TokenDigest}; the raw token is never stored */
+  @Column(name = "token_hash", length = 64, nullable = false, columnDefinition = "CHAR(64)")
+  public String tokenHash;
 
   @Enumerated(EnumType.STRING)
   @Builder.Default
+  @Column(name = "token_type")
   public TokenType tokenType = TokenType.BEARER;
 
   public boolean revoked;
 
   public boolean expired;
 
+  @Column(name = "expires_at", nullable = false)
+  public LocalDateTime expiresAt;
+
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "user_id")
   public User user;
@@ -0,0 +1,46 @@
+package se499.kayaanbackend.security.token;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Deletes token rows past their expires_at in fixed-size chunks, each chunk in its own transaction.
+ * Revoked rows are kept until they expire as well, because they back {@link TokenRevocationIndex}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenCompactionJob {
+
+    private final TokenRepository tokenRepository;
+
+    @Value("${application.security.token-compaction.chunk-size:1000}")
+    private int chunkSize;
+
+    @Scheduled(cron = "${application.security.token-compaction.cron:0 30 3 * * *}")
+    public void run() {
+        int purged = compact();
+        log.info("Token compaction purged {} expired rows", purged);
+    }
+
+    public int compact() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = 0;
+        List<Integer> ids;
+        do {
+            ids = tokenRepository.findExpiredIds(now, PageRequest.ofSize(chunkSize));
+            if (!ids.isEmpty()) {
+                tokenRepository.deleteAllByIdInBatch(ids);
+                purged += ids.size();
+            }
+        } while (ids.size() == chunkSize);
+        return purged;
+    }
+}
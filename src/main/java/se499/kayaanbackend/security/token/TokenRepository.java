@@ -1,19 +1,26 @@
 package se499.kayaanbackend.security.token;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
 public interface TokenRepository extends JpaRepository<Token, Integer> {
 
   @Query(value = """
-      select t from Token t inner join User u\s
-      on t.user.id = u.id\s
-      where u.id = :id and (t.expired = false or t.revoked = false)\s
+      select t from Token t\s
+      where t.user.id = :id and (t.expired = false or t.revoked = false)\s
       """)
   List<Token> findAllValidTokenByUser(Integer id);
 
-  Optional<Token> findByToken(String token);
+  Optional<Token> findByTokenHash(String tokenHash);
+
+  @Query("select t from Token t where (t.revoked = true or t.expired = true) and t.expiresAt > :now")
+  List<Token> findAllRevokedUnexpired(LocalDateTime now);
+
+  @Query("select t.id from Token t where t.expiresAt <= :now order by t.id")
+  List<Integer> findExpiredIds(LocalDateTime now, Pageable pageable);
 }
@@ -0,0 +1,115 @@
+package se499.kayaanbackend.security.token;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import se499.kayaanbackend.security.config.ParsedToken;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of revoked token digests, so authorizing a request needs no database query.
+ * Entries are dropped once the token passes its own expiry, since an expired token is rejected anyway.
+ * If more tokens are revoked than {@code maxEntries} allows, the index stops trusting itself and
+ * falls back to the token table until a prune pass can reload everything within the limit.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationIndex {
+
+    private final TokenRepository tokenRepository;
+
+    @Value("${application.security.revocation.max-entries:100000}")
+    private int maxEntries;
+
+    /** digest -> expiry in epoch millis */
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile boolean overflowed;
+
+    @PostConstruct
+    void load() {
+        reload();
+        log.info("Token revocation index loaded with {} entries", revoked.size());
+    }
+
+    public boolean isRevoked(ParsedToken token) {
+        String digest = TokenDigest.of(token.token());
+        if (revoked.containsKey(digest)) {
+            return true;
+        }
+        if (overflowed) {
+            return tokenRepository.findByTokenHash(digest)
+                    .map(t -> t.isExpired() || t.isRevoked())
+                    .orElse(false);
+        }
+        return false;
+    }
+
+    public void revoke(ParsedToken token) {
+        if (token.expiration() == null) {
+            return;
+        }
+        add(TokenDigest.of(token.token()), token.expiration().getTime());
+    }
+
+    public void revoke(Token token) {
+        add(token.getTokenHash(), toEpochMillis(token.getExpiresAt()));
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    @Scheduled(fixedDelayString = "${application.security.revocation.prune-interval-ms:300000}")
+    public void prune() {
+        long now = System.currentTimeMillis();
+        int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        if (overflowed) {
+            reload();
+        }
+        log.debug("Pruned {} expired entries from token revocation index", before - revoked.size());
+    }
+
+    private void add(String digest, long expiresAt) {
+        if (expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        if (revoked.size() >= maxEntries && !revoked.containsKey(digest)) {
+            if (!overflowed) {
+                log.warn("Token revocation index is full ({} entries), falling back to the token table", maxEntries);
+            }
+            overflowed = true;
+            return;
+        }
+        revoked.put(digest, expiresAt);
+    }
+
+    private synchronized void reload() {
+        List<Token> tokens = tokenRepository.findAllRevokedUnexpired(LocalDateTime.now());
+        Map<String, Long> loaded = new HashMap<>(tokens.size());
+        for (Token token : tokens) {
+            loaded.put(token.getTokenHash(), toEpochMillis(token.getExpiresAt()));
+        }
+        // only trust the index again once everything revoked in the table fits in it
+        if (loaded.size() > maxEntries) {
+            overflowed = true;
+            return;
+        }
+        revoked.putAll(loaded);
+        overflowed = false;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,87 @@
+package se499.kayaanbackend.security.user;
+
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TTL-bounded cache of {@link UserPrincipal} by user id, so the JWT filter does not load
+ * the user entity (roles, theme) on every request. Writes to a user must call {@link #invalidate}.
+ */
+@Slf4j
+@Component
+public class PrincipalCache {
+
+  private final long ttlMillis;
+  private final int maxEntries;
+  private final ConcurrentHashMap<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+  public PrincipalCache(
+          @Value("${application.security.principal-cache.ttl-ms:300000}") long ttlMillis,
+          @Value("${application.security.principal-cache.max-entries:10000}") int maxEntries) {
+    this.ttlMillis = ttlMillis;
+    this.maxEntries = maxEntries;
+  }
+
+  public Optional<UserPrincipal> get(Integer userId) {
+    Entry entry = entries.get(userId);
+    if (entry == null) {
+      return Optional.empty();
+    }
+    if (entry.expiresAt() <= System.currentTimeMillis()) {
+      entries.remove(userId, entry);
+      return Optional.empty();
+    }
+    return Optional.of(entry.principal());
+  }
+
+  public void put(UserPrincipal principal) {
+    if (entries.size() >= maxEntries) {
+      evict();
+    }
+    entries.put(principal.id(), new Entry(principal, System.currentTimeMillis() + ttlMillis));
+  }
+
+  /**
+   * Drops the user now and, when called inside a transaction, again after commit so a
+   * request racing the write cannot re-cache the old row.
+   */
+  public void invalidate(Integer userId) {
+    if (userId == null) {
+      return;
+    }
+    entries.remove(userId);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          entries.remove(userId);
+        }
+      });
+    }
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  private void evict() {
+    long now = System.currentTimeMillis();
+    entries.values().removeIf(entry -> entry.expiresAt() <= now);
+    Iterator<Integer> it = entries.keySet().iterator();
+    while (entries.size() >= maxEntries && it.hasNext()) {
+      it.next();
+      it.remove();
+    }
+  }
+
+  private record Entry(UserPrincipal principal, long expiresAt) {
+  }
+}
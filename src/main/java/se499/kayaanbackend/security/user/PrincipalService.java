@@ -0,0 +1,27 @@
+package se499.kayaanbackend.security.user;
+
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Resolves a token subject to a {@link UserPrincipal}, loading the user only on a cache miss.
+ */
+@Service
+@RequiredArgsConstructor
+public class PrincipalService {
+
+  private final UserDao userDao;
+  private final PrincipalCache principalCache;
+
+  public Optional<UserPrincipal> findById(Integer id) {
+    Optional<UserPrincipal> principal = principalCache.get(id);
+    if (principal.isEmpty()) {
+      principal = userDao.findById(id).map(UserPrincipal::from);
+      principal.ifPresent(principalCache::put);
+    }
+    return principal;
+  }
+}
@@ -49,6 +49,11 @@ public class User implements UserDetails {
   private Boolean enabled;
   private String avatarUrl;
 
+  /** bumped to revoke every token issued so far; embedded in tokens as the "ver" claim */
+  @Column(name = "token_version", nullable = false, columnDefinition = "int default 0")
+  @Builder.Default
+  private Integer tokenVersion = 0;
+
   @ManyToOne
   private Theme theme;
 
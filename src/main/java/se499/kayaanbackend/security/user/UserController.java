@@ -4,14 +4,23 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import se499.kayaanbackend.security.auth.AuthenticationService;
 
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
 public class UserController {
 
+    private final UserDao userDao;
+    private final AuthenticationService authenticationService;
+
     @GetMapping("/me")
-    public ResponseEntity<UserInfoDTO> getCurrentUser(@AuthenticationPrincipal User currentUser) {
+    public ResponseEntity<UserInfoDTO> getCurrentUser(@AuthenticationPrincipal User principal) {
+        // the principal only carries id/username/roles; profile fields come from the entity
+        User currentUser = userDao.findById(principal.getId()).orElse(null);
+        if (currentUser == null) {
+            return ResponseEntity.notFound().build();
+        }
         UserInfoDTO userInfo = UserInfoDTO.builder()
                 .id(currentUser.getId())
                 .username(currentUser.getUsername())
@@ -25,4 +34,11 @@ public class UserController {
                 .build();
         return ResponseEntity.ok(userInfo);
     }
-}
\ No newline at end of file
+
+    /** Signs the user out on every device: all of their access and refresh tokens stop validating. */
+    @PostMapping("/me/logout-all")
+    public ResponseEntity<Void> logoutAll(@AuthenticationPrincipal User principal) {
+        authenticationService.revokeAllUserTokens(principal.getId());
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -10,6 +10,7 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class UserDaoImpl implements UserDao {
     final UserRepository userRepository;
+    final PrincipalCache principalCache;
 
     @Override
     public User findByUsername(String username) {
@@ -18,6 +19,7 @@ public class UserDaoImpl implements UserDao {
 
     @Override
     public User save(User user) {
+        principalCache.invalidate(user.getId());
         return userRepository.save(user);
     }
 
@@ -0,0 +1,36 @@
+package se499.kayaanbackend.security.user;
+
+import java.util.List;
+
+/**
+ * Immutable slice of {@link User} needed to authorize a request: no profile fields, no theme, no tokens.
+ */
+public record UserPrincipal(Integer id, String username, boolean enabled, int tokenVersion, List<Role> roles) {
+
+  public UserPrincipal {
+    roles = List.copyOf(roles);
+  }
+
+  public static UserPrincipal from(User user) {
+    return new UserPrincipal(
+            user.getId(),
+            user.getUsername(),
+            Boolean.TRUE.equals(user.getEnabled()),
+            user.getTokenVersion() == null ? 0 : user.getTokenVersion(),
+            user.getRoles() == null ? List.of() : user.getRoles());
+  }
+
+  /**
+   * Detached {@link User} carrying only the principal fields, so controllers that take
+   * {@code @AuthenticationPrincipal User} keep working. Load the entity when profile data is needed.
+   */
+  public User toUser() {
+    return User.builder()
+            .id(id)
+            .username(username)
+            .enabled(enabled)
+            .tokenVersion(tokenVersion)
+            .roles(roles)
+            .build();
+  }
+}
@@ -3,6 +3,9 @@ package se499.kayaanbackend.security.user;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
 
@@ -10,4 +13,13 @@ public interface UserRepository extends JpaRepository<User, Integer> {
 
   Optional<User> findByUsername(String username);
 
+  @Transactional
+  @Modifying
+  @Query("update User u set u.tokenVersion = u.tokenVersion + 1 where u.id = :id")
+  int incrementTokenVersion(Integer id);
+
+  /** "firstname lastname" without loading the entity (and its roles and theme) */
+  @Query("select concat(coalesce(u.firstname, ''), ' ', coalesce(u.lastname, '')) from User u where u.id = :id")
+  Optional<String> findDisplayNameById(Integer id);
+
 }
@@ -0,0 +1,356 @@
+package se499.kayaanbackend.shared.realtime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import se499.kayaanbackend.shared.realtime.RealtimeBusProperties.ChannelSettings;
+import se499.kayaanbackend.shared.realtime.RealtimeBusProperties.Overflow;
+
+/**
+ * {@link RealtimeBus} ภายใน JVM: ทุก subscription มีคิวจำกัดขนาดของตัวเอง และ handler รันบน dispatcher pool
+ * <p>
+ * Publishing only appends to the queue of each subscription on the channel, so a publisher never runs
+ * handler code and a slow handler only backs up its own queue. When a queue is full the channel's
+ * {@link Overflow} policy decides whether the oldest queued message or the new one is dropped, or
+ * whether the publisher waits a bounded time for room. Each subscription is drained by one
+ * dispatcher thread at a time, in publish order, at most {@code drain-batch} messages per turn so
+ * busy channels cannot starve quiet ones. A handler that throws is logged and counted; it never
+ * affects other subscribers.
+ * <p>
+ * Subscriptions are kept in a trie keyed by the dot-separated tokens of their channel or pattern, so
+ * finding the subscribers of a published channel walks one path per matching wildcard and costs
+ * roughly the depth of the channel name, however many channels are subscribed. Changes to the trie
+ * are serialised; publishing reads it without locking.
+ * <p>
+ * Used while Supabase Realtime is disabled ({@code kayaan.supabase.realtime.enabled=false}).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "kayaan.supabase.realtime", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class InProcessRealtimeBus implements RealtimeBus, DisposableBean {
+
+    private static final String WILDCARD_ONE = "*";
+    private static final String WILDCARD_REST = ">";
+
+    private final RealtimeBusProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor dispatchers;
+    private final int drainBatch;
+    private final long shutdownTimeoutMillis;
+    private final Node root = new Node();
+    private final Object trieLock = new Object();
+
+    public InProcessRealtimeBus(RealtimeBusProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.drainBatch = Math.max(1, properties.getDrainBatch());
+        this.shutdownTimeoutMillis = properties.getShutdownTimeout().toMillis();
+
+        // each subscription is queued at most once, so the task queue is bounded by the subscriptions
+        int threads = Math.max(1, properties.getDispatcherThreads());
+        AtomicInteger threadIds = new AtomicInteger();
+        this.dispatchers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "realtime-dispatch-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public void publish(String channel, Object message) {
+        Objects.requireNonNull(message, "message");
+        String[] tokens = channel.split("\\.", -1);
+        for (String token : tokens) {
+            if (WILDCARD_ONE.equals(token) || WILDCARD_REST.equals(token)) {
+                throw new IllegalArgumentException("Cannot publish to a pattern: " + channel);
+            }
+        }
+        List<Channel> matched = new ArrayList<>(2);
+        collect(root, tokens, 0, matched);
+        if (matched.isEmpty()) {
+            return;
+        }
+        Delivery delivery = new Delivery(channel, message);
+        for (Channel target : matched) {
+            target.published.increment();
+            for (Subscription subscription : target.subscriptions) {
+                subscription.offer(delivery);
+            }
+        }
+    }
+
+    private static void collect(Node node, String[] tokens, int depth, List<Channel> matched) {
+        if (depth == tokens.length) {
+            Channel exact = node.channel;
+            if (exact != null) {
+                matched.add(exact);
+            }
+            return;
+        }
+        Node literal = node.children.get(tokens[depth]);
+        if (literal != null) {
+            collect(literal, tokens, depth + 1, matched);
+        }
+        Node one = node.children.get(WILDCARD_ONE);
+        if (one != null) {
+            collect(one, tokens, depth + 1, matched);
+        }
+        Node rest = node.children.get(WILDCARD_REST);
+        if (rest != null && rest.channel != null) {
+            matched.add(rest.channel);
+        }
+    }
+
+    @Override
+    public void subscribe(String channel, MessageHandler handler) {
+        Objects.requireNonNull(handler, "handler");
+        String[] tokens = parsePattern(channel);
+        synchronized (trieLock) {
+            Node node = root;
+            for (String token : tokens) {
+                node = node.children.computeIfAbsent(token, t -> new Node());
+            }
+            if (node.channel == null) {
+                node.channel = new Channel(channel, properties.settingsFor(channel));
+            }
+            node.channel.subscriptions.add(new Subscription(node.channel, handler));
+        }
+        log.debug("Subscribed to channel {}", channel);
+    }
+
+    @Override
+    public void unsubscribe(String channel) {
+        remove(channel, null);
+    }
+
+    @Override
+    public void unsubscribe(String channel, MessageHandler handler) {
+        remove(channel, Objects.requireNonNull(handler, "handler"));
+    }
+
+    /** Removes the handler's subscriptions, or all of them when {@code handler} is null. */
+    private void remove(String channel, MessageHandler handler) {
+        String[] tokens = parsePattern(channel);
+        synchronized (trieLock) {
+            Node[] path = new Node[tokens.length + 1];
+            path[0] = root;
+            for (int i = 0; i < tokens.length; i++) {
+                path[i + 1] = path[i].children.get(tokens[i]);
+                if (path[i + 1] == null) {
+                    return;
+                }
+            }
+            Node node = path[tokens.length];
+            Channel target = node.channel;
+            if (target == null) {
+                return;
+            }
+            target.subscriptions.removeIf(subscription -> {
+                if (handler != null && subscription.handler != handler) {
+                    return false;
+                }
+                subscription.close();
+                return true;
+            });
+            if (!target.subscriptions.isEmpty()) {
+                return;
+            }
+            node.channel = null;
+            target.close();
+            // prune the branch back to the nearest node still in use
+            for (int i = tokens.length; i > 0 && path[i].channel == null && path[i].children.isEmpty(); i--) {
+                path[i - 1].children.remove(tokens[i - 1]);
+            }
+        }
+        log.debug("Unsubscribed from channel {}", channel);
+    }
+
+    private static String[] parsePattern(String channel) {
+        String[] tokens = channel.split("\\.", -1);
+        for (int i = 0; i < tokens.length; i++) {
+            if (tokens[i].isEmpty() || (WILDCARD_REST.equals(tokens[i]) && i != tokens.length - 1)) {
+                throw new IllegalArgumentException("Invalid channel pattern: " + channel);
+            }
+        }
+        return tokens;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        dispatchers.shutdown();
+        if (!dispatchers.awaitTermination(shutdownTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            log.warn("Realtime dispatchers did not finish within {} ms", shutdownTimeoutMillis);
+            dispatchers.shutdownNow();
+        }
+    }
+
+    private record Delivery(String channel, Object message) {
+    }
+
+    private static final class Node {
+        private final ConcurrentHashMap<String, Node> children = new ConcurrentHashMap<>();
+        /** subscriptions whose channel or pattern ends at this node */
+        private volatile Channel channel;
+    }
+
+    private final class Channel {
+        private final String name;
+        private final ChannelSettings settings;
+        private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+        private final Counter published;
+        private final Counter delivered;
+        private final Counter dropped;
+        private final Counter failed;
+        private final Gauge depth;
+
+        private Channel(String name, ChannelSettings settings) {
+            this.name = name;
+            this.settings = settings;
+            this.published = messages("published");
+            this.delivered = messages("delivered");
+            this.dropped = messages("dropped");
+            this.failed = messages("failed");
+            this.depth = Gauge.builder("realtime.bus.queue.depth", this, Channel::depth)
+                    .tag("channel", name)
+                    .description("Messages waiting for handlers, summed over the channel's subscriptions")
+                    .register(meterRegistry);
+        }
+
+        private Counter messages(String result) {
+            return Counter.builder("realtime.bus.messages")
+                    .tag("channel", name)
+                    .tag("result", result)
+                    .description("Realtime bus messages by channel")
+                    .register(meterRegistry);
+        }
+
+        private double depth() {
+            int total = 0;
+            for (Subscription subscription : subscriptions) {
+                total += subscription.queue.size();
+            }
+            return total;
+        }
+
+        private void close() {
+            for (Meter meter : List.of(published, delivered, dropped, failed, depth)) {
+                meterRegistry.remove(meter);
+            }
+        }
+    }
+
+    private final class Subscription implements Runnable {
+        private final Channel channel;
+        private final MessageHandler handler;
+        private final ArrayBlockingQueue<Delivery> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscription(Channel channel, MessageHandler handler) {
+            this.channel = channel;
+            this.handler = handler;
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, channel.settings.getQueueCapacity()));
+        }
+
+        private void offer(Delivery message) {
+            if (closed) {
+                return;
+            }
+            boolean queued = switch (channel.settings.getOverflow()) {
+                case DROP_NEWEST -> queue.offer(message);
+                case DROP_OLDEST -> {
+                    while (!queue.offer(message)) {
+                        if (queue.poll() != null) {
+                            channel.dropped.increment();
+                        }
+                    }
+                    yield true;
+                }
+                case BLOCK -> offerWaiting(message);
+            };
+            if (!queued) {
+                channel.dropped.increment();
+            }
+            schedule();
+        }
+
+        private boolean offerWaiting(Delivery message) {
+            try {
+                return queue.offer(message, channel.settings.getBlockTimeout().toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private void schedule() {
+            if (queue.isEmpty() || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                dispatchers.execute(this);
+            } catch (RejectedExecutionException e) {
+                // shutting down: nothing will run these any more
+                scheduled.set(false);
+                discard();
+            }
+        }
+
+        @Override
+        public void run() {
+            // once shutdown has begun the queue is drained in one go, since rescheduling is refused
+            int limit = dispatchers.isShutdown() ? Integer.MAX_VALUE : drainBatch;
+            for (int i = 0; i < limit && !closed; i++) {
+                Delivery delivery = queue.poll();
+                if (delivery == null) {
+                    break;
+                }
+                try {
+                    handler.handle(delivery.channel(), delivery.message());
+                    channel.delivered.increment();
+                } catch (Exception e) {
+                    channel.failed.increment();
+                    log.error("Error handling message on channel {}: {}", delivery.channel(), e.getMessage(), e);
+                }
+            }
+            if (closed) {
+                queue.clear();
+            }
+            scheduled.set(false);
+            schedule();
+        }
+
+        private void close() {
+            closed = true;
+            queue.clear();
+        }
+
+        private void discard() {
+            int discarded = 0;
+            while (queue.poll() != null) {
+                discarded++;
+            }
+            channel.dropped.increment(discarded);
+        }
+    }
+}
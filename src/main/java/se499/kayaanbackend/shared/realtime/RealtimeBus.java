@@ -10,18 +10,27 @@ public interface RealtimeBus {
     void publish(String channel, Object message);
     
     /**
-     * Subscribes to a channel
-     * @param channel The channel name
+     * Subscribes to a channel, or to every channel matching a pattern.
+     * Channel names are dot-separated tokens; in a pattern {@code *} matches exactly one token and a
+     * trailing {@code >} matches one or more, e.g. {@code groups.*} or {@code groups.42.>}
+     * @param channel The channel name or pattern
      * @param handler The message handler
      */
     void subscribe(String channel, MessageHandler handler);
     
     /**
-     * Unsubscribes from a channel
-     * @param channel The channel name
+     * Removes every handler subscribed with exactly this channel name or pattern
+     * @param channel The channel name or pattern
      */
     void unsubscribe(String channel);
     
+    /**
+     * Removes one handler; other handlers on the same channel or pattern keep receiving messages
+     * @param channel The channel name or pattern the handler was subscribed with
+     * @param handler The handler passed to {@link #subscribe}
+     */
+    void unsubscribe(String channel, MessageHandler handler);
+    
     /**
      * Message handler interface
      */
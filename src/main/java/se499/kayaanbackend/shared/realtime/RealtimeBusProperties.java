@@ -0,0 +1,70 @@
+package se499.kayaanbackend.shared.realtime;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * ค่าของ {@link InProcessRealtimeBus} จาก {@code kayaan.realtime.bus}
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "kayaan.realtime.bus")
+public class RealtimeBusProperties {
+
+    /** messages each subscription may have waiting before the overflow policy applies */
+    private int queueCapacity = 1024;
+
+    /** what a publisher does when a subscription's queue is full */
+    private Overflow overflow = Overflow.DROP_OLDEST;
+
+    /** how long a publisher waits for room under {@link Overflow#BLOCK} before dropping the message */
+    private Duration blockTimeout = Duration.ofMillis(50);
+
+    /** threads running handlers; each subscription is served by at most one of them at a time */
+    private int dispatcherThreads = 2;
+
+    /** messages handed to one subscription before its thread moves on to the next */
+    private int drainBatch = 64;
+
+    /** how long shutdown waits for queued messages to be handled */
+    private Duration shutdownTimeout = Duration.ofSeconds(5);
+
+    /** overrides keyed by the channel name or pattern exactly as it was subscribed to */
+    private Map<String, ChannelSettings> channels = new LinkedHashMap<>();
+
+    public ChannelSettings settingsFor(String channel) {
+        ChannelSettings override = channels.get(channel);
+        ChannelSettings settings = new ChannelSettings();
+        settings.setQueueCapacity(override != null && override.getQueueCapacity() != null
+                ? override.getQueueCapacity() : queueCapacity);
+        settings.setOverflow(override != null && override.getOverflow() != null ? override.getOverflow() : overflow);
+        settings.setBlockTimeout(override != null && override.getBlockTimeout() != null
+                ? override.getBlockTimeout() : blockTimeout);
+        return settings;
+    }
+
+    @Getter
+    @Setter
+    public static class ChannelSettings {
+        private Integer queueCapacity;
+        private Overflow overflow;
+        private Duration blockTimeout;
+    }
+
+    public enum Overflow {
+        /** discard the oldest queued message to make room; the publisher never waits */
+        DROP_OLDEST,
+        /** discard the message being published; the publisher never waits */
+        DROP_NEWEST,
+        /** wait up to {@code block-timeout} for room, then discard the message being published */
+        BLOCK
+    }
+}
@@ -0,0 +1,99 @@
+package se499.kayaanbackend.shared.realtime.cluster;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import lombok.extern.slf4j.Slf4j;
+import se499.kayaanbackend.Study_Group.chat.RecentMessageCache;
+import se499.kayaanbackend.Study_Group.dto.MessageResponse;
+import se499.kayaanbackend.Study_Group.security.GroupMembershipCache;
+import se499.kayaanbackend.Study_Group.security.ratelimit.LeasedRateLimitStore;
+
+/**
+ * แปลง envelope เป็น JSON และกลับ
+ * <p>
+ * Each message carries a short name for its payload type so the receiving node can rebuild the same
+ * record its local subscribers expect. Only the types in {@link #TYPES} can cross the wire, in either
+ * direction, so a peer can never make this node instantiate anything else; payloads of other types
+ * stay on the node that published them. Messages that cannot be decoded are skipped; the rest of the
+ * envelope is still delivered.
+ */
+@Slf4j
+class ClusterEnvelopeCodec {
+
+    /** Every payload type other nodes may receive, by the name used on the wire. */
+    static final Map<String, Class<?>> TYPES = Map.of(
+            "chat.message", MessageResponse.class,
+            "chat.recent-change", RecentMessageCache.Change.class,
+            "membership.invalidation", GroupMembershipCache.Invalidation.class,
+            "rate-limit.refusal", LeasedRateLimitStore.Counter.class);
+
+    private static final Map<Class<?>, String> NAMES = new HashMap<>();
+
+    static {
+        TYPES.forEach((name, type) -> NAMES.put(type, name));
+    }
+
+    private final ObjectMapper objectMapper;
+
+    ClusterEnvelopeCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /** Whether {@code payload} is of a type other nodes accept. */
+    boolean supports(Object payload) {
+        return NAMES.containsKey(payload.getClass());
+    }
+
+    byte[] encode(Envelope envelope) throws IOException {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("origin", envelope.origin());
+        ArrayNode messages = root.putArray("messages");
+        for (Message message : envelope.messages()) {
+            ObjectNode node = messages.addObject();
+            node.put("channel", message.channel());
+            String type = NAMES.get(message.payload().getClass());
+            if (type == null) {
+                throw new IllegalArgumentException("Payload type " + message.payload().getClass().getName()
+                        + " cannot be sent to other nodes");
+            }
+            node.put("type", type);
+            node.set("payload", objectMapper.valueToTree(message.payload()));
+        }
+        return objectMapper.writeValueAsBytes(root);
+    }
+
+    Envelope decode(byte[] frame) throws IOException {
+        JsonNode root = objectMapper.readTree(frame);
+        List<Message> messages = new ArrayList<>();
+        for (JsonNode node : root.path("messages")) {
+            String channel = node.path("channel").asText();
+            String type = node.path("type").asText();
+            Class<?> payloadType = TYPES.get(type);
+            if (payloadType == null) {
+                log.warn("Skipping cluster message on {} of unknown type {}", channel, type);
+                continue;
+            }
+            try {
+                messages.add(new Message(channel, objectMapper.treeToValue(node.get("payload"), payloadType)));
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("Skipping cluster message on {} of type {}: {}", channel, type, e.getMessage());
+            }
+        }
+        return new Envelope(root.path("origin").asText(), messages);
+    }
+
+    record Envelope(String origin, List<Message> messages) {
+    }
+
+    record Message(String channel, Object payload) {
+    }
+}
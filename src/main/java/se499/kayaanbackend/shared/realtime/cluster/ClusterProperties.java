@@ -0,0 +1,71 @@
+package se499.kayaanbackend.shared.realtime.cluster;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * ค่าของสะพานเชื่อม realtime bus ระหว่าง node จาก {@code kayaan.realtime.cluster}
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "kayaan.realtime.cluster")
+public class ClusterProperties {
+
+    /** forward bus traffic to other nodes; off for a single instance */
+    private boolean enabled = false;
+
+    /** how envelopes travel between nodes */
+    private Transport transport = Transport.TCP;
+
+    /** id stamped on every envelope this node sends; unique per process unless set */
+    private String nodeId = UUID.randomUUID().toString();
+
+    /** address the TCP transport accepts peers on; loopback unless set to a private interface */
+    private String bindHost = "127.0.0.1";
+
+    /** shared by every node; the TCP transport signs and checks each frame with it and will not start without it */
+    private String secret;
+
+    /** port the TCP transport accepts peers on; 0 picks a free one */
+    private int port = 7400;
+
+    /** other nodes as {@code host:port} */
+    private List<String> peers = new ArrayList<>();
+
+    /** channels or patterns forwarded to other nodes */
+    private List<String> forward = new ArrayList<>(List.of(">"));
+
+    /** messages waiting to be sent before new ones are dropped */
+    private int queueCapacity = 10_000;
+
+    /** most messages in one envelope */
+    private int batchSize = 256;
+
+    /** how long the sender waits for more messages before sending a small envelope */
+    private Duration linger = Duration.ofMillis(5);
+
+    /** envelopes waiting for one peer before new ones for it are dropped */
+    private int peerQueueCapacity = 1000;
+
+    /** largest envelope accepted from a peer */
+    private int maxFrameBytes = 16 * 1024 * 1024;
+
+    /** pause before reconnecting to a peer that could not be reached */
+    private Duration reconnectBackoff = Duration.ofSeconds(1);
+
+    public enum Transport {
+        /** length-prefixed frames over a TCP connection to each peer */
+        TCP,
+        /** frames handed to other buses in the same JVM, for tests */
+        LOOPBACK
+    }
+}
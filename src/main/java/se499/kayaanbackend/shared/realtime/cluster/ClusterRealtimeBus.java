@@ -0,0 +1,234 @@
+package se499.kayaanbackend.shared.realtime.cluster;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import se499.kayaanbackend.shared.realtime.InProcessRealtimeBus;
+import se499.kayaanbackend.shared.realtime.RealtimeBus;
+import se499.kayaanbackend.shared.realtime.cluster.ClusterEnvelopeCodec.Envelope;
+import se499.kayaanbackend.shared.realtime.cluster.ClusterEnvelopeCodec.Message;
+
+/**
+ * {@link RealtimeBus} ที่ส่งต่อข้อความไปยัง node อื่นผ่าน {@link ClusterTransport}
+ * <p>
+ * Subscriptions stay on the local {@link InProcessRealtimeBus}. A publish is delivered locally straight
+ * away and, when its channel matches one of the {@code forward} patterns and its payload is a type
+ * {@link ClusterEnvelopeCodec} accepts, queued for other nodes. One
+ * sender thread packs queued messages into envelopes of up to {@code batch-size}, waiting at most
+ * {@code linger} for a batch to fill, and hands each envelope to the transport. Envelopes received
+ * from peers are published on the local bus only, never forwarded again, and envelopes stamped with
+ * this node's id are discarded, so nothing loops back.
+ * <p>
+ * Order: a single queue and sender keep this node's messages in publish order, the transport keeps
+ * each peer's envelopes in order, and the local bus keeps each subscription's messages in order, so
+ * messages from one node on one channel arrive everywhere in the order they were published. When the
+ * send queue is full new messages are dropped and counted rather than holding up publishers; caches
+ * fed by the bus fall back on their TTLs.
+ */
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(prefix = "kayaan.realtime.cluster", name = "enabled", havingValue = "true")
+public class ClusterRealtimeBus implements RealtimeBus, DisposableBean {
+
+    private final InProcessRealtimeBus local;
+    private final ClusterTransport transport;
+    private final ClusterEnvelopeCodec codec;
+    private final String nodeId;
+    private final List<String[]> forward;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final BlockingQueue<Message> outbound;
+    private final Thread sender;
+    private final Counter sent;
+    private final Counter dropped;
+    private final Counter localOnly;
+    private final Counter received;
+    private final Counter echoed;
+    private final Counter envelopesSent;
+    private final Counter envelopesFailed;
+    private volatile boolean running = true;
+
+    public ClusterRealtimeBus(InProcessRealtimeBus local, ClusterTransport transport, ClusterProperties properties,
+                              ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.local = local;
+        this.transport = transport;
+        this.codec = new ClusterEnvelopeCodec(objectMapper);
+        this.nodeId = properties.getNodeId();
+        this.forward = properties.getForward().stream().map(pattern -> pattern.split("\\.", -1)).toList();
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        this.lingerNanos = properties.getLinger().toNanos();
+        this.outbound = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+
+        this.sent = messages(meterRegistry, "out", "sent");
+        this.dropped = messages(meterRegistry, "out", "dropped");
+        this.localOnly = messages(meterRegistry, "out", "local_only");
+        this.received = messages(meterRegistry, "in", "received");
+        this.echoed = messages(meterRegistry, "in", "echoed");
+        this.envelopesSent = Counter.builder("realtime.cluster.envelopes").tag("result", "sent")
+                .description("Envelopes handed to the cluster transport").register(meterRegistry);
+        this.envelopesFailed = Counter.builder("realtime.cluster.envelopes").tag("result", "failed")
+                .description("Envelopes handed to the cluster transport").register(meterRegistry);
+        Gauge.builder("realtime.cluster.outbound.depth", outbound, BlockingQueue::size)
+                .description("Messages waiting to be sent to other nodes")
+                .register(meterRegistry);
+
+        this.sender = new Thread(this::sendLoop, "realtime-cluster-sender");
+        this.sender.setDaemon(true);
+        this.sender.start();
+        transport.start(this::receive);
+        log.info("Realtime cluster bridge started as node {}", nodeId);
+    }
+
+    private static Counter messages(MeterRegistry meterRegistry, String direction, String result) {
+        return Counter.builder("realtime.cluster.messages")
+                .tag("direction", direction)
+                .tag("result", result)
+                .description("Realtime bus messages exchanged with other nodes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void publish(String channel, Object message) {
+        local.publish(channel, message);
+        if (!running || !forwarded(channel)) {
+            return;
+        }
+        if (!codec.supports(message)) {
+            localOnly.increment();
+            log.debug("Not forwarding {} on {}: other nodes do not accept that type", message.getClass().getName(), channel);
+            return;
+        }
+        if (!outbound.offer(new Message(channel, message))) {
+            dropped.increment();
+        }
+    }
+
+    @Override
+    public void subscribe(String channel, MessageHandler handler) {
+        local.subscribe(channel, handler);
+    }
+
+    @Override
+    public void unsubscribe(String channel) {
+        local.unsubscribe(channel);
+    }
+
+    @Override
+    public void unsubscribe(String channel, MessageHandler handler) {
+        local.unsubscribe(channel, handler);
+    }
+
+    /** The id stamped on envelopes from this node. */
+    public String nodeId() {
+        return nodeId;
+    }
+
+    private boolean forwarded(String channel) {
+        String[] tokens = channel.split("\\.", -1);
+        for (String[] pattern : forward) {
+            if (matches(pattern, tokens)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Same rules as subscriptions: {@code *} is one token, a trailing {@code >} one or more. */
+    static boolean matches(String[] pattern, String[] tokens) {
+        for (int i = 0; i < pattern.length; i++) {
+            if (">".equals(pattern[i])) {
+                return tokens.length > i;
+            }
+            if (i >= tokens.length || (!"*".equals(pattern[i]) && !pattern[i].equals(tokens[i]))) {
+                return false;
+            }
+        }
+        return pattern.length == tokens.length;
+    }
+
+    private void sendLoop() {
+        List<Message> batch = new ArrayList<>(batchSize);
+        while (running || !outbound.isEmpty()) {
+            try {
+                Message first = outbound.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                outbound.drainTo(batch, batchSize - batch.size());
+                long deadline = System.nanoTime() + lingerNanos;
+                while (running && batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Message next = remaining > 0 ? outbound.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    outbound.drainTo(batch, batchSize - batch.size());
+                }
+                send(batch);
+            } catch (InterruptedException e) {
+                // destroy() interrupts a sender stuck waiting; the loop condition decides whether to stop
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<Message> batch) {
+        try {
+            transport.send(codec.encode(new Envelope(nodeId, List.copyOf(batch))));
+            envelopesSent.increment();
+            sent.increment(batch.size());
+        } catch (Exception e) {
+            envelopesFailed.increment();
+            dropped.increment(batch.size());
+            log.warn("Failed to send {} realtime message(s) to the cluster: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private void receive(byte[] frame) {
+        Envelope envelope;
+        try {
+            envelope = codec.decode(frame);
+        } catch (Exception e) {
+            log.warn("Discarding undecodable cluster envelope: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(envelope.origin())) {
+            echoed.increment(envelope.messages().size());
+            return;
+        }
+        for (Message message : envelope.messages()) {
+            try {
+                local.publish(message.channel(), message.payload());
+                received.increment();
+            } catch (RuntimeException e) {
+                log.warn("Could not publish cluster message on {}: {}", message.channel(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        sender.interrupt();
+        sender.join(TimeUnit.SECONDS.toMillis(5));
+        transport.close();
+    }
+}
@@ -0,0 +1,22 @@
+package se499.kayaanbackend.shared.realtime.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * ช่องทางส่ง frame ระหว่าง node ให้ {@link ClusterRealtimeBus}
+ * <p>
+ * Frames are opaque bytes. A transport must deliver the frames it receives from one peer to the
+ * receiver in the order that peer sent them, one at a time; it may drop frames when a peer is slow or
+ * unreachable. It may also hand a node its own frames back, which the bus discards by origin.
+ */
+public interface ClusterTransport extends AutoCloseable {
+
+    /** Starts accepting frames from peers and connecting to them. */
+    void start(Consumer<byte[]> receiver);
+
+    /** Sends the frame to every peer; never blocks on a slow peer. */
+    void send(byte[] frame);
+
+    @Override
+    void close();
+}
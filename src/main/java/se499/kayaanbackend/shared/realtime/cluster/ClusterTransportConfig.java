@@ -0,0 +1,27 @@
+package se499.kayaanbackend.shared.realtime.cluster;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * เลือก transport ตาม {@code kayaan.realtime.cluster.transport} เมื่อเปิดใช้ cluster
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "kayaan.realtime.cluster", name = "enabled", havingValue = "true")
+public class ClusterTransportConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "kayaan.realtime.cluster", name = "transport", havingValue = "tcp", matchIfMissing = true)
+    public ClusterTransport tcpClusterTransport(ClusterProperties properties, MeterRegistry meterRegistry) {
+        return new TcpClusterTransport(properties, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "kayaan.realtime.cluster", name = "transport", havingValue = "loopback")
+    public ClusterTransport loopbackClusterTransport() {
+        return new LoopbackClusterTransport(LoopbackClusterTransport.Hub.SHARED);
+    }
+}
@@ -0,0 +1,49 @@
+package se499.kayaanbackend.shared.realtime.cluster;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transport ภายใน JVM เดียว สำหรับทดสอบหลาย node โดยไม่ต้องเปิด socket
+ * <p>
+ * Every transport joined to the same {@link Hub} receives every frame sent on it, including its own,
+ * on the sender's thread and in send order.
+ */
+public class LoopbackClusterTransport implements ClusterTransport {
+
+    private final Hub hub;
+    private volatile Consumer<byte[]> receiver;
+
+    public LoopbackClusterTransport(Hub hub) {
+        this.hub = hub;
+    }
+
+    @Override
+    public void start(Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+        hub.members.add(this);
+    }
+
+    @Override
+    public void send(byte[] frame) {
+        for (LoopbackClusterTransport member : hub.members) {
+            Consumer<byte[]> target = member.receiver;
+            if (target != null) {
+                target.accept(frame.clone());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        hub.members.remove(this);
+        receiver = null;
+    }
+
+    /** A shared medium; all buses in the JVM use {@link #SHARED} unless given their own. */
+    public static final class Hub {
+        public static final Hub SHARED = new Hub();
+
+        private final CopyOnWriteArrayList<LoopbackClusterTransport> members = new CopyOnWriteArrayList<>();
+    }
+}
@@ -0,0 +1,330 @@
+package se499.kayaanbackend.shared.realtime.cluster;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.function.Consumer;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ส่ง frame ระหว่าง node ผ่าน TCP: ขนาด 4 ไบต์ตามด้วยข้อมูล
+ * <p>
+ * Each node listens on {@code bind-host:port} and opens one outgoing connection per configured peer,
+ * so every frame travels one hop and is never relayed. Frames for a peer wait in that peer's bounded
+ * queue and are written by its own thread, in order, flushing once the queue runs dry; a slow or
+ * unreachable peer only fills its own queue, after which its new frames are dropped and counted.
+ * Lost connections are reopened after {@code reconnect-backoff}. Each incoming connection is read by
+ * its own thread, which hands frames to the receiver one at a time.
+ * <p>
+ * Peers are authenticated with the shared {@code secret}: the accepting node opens every connection
+ * by sending a random challenge, and each frame carries an HMAC-SHA256 over that challenge, the
+ * frame's position on the connection and its bytes. A frame whose MAC does not match closes the
+ * connection before anything is decoded, so without the secret a host that can reach the port can
+ * neither inject frames nor replay recorded ones. Frames are not encrypted; keep {@code bind-host}
+ * on a private interface. The transport refuses to start without a secret.
+ */
+@Slf4j
+public class TcpClusterTransport implements ClusterTransport {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final int CHALLENGE_BYTES = 16;
+    private static final int MAC_BYTES = 32;
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    private final String bindHost;
+    private final int port;
+    private final List<Peer> peers;
+    private final int maxFrameBytes;
+    private final long reconnectBackoffMillis;
+    private final SecretKeySpec key;
+    private final SecureRandom random = new SecureRandom();
+    private final Counter droppedFrames;
+    private final Counter rejectedFrames;
+    private final Set<Socket> inbound = ConcurrentHashMap.newKeySet();
+    private volatile ServerSocket serverSocket;
+    private volatile boolean running;
+
+    public TcpClusterTransport(ClusterProperties properties, MeterRegistry meterRegistry) {
+        String secret = properties.getSecret();
+        if (secret == null || secret.getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("kayaan.realtime.cluster.secret must be set to at least "
+                    + MIN_SECRET_BYTES + " bytes, the same on every node, to use the tcp transport");
+        }
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM);
+        this.bindHost = properties.getBindHost();
+        this.port = properties.getPort();
+        this.maxFrameBytes = properties.getMaxFrameBytes();
+        this.reconnectBackoffMillis = properties.getReconnectBackoff().toMillis();
+        this.peers = properties.getPeers().stream()
+                .map(address -> new Peer(address, Math.max(1, properties.getPeerQueueCapacity())))
+                .toList();
+        this.droppedFrames = Counter.builder("realtime.cluster.frames.dropped")
+                .description("Envelopes dropped because a peer's queue was full")
+                .register(meterRegistry);
+        this.rejectedFrames = Counter.builder("realtime.cluster.frames.rejected")
+                .description("Frames from peers whose MAC did not match; the connection is closed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start(Consumer<byte[]> receiver) {
+        try {
+            ServerSocket server = new ServerSocket();
+            server.setReuseAddress(true);
+            server.bind(new InetSocketAddress(bindHost, port));
+            serverSocket = server;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot listen for cluster peers on " + bindHost + ":" + port, e);
+        }
+        running = true;
+        daemon("realtime-cluster-accept", () -> accept(receiver)).start();
+        for (Peer peer : peers) {
+            daemon("realtime-cluster-peer-" + peer.address, peer::writeLoop).start();
+        }
+        log.info("Cluster transport listening on {}, peers {}", serverSocket.getLocalSocketAddress(),
+                peers.stream().map(peer -> peer.address).toList());
+    }
+
+    /** The port actually bound, useful when {@code port} is 0. */
+    public int localPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void send(byte[] frame) {
+        for (Peer peer : peers) {
+            if (!peer.queue.offerLast(frame)) {
+                droppedFrames.increment();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        closeQuietly(serverSocket);
+        inbound.forEach(TcpClusterTransport::closeQuietly);
+        for (Peer peer : peers) {
+            peer.close();
+        }
+    }
+
+    private void accept(Consumer<byte[]> receiver) {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                inbound.add(socket);
+                daemon("realtime-cluster-read-" + socket.getRemoteSocketAddress(), () -> read(socket, receiver)).start();
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Failed to accept cluster peer: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void read(Socket socket, Consumer<byte[]> receiver) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            byte[] challenge = new byte[CHALLENGE_BYTES];
+            random.nextBytes(challenge);
+            OutputStream out = socket.getOutputStream();
+            out.write(challenge);
+            out.flush();
+            Mac mac = mac();
+            byte[] expected = new byte[MAC_BYTES];
+            byte[] received = new byte[MAC_BYTES];
+            for (long position = 0; running; position++) {
+                int length = in.readInt();
+                if (length <= 0 || length > maxFrameBytes) {
+                    log.warn("Closing cluster connection from {}: frame of {} bytes", socket.getRemoteSocketAddress(), length);
+                    return;
+                }
+                in.readFully(received);
+                byte[] frame = new byte[length];
+                in.readFully(frame);
+                sign(mac, challenge, position, frame, expected);
+                if (!MessageDigest.isEqual(expected, received)) {
+                    rejectedFrames.increment();
+                    log.warn("Closing cluster connection from {}: frame failed authentication", socket.getRemoteSocketAddress());
+                    return;
+                }
+                try {
+                    receiver.accept(frame);
+                } catch (RuntimeException e) {
+                    log.warn("Cluster frame from {} was not handled: {}", socket.getRemoteSocketAddress(), e.getMessage());
+                }
+            }
+        } catch (EOFException | SocketException e) {
+            // peer went away or we are closing
+        } catch (IOException e) {
+            log.warn("Cluster connection from {} failed: {}", socket.getRemoteSocketAddress(), e.getMessage());
+        } finally {
+            inbound.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    private Mac mac() {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot set up " + MAC_ALGORITHM + " for cluster frames", e);
+        }
+    }
+
+    /** MAC of a frame: the connection's challenge, the frame's position on it, then the frame. */
+    private static void sign(Mac mac, byte[] challenge, long position, byte[] frame, byte[] into) {
+        mac.update(challenge);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            mac.update((byte) (position >>> shift));
+        }
+        mac.update(frame);
+        try {
+            mac.doFinal(into, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Thread daemon(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // nothing useful to do
+        }
+    }
+
+    private final class Peer {
+        private final String address;
+        private final String host;
+        private final int port;
+        private final LinkedBlockingDeque<byte[]> queue;
+        // used by the writer thread only
+        private final byte[] challenge = new byte[CHALLENGE_BYTES];
+        private final byte[] signature = new byte[MAC_BYTES];
+        private long position;
+        private volatile Socket socket;
+        private volatile Thread writer;
+
+        private Peer(String address, int capacity) {
+            int colon = address.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("Cluster peer must be host:port, got " + address);
+            }
+            this.address = address;
+            this.host = address.substring(0, colon);
+            this.port = Integer.parseInt(address.substring(colon + 1));
+            this.queue = new LinkedBlockingDeque<>(capacity);
+        }
+
+        private void writeLoop() {
+            writer = Thread.currentThread();
+            Mac mac = mac();
+            DataOutputStream out = null;
+            while (running) {
+                byte[] frame;
+                try {
+                    frame = queue.takeFirst();
+                } catch (InterruptedException e) {
+                    continue;
+                }
+                try {
+                    if (out == null) {
+                        out = connect();
+                    }
+                    sign(mac, challenge, position++, frame, signature);
+                    out.writeInt(frame.length);
+                    out.write(signature);
+                    out.write(frame);
+                    if (queue.isEmpty()) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    if (!running) {
+                        return;
+                    }
+                    log.warn("Cluster peer {} unreachable: {}", address, e.getMessage());
+                    closeQuietly(socket);
+                    out = null;
+                    // try the frame again once the connection is back, unless newer frames filled the queue
+                    if (!queue.offerFirst(frame)) {
+                        droppedFrames.increment();
+                    }
+                    pause();
+                }
+            }
+        }
+
+        private DataOutputStream connect() throws IOException {
+            Socket connection = new Socket();
+            try {
+                connection.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+                connection.setTcpNoDelay(true);
+                connection.setKeepAlive(true);
+                // every frame on this connection is signed over the challenge the peer opens it with
+                connection.setSoTimeout(CONNECT_TIMEOUT_MILLIS);
+                new DataInputStream(connection.getInputStream()).readFully(challenge);
+                connection.setSoTimeout(0);
+                position = 0;
+            } catch (IOException e) {
+                closeQuietly(connection);
+                throw e;
+            }
+            socket = connection;
+            log.info("Connected to cluster peer {}", address);
+            return new DataOutputStream(new BufferedOutputStream(connection.getOutputStream(), 64 * 1024));
+        }
+
+        private void pause() {
+            try {
+                Thread.sleep(reconnectBackoffMillis);
+            } catch (InterruptedException e) {
+                // close() wakes us up
+            }
+        }
+
+        private void close() {
+            closeQuietly(socket);
+            Thread thread = writer;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+}
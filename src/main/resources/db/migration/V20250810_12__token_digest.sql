@@ -0,0 +1,29 @@
+-- Store tokens as fixed-width SHA-256 digests instead of the raw JWT
+-- and track expiry so expired rows can be compacted
+
+CREATE TABLE IF NOT EXISTS token (
+    id INT PRIMARY KEY,
+    token VARCHAR(255),
+    token_type VARCHAR(255),
+    revoked BIT NOT NULL,
+    expired BIT NOT NULL,
+    user_id INT,
+    FOREIGN KEY (user_id) REFERENCES _user(id) ON DELETE CASCADE
+);
+
+ALTER TABLE token
+ADD COLUMN IF NOT EXISTS token_hash CHAR(64),
+ADD COLUMN IF NOT EXISTS expires_at TIMESTAMP NULL;
+
+-- existing rows: hash in place; access tokens live at most one day
+UPDATE token SET token_hash = SHA2(token, 256) WHERE token_hash IS NULL;
+UPDATE token SET expires_at = DATE_ADD(CURRENT_TIMESTAMP, INTERVAL 1 DAY) WHERE expires_at IS NULL;
+
+ALTER TABLE token
+MODIFY token_hash CHAR(64) NOT NULL,
+MODIFY expires_at TIMESTAMP NOT NULL,
+DROP COLUMN token;
+
+CREATE UNIQUE INDEX idx_token_hash ON token(token_hash);
+CREATE INDEX idx_token_user_valid ON token(user_id, expired, revoked, expires_at, token_hash, token_type);
+CREATE INDEX idx_token_expires_at ON token(expires_at);
@@ -0,0 +1,3 @@
+-- Per-user token version: incrementing it revokes every token issued so far
+ALTER TABLE _user
+ADD COLUMN IF NOT EXISTS token_version INT NOT NULL DEFAULT 0;
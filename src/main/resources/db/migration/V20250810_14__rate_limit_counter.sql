@@ -0,0 +1,13 @@
+-- Shared rate limit counters: one row per (action, user, group, fixed window), leased out to nodes in blocks
+CREATE TABLE IF NOT EXISTS rate_limit_counter (
+    action VARCHAR(32) NOT NULL,
+    user_id BIGINT NOT NULL,
+    group_id BIGINT NOT NULL,
+    window_start BIGINT NOT NULL,
+    expires_at BIGINT NOT NULL,
+    used BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (action, user_id, group_id, window_start)
+);
+
+CREATE INDEX idx_rate_limit_counter_user_group ON rate_limit_counter(user_id, group_id);
+CREATE INDEX idx_rate_limit_counter_expires_at ON rate_limit_counter(expires_at);
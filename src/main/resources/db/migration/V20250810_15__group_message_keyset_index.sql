@@ -0,0 +1,2 @@
+-- Chat history is read newest-first per group and paged by (created_at, id) keyset cursors
+CREATE INDEX idx_group_message_group_created ON group_message(group_id, created_at, id);
@@ -0,0 +1,8 @@
+-- Blocks of group_message ids reserved by each node, so a chat message has its id before the row is written
+CREATE TABLE IF NOT EXISTS message_id_block (
+    name VARCHAR(64) NOT NULL PRIMARY KEY,
+    next_id BIGINT NOT NULL
+);
+
+INSERT INTO message_id_block (name, next_id)
+SELECT 'group_message', COALESCE(MAX(id), 0) + 1 FROM group_message;
@@ -0,0 +1,28 @@
+-- Notification inbox: one row per (user, group, event type), unread counts come from per-group read marks
+CREATE TABLE IF NOT EXISTS group_notification (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id INT NOT NULL,
+    group_id INT NOT NULL,
+    type VARCHAR(32) NOT NULL,
+    event_count INT NOT NULL,
+    last_actor_id INT NULL,
+    detail VARCHAR(255) NULL,
+    last_seq BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    CONSTRAINT uk_group_notification_user_group_type UNIQUE (user_id, group_id, type),
+    INDEX idx_group_notification_user_updated (user_id, updated_at)
+);
+
+CREATE TABLE IF NOT EXISTS group_notification_read (
+    user_id INT NOT NULL,
+    group_id INT NOT NULL,
+    read_seq BIGINT NOT NULL,
+    read_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (user_id, group_id)
+);
+
+-- Notification sequences per group, so inbox writers for different groups never wait on one shared row
+CREATE TABLE IF NOT EXISTS group_notification_seq (
+    group_id INT NOT NULL PRIMARY KEY,
+    next_seq BIGINT NOT NULL
+);
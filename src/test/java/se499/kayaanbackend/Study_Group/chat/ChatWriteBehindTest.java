@@ -0,0 +1,119 @@
+package se499.kayaanbackend.Study_Group.chat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import se499.kayaanbackend.Study_Group.exception.ChatBusyException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ChatWriteBehindTest {
+
+    private final MessageIdAllocator idAllocator = mock(MessageIdAllocator.class);
+    private final GroupMessageBatchWriter writer = mock(GroupMessageBatchWriter.class);
+    private final List<List<Long>> batches = new CopyOnWriteArrayList<>();
+
+    ChatWriteBehindTest() {
+        AtomicLong ids = new AtomicLong();
+        when(idAllocator.nextId()).thenAnswer(i -> ids.incrementAndGet());
+        doAnswer(i -> {
+            List<PendingMessage> batch = i.getArgument(0);
+            batches.add(batch.stream().map(PendingMessage::id).toList());
+            return null;
+        }).when(writer).write(anyList());
+    }
+
+    private ChatWriteBehind pipeline(ChatWriteBehindProperties properties) {
+        return new ChatWriteBehind(properties, idAllocator, writer, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void writesEachGroupInOrderInBatches() throws Exception {
+        ChatWriteBehindProperties properties = new ChatWriteBehindProperties();
+        properties.setBatchSize(3);
+        properties.setLinger(Duration.ofMillis(20));
+        ChatWriteBehind chat = pipeline(properties);
+
+        PendingMessage last = null;
+        for (int i = 0; i < 7; i++) {
+            PendingMessage message = chat.submit(1, 2, "m" + i, "text");
+            if (last != null) {
+                assertTrue(message.id() > last.id());
+                assertFalse(message.createdAt().isBefore(last.createdAt()));
+            }
+            last = message;
+        }
+        chat.flush(1);
+
+        assertTrue(last.persisted().isDone());
+        assertEquals(List.of(List.of(1L, 2L, 3L), List.of(4L, 5L, 6L), List.of(7L)), batches);
+        assertEquals(0, chat.pending());
+        chat.destroy();
+    }
+
+    @Test
+    void refusesSendsOnceAGroupQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(i -> release.await(5, TimeUnit.SECONDS)).when(writer).write(anyList());
+        ChatWriteBehindProperties properties = new ChatWriteBehindProperties();
+        properties.setQueueCapacity(2);
+        properties.setBatchSize(1);
+        properties.setLinger(Duration.ZERO);
+        ChatWriteBehind chat = pipeline(properties);
+
+        chat.submit(1, 2, "first", "text");
+        // ข้อความแรกถูกดึงออกไปเขียนแล้ว คิวจึงรับได้อีกสองข้อความ
+        verify(writer, timeout(1000)).write(anyList());
+        chat.submit(1, 2, "second", "text");
+        chat.submit(1, 2, "third", "text");
+        assertThrows(ChatBusyException.class, () -> chat.submit(1, 2, "fourth", "text"));
+        chat.submit(2, 2, "other group", "text");
+
+        release.countDown();
+        chat.destroy();
+        assertEquals(0, chat.pending());
+    }
+
+    @Test
+    void shutdownWritesQueuedMessagesAndStopsAccepting() {
+        ChatWriteBehindProperties properties = new ChatWriteBehindProperties();
+        properties.setLinger(Duration.ofSeconds(1));
+        ChatWriteBehind chat = pipeline(properties);
+
+        PendingMessage message = chat.submit(1, 2, "hi", "text");
+        chat.destroy();
+
+        assertTrue(message.persisted().isDone());
+        assertEquals(List.of(List.of(message.id())), batches);
+        assertThrows(ChatBusyException.class, () -> chat.submit(1, 2, "late", "text"));
+    }
+
+    @Test
+    void syncDurabilityWaitsForTheBatchAndReportsDroppedRows() {
+        doAnswer(i -> {
+            List<PendingMessage> batch = i.getArgument(0);
+            if (batch.stream().anyMatch(m -> m.content().equals("bad"))) {
+                throw new IllegalStateException("constraint");
+            }
+            return null;
+        }).when(writer).write(anyList());
+        ChatWriteBehindProperties properties = new ChatWriteBehindProperties();
+        properties.setDurability(ChatWriteBehindProperties.Durability.SYNC);
+        properties.setMaxAttempts(1);
+        ChatWriteBehind chat = pipeline(properties);
+
+        PendingMessage ok = chat.submit(1, 2, "ok", "text");
+        assertTrue(ok.persisted().isDone());
+        assertThrows(IllegalStateException.class, () -> chat.submit(1, 2, "bad", "text"));
+        chat.destroy();
+    }
+}
@@ -0,0 +1,87 @@
+package se499.kayaanbackend.Study_Group.chat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import se499.kayaanbackend.Study_Group.dto.MessageCursor;
+import se499.kayaanbackend.Study_Group.dto.MessageResponse;
+import se499.kayaanbackend.shared.realtime.RealtimeBus;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RecentMessageCacheTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 8, 10, 12, 0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RecentMessageCache cache =
+            new RecentMessageCache(3, 1_000_000, 60_000, mock(RealtimeBus.class), meterRegistry);
+
+    @Test
+    void seedsOnceThenServesTheLatestPageFromMemory() {
+        assertTrue(cache.latest(1, 2).isEmpty());
+
+        List<MessageResponse> page = cache.load(1, 2, () -> List.of(message(1, 12), message(1, 11), message(1, 10)));
+        assertEquals(List.of(12L, 11L), ids(page));
+
+        cache.append(message(1, 13));
+        assertEquals(List.of(13L, 12L), ids(cache.latest(1, 2).orElseThrow()));
+        // 10 fell off the ring, so a longer page has to go to the database
+        assertTrue(cache.latest(1, 4).isEmpty());
+
+        assertEquals(1.0, meterRegistry.get("chat.recent_cache.lookups").tag("result", "hit").counter().count());
+        assertEquals(2.0, meterRegistry.get("chat.recent_cache.lookups").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void shortHistoryIsCompleteAndAnswersCursorPolls() {
+        cache.load(1, 10, () -> List.of(message(1, 2), message(1, 1)));
+        assertEquals(List.of(2L, 1L), ids(cache.latest(1, 10).orElseThrow()));
+
+        cache.append(message(1, 3));
+        MessageCursor seen = new MessageCursor(at(1), 1L);
+        assertEquals(List.of(2L, 3L), ids(cache.after(1, seen, 10).orElseThrow()));
+
+        cache.remove(1, 2L);
+        assertEquals(List.of(3L, 1L), ids(cache.latest(1, 10).orElseThrow()));
+    }
+
+    @Test
+    void changesMadeWhileSeedingAreKept() {
+        List<MessageResponse> page = cache.load(1, 3, () -> {
+            cache.append(message(1, 3));          // sent while the rows were being read
+            cache.remove(1, 1L);                  // deleted after the read saw it
+            return List.of(message(1, 2), message(1, 1));
+        });
+        assertEquals(List.of(3L, 2L), ids(page));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedGroupsPastTheByteCap() {
+        RecentMessageCache small = new RecentMessageCache(3, 700, 60_000, mock(RealtimeBus.class), meterRegistry);
+        small.load(1, 1, () -> List.of(message(1, 1)));
+        small.load(2, 1, () -> List.of(message(2, 2)));
+        small.latest(1, 1);
+        small.load(3, 1, () -> List.of(message(3, 3), message(3, 4)));
+
+        assertTrue(small.latest(1, 1).isPresent());
+        assertTrue(small.latest(2, 1).isEmpty());
+        assertTrue(small.estimatedBytes() <= 700);
+    }
+
+    private static MessageResponse message(int groupId, long id) {
+        return new MessageResponse(id, groupId, 7, "A B", "m" + id, "text", at(id), at(id));
+    }
+
+    private static LocalDateTime at(long id) {
+        return T0.plusSeconds(id);
+    }
+
+    private static List<Long> ids(List<MessageResponse> messages) {
+        return messages.stream().map(MessageResponse::id).toList();
+    }
+}
@@ -0,0 +1,84 @@
+package se499.kayaanbackend.Study_Group.controller;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import se499.kayaanbackend.Study_Group.GroupInvite;
+import se499.kayaanbackend.Study_Group.exception.StudyGroupExceptionHandler;
+import se499.kayaanbackend.Study_Group.security.GroupPermissionService;
+import se499.kayaanbackend.Study_Group.security.InviteCodeService;
+import se499.kayaanbackend.Study_Group.security.RateLimitService;
+import se499.kayaanbackend.Study_Group.security.ratelimit.InMemoryRateLimitStore;
+import se499.kayaanbackend.Study_Group.security.ratelimit.RateLimitAction;
+import se499.kayaanbackend.Study_Group.security.ratelimit.RateLimitPolicy;
+import se499.kayaanbackend.Study_Group.security.ratelimit.RateLimiterEngine;
+import se499.kayaanbackend.Study_Group.security.ratelimit.SlidingWindowPolicy;
+import se499.kayaanbackend.security.user.User;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class GroupInviteControllerTest {
+
+    private static final String BODY = "{\"groupId\": 3, \"maxUses\": 5}";
+
+    private final InviteCodeService inviteCodeService = mock(InviteCodeService.class);
+    private final GroupPermissionService groupPermissionService = mock(GroupPermissionService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        Map<RateLimitAction, RateLimitPolicy> policies = new EnumMap<>(RateLimitAction.class);
+        for (RateLimitAction action : RateLimitAction.values()) {
+            policies.put(action, new SlidingWindowPolicy(2, 86_400_000L));
+        }
+        GroupInviteController controller = new GroupInviteController();
+        ReflectionTestUtils.setField(controller, "inviteCodeService", inviteCodeService);
+        ReflectionTestUtils.setField(controller, "groupPermissionService", groupPermissionService);
+        ReflectionTestUtils.setField(controller, "rateLimitService",
+                new RateLimitService(new InMemoryRateLimitStore(new RateLimiterEngine(policies))));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new StudyGroupExceptionHandler())
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+
+        User user = User.builder().id(42).username("somchai").build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        when(groupPermissionService.hasPermission(eq(42L), eq(3L), any())).thenReturn(true);
+        when(inviteCodeService.createInviteCode(anyInt(), anyInt(), any(), any(), any())).thenReturn(new GroupInvite());
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void createIsLimitedPerUserAndGroupFromTheBody() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/study-group/invites/create").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(post("/api/study-group/invites/create").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.actionType").value("CREATE_INVITE"));
+
+        verify(inviteCodeService, times(2)).createInviteCode(eq(3), eq(42), any(), any(), eq(5));
+    }
+}
@@ -0,0 +1,81 @@
+package se499.kayaanbackend.Study_Group.notification;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import se499.kayaanbackend.Study_Group.notification.GroupNotificationEvent.Type;
+import se499.kayaanbackend.Study_Group.security.MembershipResolver;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class NotificationDispatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MembershipResolver membershipResolver = mock(MembershipResolver.class);
+    private final NotificationInboxWriter inboxWriter = mock(NotificationInboxWriter.class);
+    private final NotificationDispatcher dispatcher =
+            new NotificationDispatcher(membershipResolver, inboxWriter, 100, 1, 10, 100, meterRegistry);
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        dispatcher.destroy();
+    }
+
+    @Test
+    void coalescesABurstIntoOneFanOut() throws InterruptedException {
+        when(membershipResolver.memberIds(1)).thenReturn(List.of(7, 8, 9));
+
+        for (int i = 0; i < 5; i++) {
+            dispatcher.on(new GroupNotificationEvent(Type.NEW_MESSAGE, 1, 7, "m" + i));
+        }
+        awaitDeliveries(2);
+
+        // one roster lookup for the whole burst, and the sender is not told about their own messages
+        verify(membershipResolver, times(1)).memberIds(1);
+        verify(inboxWriter).record(1, Type.NEW_MESSAGE, List.of(8, 9), 5, 7, "m4");
+        assertEquals(1.0, events("accepted"));
+        assertEquals(4.0, events("coalesced"));
+    }
+
+    @Test
+    void membersWhoLeftAreStillNotified() throws InterruptedException {
+        when(membershipResolver.memberIds(1)).thenReturn(List.of(8, 9));
+
+        dispatcher.on(new GroupNotificationEvent(Type.MEMBER_LEFT, 1, 7, null));
+        awaitDeliveries(3);
+        verify(inboxWriter).record(1, Type.MEMBER_LEFT, List.of(8, 9, 7), 1, 7, null);
+    }
+
+    @Test
+    void dropsEventsPastTheOpenWindowCap() {
+        NotificationDispatcher capped = new NotificationDispatcher(membershipResolver, inboxWriter, 60_000, 1, 10, 1, meterRegistry);
+        try {
+            capped.on(new GroupNotificationEvent(Type.NEW_MESSAGE, 1, 7, "a"));
+            capped.on(new GroupNotificationEvent(Type.MEMBER_JOINED, 1, 7, null));
+            assertEquals(1.0, events("dropped"));
+        } finally {
+            assertDoesNotThrow(capped::destroy);
+        }
+    }
+
+    private double events(String result) {
+        return meterRegistry.get("group.notifications.events").tag("result", result).counter().count();
+    }
+
+    private void awaitDeliveries(double expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        double delivered = 0;
+        while (System.currentTimeMillis() < deadline) {
+            delivered = meterRegistry.get("group.notifications.delivered").counter().count();
+            if (delivered >= expected) {
+                break;
+            }
+            Thread.sleep(20);
+        }
+        assertEquals(expected, delivered);
+    }
+}
@@ -0,0 +1,70 @@
+package se499.kayaanbackend.Study_Group.notification;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import se499.kayaanbackend.Study_Group.dto.NotificationResponse;
+import se499.kayaanbackend.Study_Group.notification.GroupNotificationEvent.Type;
+import se499.kayaanbackend.Study_Group.repository.GroupNotificationRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "kayaan.notifications.inbox-batch-size=2"
+})
+@Import(NotificationInboxWriter.class)
+class NotificationInboxWriterTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NotificationInboxWriter inboxWriter;
+
+    @Autowired
+    private GroupNotificationRepository notificationRepository;
+
+    @Test
+    void keepsOneRowPerKindAndCountsUnreadFromTheReadMark() {
+        inboxWriter.record(1, Type.NEW_MESSAGE, List.of(7, 8, 9), 3, 9, "hi");
+        inboxWriter.record(1, Type.NEW_MESSAGE, List.of(7, 8), 2, 9, "again");
+        inboxWriter.record(2, Type.MEMBER_JOINED, List.of(7), 1, 5, null);
+
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM group_notification", Integer.class));
+        // each group numbers its own events
+        assertEquals(3, nextSeq(1));
+        assertEquals(2, nextSeq(2));
+        List<NotificationResponse> inbox = inbox(7);
+        assertEquals(List.of(2, 1), inbox.stream().map(NotificationResponse::groupId).toList());
+        assertEquals(5, inbox.get(1).unreadCount());
+        assertEquals("again", inbox.get(1).detail());
+
+        inboxWriter.markRead(7, 1);
+        assertEquals(0, inbox(7).get(1).unreadCount());
+        assertEquals(1, inbox(7).get(0).unreadCount());
+        assertEquals(5, inbox(8).get(0).unreadCount());
+
+        // the count starts over once everything before it was read
+        inboxWriter.record(1, Type.NEW_MESSAGE, List.of(7), 1, 8, "new");
+        NotificationResponse latest = inbox(7).get(0);
+        assertEquals(1, latest.groupId());
+        assertEquals(1, latest.eventCount());
+        assertEquals(1, latest.unreadCount());
+    }
+
+    private long nextSeq(Integer groupId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT next_seq FROM group_notification_seq WHERE group_id = ?", Long.class, groupId);
+    }
+
+    private List<NotificationResponse> inbox(Integer userId) {
+        return notificationRepository.findInbox(userId, PageRequest.of(0, 10));
+    }
+}
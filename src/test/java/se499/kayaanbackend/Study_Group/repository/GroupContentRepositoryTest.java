@@ -0,0 +1,50 @@
+package se499.kayaanbackend.Study_Group.repository;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import se499.kayaanbackend.Study_Group.GroupContent;
+import se499.kayaanbackend.Study_Group.GroupMember;
+import se499.kayaanbackend.Study_Group.security.ContentAuthorization;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class GroupContentRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private GroupContentRepository groupContentRepository;
+
+    @Test
+    void findAuthorizationJoinsTheCallersMembership() {
+        GroupContent content = entityManager.persist(GroupContent.builder()
+                .groupId(7)
+                .uploaderId(1)
+                .title("notes")
+                .fileName("notes.pdf")
+                .fileUrl("https://example.test/notes.pdf")
+                .mimeType("application/pdf")
+                .fileSize(10L)
+                .createdAt(LocalDateTime.now())
+                .build());
+        entityManager.persist(GroupMember.builder().groupId(7).userId(2).role(GroupMember.Role.admin).build());
+        entityManager.flush();
+
+        ContentAuthorization member = groupContentRepository.findAuthorization(content.getId(), 2).orElseThrow();
+        assertEquals(7, member.groupId());
+        assertEquals(1, member.uploaderId());
+        assertEquals(GroupMember.Role.admin, member.role());
+
+        ContentAuthorization outsider = groupContentRepository.findAuthorization(content.getId(), 3).orElseThrow();
+        assertFalse(outsider.isMember());
+
+        assertTrue(groupContentRepository.findAuthorization(content.getId() + 1, 2).isEmpty());
+    }
+}
@@ -0,0 +1,67 @@
+package se499.kayaanbackend.Study_Group.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import se499.kayaanbackend.Study_Group.StudyGroup;
+import se499.kayaanbackend.Study_Group.dto.MessageResponse;
+import se499.kayaanbackend.Study_Group.entity.GroupMessage;
+import se499.kayaanbackend.security.user.User;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class GroupMessageRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private GroupMessageRepository groupMessageRepository;
+
+    @Test
+    void keysetQueriesBreakTiesOnIdWithoutSkippingRows() {
+        User user = entityManager.persist(User.builder().firstname("A").lastname("B").username("ab").email("ab@example.test").build());
+        StudyGroup group = entityManager.persist(StudyGroup.builder().name("g").owner(user)
+                .createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now()).build());
+
+        // ข้อความสามข้อความแรกมี created_at เท่ากัน ต้องแยกกันด้วย id
+        LocalDateTime same = LocalDateTime.of(2025, 8, 10, 12, 0);
+        GroupMessage m1 = persist(group, user, same);
+        GroupMessage m2 = persist(group, user, same);
+        GroupMessage m3 = persist(group, user, same);
+        GroupMessage m4 = persist(group, user, same.plusSeconds(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        PageRequest two = PageRequest.of(0, 2);
+        MessageResponse newest = groupMessageRepository.findLatest(group.getId(), two).get(0);
+        assertEquals(group.getId(), newest.groupId());
+        assertEquals(user.getId(), newest.userId());
+        assertEquals("A B", newest.userName());
+
+        assertEquals(List.of(m4.getId(), m3.getId()), ids(groupMessageRepository.findLatest(group.getId(), two)));
+        assertEquals(List.of(m2.getId(), m1.getId()),
+                ids(groupMessageRepository.findBefore(group.getId(), same, m3.getId(), two)));
+        assertEquals(List.of(m2.getId(), m3.getId()),
+                ids(groupMessageRepository.findAfter(group.getId(), same, m1.getId(), two)));
+        assertTrue(groupMessageRepository.findAfter(group.getId(), m4.getCreatedAt(), m4.getId(), two).isEmpty());
+    }
+
+    private GroupMessage persist(StudyGroup group, User user, LocalDateTime createdAt) {
+        GroupMessage message = entityManager.persist(GroupMessage.builder()
+                .studyGroup(group).user(user).content("hi").build());
+        message.setCreatedAt(createdAt);
+        return message;
+    }
+
+    private static List<Long> ids(List<MessageResponse> messages) {
+        return messages.stream().map(MessageResponse::id).toList();
+    }
+}
@@ -0,0 +1,65 @@
+package se499.kayaanbackend.Study_Group.security;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import se499.kayaanbackend.Study_Group.GroupMember;
+import se499.kayaanbackend.shared.realtime.RealtimeBus;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class GroupMembershipCacheTest {
+
+    private final RealtimeBus realtimeBus = mock(RealtimeBus.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GroupMembershipCache cache = new GroupMembershipCache(60_000, 60_000, 100, realtimeBus, meterRegistry);
+
+    @Test
+    void cachesMembersAndNonMembers() {
+        GroupMember member = GroupMember.builder().groupId(1).userId(2).role(GroupMember.Role.admin).build();
+        assertFalse(cache.lookup(1, 2).hit());
+
+        cache.put(1, 2, Optional.of(member));
+        cache.put(1, 3, Optional.empty());
+
+        Optional<GroupMember> cached = cache.lookup(1, 2).member();
+        assertEquals(GroupMember.Role.admin, cached.orElseThrow().getRole());
+        assertNotSame(member, cached.get());
+        assertEquals(new GroupMembershipCache.Lookup(true, Optional.empty()), cache.lookup(1, 3));
+
+        assertEquals(1.0, meterRegistry.get("group.membership.cache.lookups").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("group.membership.cache.lookups").tag("result", "negative_hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("group.membership.cache.lookups").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void invalidationIsBroadcastAndAppliedLocally() {
+        cache.put(1, 2, Optional.empty());
+        cache.put(1, 3, Optional.empty());
+        cache.put(4, 2, Optional.empty());
+
+        cache.invalidate(1, 2);
+        assertFalse(cache.lookup(1, 2).hit());
+        verify(realtimeBus).publish(GroupMembershipCache.INVALIDATION_CHANNEL, new GroupMembershipCache.Invalidation(1, 2));
+
+        cache.evictLocally(new GroupMembershipCache.Invalidation(1, null));
+        assertFalse(cache.lookup(1, 3).hit());
+        assertTrue(cache.lookup(4, 2).hit());
+        verifyNoMoreInteractions(realtimeBus);
+    }
+
+    @Test
+    void loadersFillMissesOnly() {
+        assertEquals(Optional.empty(), cache.get(1, 2, Optional::empty));
+        assertEquals(Optional.empty(), cache.get(1, 2, () -> fail("served from the cache")));
+
+        assertEquals(List.of(2, 3), cache.roster(1, () -> List.of(2, 3)));
+        assertEquals(List.of(2, 3), cache.roster(1, () -> fail("served from the cache")));
+        cache.invalidate(1, 2);
+        assertEquals(List.of(2), cache.roster(1, () -> List.of(2)));
+    }
+}
@@ -0,0 +1,39 @@
+package se499.kayaanbackend.Study_Group.security;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.Test;
+
+import se499.kayaanbackend.Study_Group.GroupMember;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupRoleTest {
+
+    @Test
+    void maskMatchesTheDeclaredPermissions() {
+        for (GroupRole role : GroupRole.values()) {
+            EnumSet<GroupPermission> declared = EnumSet.noneOf(GroupPermission.class);
+            declared.addAll(Arrays.asList(role.getPermissions()));
+            assertEquals(declared, role.getPermissionSet(), role.name());
+            for (GroupPermission permission : GroupPermission.values()) {
+                assertEquals(declared.contains(permission), role.hasPermission(permission), role + " " + permission);
+            }
+        }
+    }
+
+    @Test
+    void hasAllRequiresEveryBit() {
+        long moderation = GroupPermission.maskOf(GroupPermission.MODERATE_CONTENT, GroupPermission.VIEW_GROUP);
+        assertTrue(GroupRole.MODERATOR.hasAll(moderation));
+        assertFalse(GroupRole.MEMBER.hasAll(moderation));
+        assertEquals(EnumSet.of(GroupPermission.VIEW_GROUP), GroupPermission.fromMask(GroupRole.MEMBER.mask() & moderation));
+    }
+
+    @Test
+    void mapsMemberRoles() {
+        assertEquals(GroupRole.ADMIN, GroupRole.of(GroupMember.Role.admin));
+        assertEquals(GroupRole.MEMBER, GroupRole.of(GroupMember.Role.member));
+    }
+}
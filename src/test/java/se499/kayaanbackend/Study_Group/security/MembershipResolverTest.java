@@ -0,0 +1,104 @@
+package se499.kayaanbackend.Study_Group.security;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import se499.kayaanbackend.Study_Group.GroupMember;
+import se499.kayaanbackend.Study_Group.repository.GroupMemberRepository;
+import se499.kayaanbackend.shared.realtime.RealtimeBus;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MembershipResolverTest {
+
+    private final GroupMemberRepository repository = mock(GroupMemberRepository.class);
+    private final GroupMembershipCache cache =
+            spy(new GroupMembershipCache(60_000, 60_000, 100, mock(RealtimeBus.class), new SimpleMeterRegistry()));
+    private final MembershipResolver resolver = new MembershipResolver(repository, cache);
+
+    @AfterEach
+    void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void loadsEachPairOncePerRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        GroupMember member = GroupMember.builder().groupId(1).userId(2).role(GroupMember.Role.admin).build();
+        when(repository.findByGroupIdAndUserId(1, 2)).thenReturn(Optional.of(member));
+        when(repository.findByGroupIdAndUserId(1, 3)).thenReturn(Optional.empty());
+
+        assertTrue(resolver.isMember(1, 2));
+        assertEquals(GroupMember.Role.admin, resolver.role(1, 2));
+        assertFalse(resolver.isMember(1, 3));
+        assertFalse(resolver.isMember(1, 3));
+
+        verify(repository, times(1)).findByGroupIdAndUserId(1, 2);
+        verify(repository, times(1)).findByGroupIdAndUserId(1, 3);
+
+        resolver.remember(GroupMember.builder().groupId(1).userId(3).build());
+        assertTrue(resolver.isMember(1, 3));
+        resolver.forget(1, 2);
+        when(repository.findByGroupIdAndUserId(1, 2)).thenReturn(Optional.empty());
+        assertFalse(resolver.isMember(1, 2));
+    }
+
+    @Test
+    void usesOnlyTheCacheOutsideARequest() {
+        when(repository.findByGroupIdAndUserId(1, 2)).thenReturn(Optional.empty());
+
+        resolver.isMember(1, 2);
+        resolver.isMember(1, 2);
+
+        verify(repository, times(1)).findByGroupIdAndUserId(1, 2);
+        verify(cache, times(1)).put(1, 2, Optional.empty());
+        verify(cache, times(2)).lookup(1, 2);
+    }
+
+    @Test
+    void findAllLoadsOnlyTheCacheMissesInOneQuery() {
+        cache.put(1, 2, Optional.empty());
+        when(repository.findByUserIdAndGroupIdIn(2, List.of(3, 4)))
+                .thenReturn(List.of(GroupMember.builder().groupId(3).userId(2).role(GroupMember.Role.member).build()));
+
+        Map<Integer, Optional<GroupMember>> members = resolver.findAll(2, List.of(1, 3, 4));
+
+        assertEquals(List.of(1, 3, 4), List.copyOf(members.keySet()));
+        assertTrue(members.get(1).isEmpty());
+        assertTrue(members.get(3).isPresent());
+        assertTrue(members.get(4).isEmpty());
+        assertFalse(cache.lookup(4, 2).member().isPresent());
+        assertTrue(cache.lookup(4, 2).hit());
+    }
+
+    @Test
+    void writesInvalidateTheSharedCache() {
+        resolver.remember(GroupMember.builder().groupId(1).userId(2).build());
+        resolver.forget(1, 3);
+        resolver.forgetGroup(4);
+
+        verify(cache).invalidate(1, 2);
+        verify(cache).invalidate(1, 3);
+        verify(cache).invalidateGroup(4);
+    }
+
+    @Test
+    void rostersAreReadThroughTheCache() {
+        when(repository.findUserIdsByGroupId(1)).thenReturn(List.of(2, 3));
+
+        assertEquals(List.of(2, 3), resolver.memberIds(1));
+        verify(cache).putRoster(1, List.of(2, 3));
+
+        assertEquals(List.of(2, 3), resolver.memberIds(1));
+        verify(repository, times(1)).findUserIdsByGroupId(1);
+    }
+}
@@ -0,0 +1,184 @@
+package se499.kayaanbackend.Study_Group.security.ratelimit;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import se499.kayaanbackend.shared.realtime.RealtimeBus;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddedRateLimitStoreTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private final AtomicLong clock = new AtomicLong(RateLimiterEngine.EPOCH_MILLIS + 10 * MINUTE);
+    private final EmbeddedRateLimitStore.SharedCounters counters = new EmbeddedRateLimitStore.SharedCounters();
+
+    private static RateLimitProperties properties(long limit, int leaseSize) {
+        RateLimitProperties properties = new RateLimitProperties();
+        for (RateLimitAction action : RateLimitAction.values()) {
+            RateLimitProperties.ActionLimit actionLimit = new RateLimitProperties.ActionLimit();
+            actionLimit.setLimit(limit);
+            actionLimit.setWindow(Duration.ofMillis(MINUTE));
+            properties.getActions().put(action, actionLimit);
+        }
+        properties.setLeaseSize(leaseSize);
+        properties.setLeaseIdle(Duration.ofSeconds(5));
+        return properties;
+    }
+
+    private EmbeddedRateLimitStore node(RateLimitProperties properties) {
+        return new EmbeddedRateLimitStore(properties, counters, clock::get);
+    }
+
+    @Test
+    void nodesShareOneLimitAndCallTheStoreOncePerLease() {
+        RateLimitProperties properties = properties(100, 10);
+        EmbeddedRateLimitStore first = node(properties);
+        EmbeddedRateLimitStore second = node(properties);
+
+        int allowed = 0;
+        for (int i = 0; i < 100; i++) {
+            EmbeddedRateLimitStore node = i % 2 == 0 ? first : second;
+            if (node.tryAcquire(RateLimitAction.SEND_MESSAGE, 1, 1).allowed()) {
+                allowed++;
+            }
+        }
+        assertEquals(100, allowed);
+        assertEquals(10, counters.roundTrips());
+        assertFalse(first.tryAcquire(RateLimitAction.SEND_MESSAGE, 1, 1).allowed());
+        assertFalse(second.tryAcquire(RateLimitAction.SEND_MESSAGE, 1, 1).allowed());
+    }
+
+    @Test
+    void idleLeasesHandTheirPermitsBack() {
+        RateLimitProperties properties = properties(100, 10);
+        EmbeddedRateLimitStore first = node(properties);
+        EmbeddedRateLimitStore second = node(properties);
+
+        assertTrue(first.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1).allowed());
+        for (int i = 0; i < 90; i++) {
+            assertTrue(second.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1).allowed());
+        }
+        // the first node holds the rest of the quota in its lease
+        assertFalse(second.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1).allowed());
+        assertEquals(9, first.snapshot(1, 1).get(RateLimitAction.POST_CONTENT).remaining());
+
+        clock.addAndGet(10_000);
+        assertEquals(1, first.evictIdle());
+        assertEquals(91, counters.used(new LeasedRateLimitStore.Counter(
+                RateLimitAction.POST_CONTENT, 1, 1, RateLimiterEngine.EPOCH_MILLIS + 10 * MINUTE)));
+        assertEquals(9, second.snapshot(1, 1).get(RateLimitAction.POST_CONTENT).remaining());
+        for (int i = 0; i < 9; i++) {
+            assertTrue(second.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1).allowed());
+        }
+        assertFalse(second.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1).allowed());
+    }
+
+    @Test
+    void leasesAreATenthOfTheLimitAtMost() {
+        EmbeddedRateLimitStore first = node(properties(5, 10));
+        EmbeddedRateLimitStore second = node(properties(5, 10));
+
+        assertTrue(first.tryAcquire(RateLimitAction.CREATE_GROUP, 1, 0).allowed());
+        // one permit per lease, so the first node keeps nothing back from the second
+        for (int i = 0; i < 4; i++) {
+            assertTrue(second.tryAcquire(RateLimitAction.CREATE_GROUP, 1, 0).allowed());
+        }
+        assertFalse(second.tryAcquire(RateLimitAction.CREATE_GROUP, 1, 0).allowed());
+        assertFalse(first.tryAcquire(RateLimitAction.CREATE_GROUP, 1, 0).allowed());
+    }
+
+    @Test
+    void aRefusedNodeGetsThePermitsOtherNodesHold() {
+        RateLimitProperties properties = properties(100, 10);
+        EmbeddedRateLimitStore first = node(properties);
+        EmbeddedRateLimitStore second = node(properties);
+        RecordingBus bus = new RecordingBus();
+        first.shareRefusals(bus);
+        second.shareRefusals(bus);
+
+        assertTrue(first.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1).allowed());
+        for (int i = 0; i < 90; i++) {
+            assertTrue(second.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1).allowed());
+        }
+        // the refusal is announced, and the first node returns its nine unused permits
+        assertFalse(second.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1).allowed());
+        assertEquals(1, bus.published);
+        for (int i = 0; i < 9; i++) {
+            assertTrue(second.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1).allowed());
+        }
+        assertFalse(second.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1).allowed());
+        assertFalse(first.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1).allowed());
+        // each node announces once until it is granted permits again
+        assertFalse(second.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1).allowed());
+        assertEquals(3, bus.published);
+    }
+
+    @Test
+    void snapshotsReadUserScopedActionsUnderTheKeyTheyWereConsumedWith() {
+        EmbeddedRateLimitStore first = node(properties(5, 1));
+        EmbeddedRateLimitStore second = node(properties(5, 1));
+
+        assertTrue(first.tryAcquire(RateLimitAction.CREATE_GROUP, 1, 0).allowed());
+        assertTrue(first.tryAcquire(RateLimitAction.CREATE_GROUP, 1, 3).allowed());
+        assertTrue(first.tryAcquire(RateLimitAction.CREATE_INVITE, 1, 3).allowed());
+
+        RateLimitSnapshot snapshot = second.snapshot(1, 3);
+        assertEquals(3, snapshot.get(RateLimitAction.CREATE_GROUP).remaining());
+        assertEquals(4, snapshot.get(RateLimitAction.CREATE_INVITE).remaining());
+        assertEquals(3, second.snapshot(1, 0).get(RateLimitAction.CREATE_GROUP).remaining());
+        assertEquals(5, second.snapshot(1, 4).get(RateLimitAction.CREATE_INVITE).remaining());
+    }
+
+    @Test
+    void aNewWindowStartsFromZero() {
+        EmbeddedRateLimitStore node = node(properties(3, 10));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(node.tryAcquire(RateLimitAction.UPLOAD_FILE, 1, 1).allowed());
+        }
+        RateLimitDecision rejected = node.tryAcquire(RateLimitAction.UPLOAD_FILE, 1, 1);
+        assertFalse(rejected.allowed());
+        assertEquals(RateLimiterEngine.EPOCH_MILLIS + 11 * MINUTE, rejected.resetAtMillis());
+
+        clock.addAndGet(MINUTE);
+        assertTrue(node.tryAcquire(RateLimitAction.UPLOAD_FILE, 1, 1).allowed());
+        node.evictIdle();
+        assertEquals(0, counters.used(new LeasedRateLimitStore.Counter(
+                RateLimitAction.UPLOAD_FILE, 1, 1, RateLimiterEngine.EPOCH_MILLIS + 10 * MINUTE)));
+    }
+
+    /** Delivers every message to every handler on the publishing thread. */
+    private static final class RecordingBus implements RealtimeBus {
+
+        private final List<MessageHandler> handlers = new CopyOnWriteArrayList<>();
+        private int published;
+
+        @Override
+        public void publish(String channel, Object message) {
+            published++;
+            for (MessageHandler handler : handlers) {
+                handler.handle(channel, message);
+            }
+        }
+
+        @Override
+        public void subscribe(String channel, MessageHandler handler) {
+            handlers.add(handler);
+        }
+
+        @Override
+        public void unsubscribe(String channel) {
+            handlers.clear();
+        }
+
+        @Override
+        public void unsubscribe(String channel, MessageHandler handler) {
+            handlers.remove(handler);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package se499.kayaanbackend.Study_Group.security.ratelimit;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterEngineTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private final AtomicLong clock = new AtomicLong(RateLimiterEngine.EPOCH_MILLIS + 10 * MINUTE);
+
+    private RateLimiterEngine engine(RateLimitPolicy policy) {
+        Map<RateLimitAction, RateLimitPolicy> policies = new EnumMap<>(RateLimitAction.class);
+        for (RateLimitAction action : RateLimitAction.values()) {
+            policies.put(action, policy);
+        }
+        return new RateLimiterEngine(policies, clock::get);
+    }
+
+    @Test
+    void slidingWindowAllowsExactlyTheLimitUnderContention() throws Exception {
+        RateLimiterEngine engine = engine(new SlidingWindowPolicy(1_000, MINUTE));
+        int threads = 8;
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 500; i++) {
+                    if (engine.tryAcquire(RateLimitAction.SEND_MESSAGE, 7, 3).allowed()) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1_000, allowed.get());
+    }
+
+    @Test
+    void slidingWindowWeighsThePreviousWindow() {
+        RateLimiterEngine engine = engine(new SlidingWindowPolicy(10, MINUTE));
+        for (int i = 0; i < 10; i++) {
+            assertTrue(engine.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1).allowed());
+        }
+        assertFalse(engine.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1).allowed());
+
+        // halfway through the next window half of the previous count still applies
+        clock.addAndGet(MINUTE + MINUTE / 2);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(engine.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1).allowed());
+        }
+        RateLimitDecision rejected = engine.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1);
+        assertFalse(rejected.allowed());
+        assertEquals(0, rejected.remaining());
+        assertTrue(rejected.resetAtMillis() > clock.get());
+    }
+
+    @Test
+    void slidingWindowAllowsARetryExactlyAtResetAt() {
+        RateLimiterEngine engine = engine(new SlidingWindowPolicy(10, MINUTE));
+        for (int i = 0; i < 10; i++) {
+            assertTrue(engine.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1).allowed());
+        }
+        // a full window only makes room once it has slid partly out of view
+        RateLimitDecision full = engine.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1);
+        assertFalse(full.allowed());
+        clock.set(full.resetAtMillis() - 1);
+        assertFalse(engine.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1).allowed());
+        clock.set(full.resetAtMillis());
+        assertTrue(engine.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1).allowed());
+
+        // fill the rest of what the weighted previous window leaves, then retry at the reported time
+        while (engine.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1).allowed()) {
+            // keep consuming
+        }
+        RateLimitDecision weighted = engine.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1);
+        assertFalse(weighted.allowed());
+        clock.set(weighted.resetAtMillis() - 1);
+        assertFalse(engine.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1).allowed());
+        clock.set(weighted.resetAtMillis());
+        assertTrue(engine.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1).allowed());
+    }
+
+    @Test
+    void keysAreIndependent() {
+        RateLimiterEngine engine = engine(new SlidingWindowPolicy(1, MINUTE));
+        assertTrue(engine.tryAcquire(RateLimitAction.SEND_MESSAGE, 1, 1).allowed());
+        assertTrue(engine.tryAcquire(RateLimitAction.SEND_MESSAGE, 1, 2).allowed());
+        assertTrue(engine.tryAcquire(RateLimitAction.SEND_MESSAGE, 2, 1).allowed());
+        assertTrue(engine.tryAcquire(RateLimitAction.POST_CONTENT, 1, 1).allowed());
+        assertFalse(engine.tryAcquire(RateLimitAction.SEND_MESSAGE, 1, 1).allowed());
+    }
+
+    @Test
+    void userScopedActionsAreSharedAcrossGroupsAndShowInEverySnapshot() {
+        RateLimiterEngine engine = engine(new SlidingWindowPolicy(2, MINUTE));
+        assertTrue(engine.tryAcquire(RateLimitAction.CREATE_GROUP, 1, 0).allowed());
+        assertTrue(engine.tryAcquire(RateLimitAction.CREATE_GROUP, 1, 5).allowed());
+        assertFalse(engine.tryAcquire(RateLimitAction.CREATE_GROUP, 1, 9).allowed());
+
+        assertFalse(engine.snapshot(1, 0).get(RateLimitAction.CREATE_GROUP).allowed());
+        assertEquals(0, engine.snapshot(1, 7).get(RateLimitAction.CREATE_GROUP).remaining());
+        assertEquals(2, engine.snapshot(1, 7).get(RateLimitAction.CREATE_INVITE).remaining());
+    }
+
+    @Test
+    void tokenBucketRefillsAtTheConfiguredRate() {
+        RateLimiterEngine engine = engine(new TokenBucketPolicy(3, 1, 1_000));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(engine.tryAcquire(RateLimitAction.UPLOAD_FILE, 1, 1).allowed());
+        }
+        RateLimitDecision rejected = engine.tryAcquire(RateLimitAction.UPLOAD_FILE, 1, 1);
+        assertFalse(rejected.allowed());
+        assertEquals(clock.get() + 1_000, rejected.resetAtMillis());
+
+        clock.addAndGet(1_500);
+        assertTrue(engine.tryAcquire(RateLimitAction.UPLOAD_FILE, 1, 1).allowed());
+        // the half token left over from the previous refill carries into the next one
+        clock.addAndGet(500);
+        assertTrue(engine.tryAcquire(RateLimitAction.UPLOAD_FILE, 1, 1).allowed());
+        assertFalse(engine.tryAcquire(RateLimitAction.UPLOAD_FILE, 1, 1).allowed());
+    }
+
+    @Test
+    void evictsOnlyKeysBackToInitialState() {
+        RateLimiterEngine engine = engine(new SlidingWindowPolicy(5, MINUTE));
+        engine.tryAcquire(RateLimitAction.SEND_MESSAGE, 1, 1);
+        assertEquals(0, engine.evictIdle());
+        assertEquals(1, engine.size());
+
+        clock.addAndGet(2 * MINUTE);
+        assertEquals(1, engine.evictIdle());
+        assertEquals(0, engine.size());
+        assertTrue(engine.tryAcquire(RateLimitAction.SEND_MESSAGE, 1, 1).allowed());
+    }
+
+    @Test
+    void snapshotDoesNotConsumeQuota() {
+        RateLimiterEngine engine = engine(new SlidingWindowPolicy(2, MINUTE));
+        engine.tryAcquire(RateLimitAction.SEND_MESSAGE, 1, 1);
+
+        for (int i = 0; i < 10; i++) {
+            RateLimitSnapshot snapshot = engine.snapshot(1, 1);
+            assertEquals(1, snapshot.get(RateLimitAction.SEND_MESSAGE).remaining());
+            assertEquals(2, snapshot.get(RateLimitAction.POST_CONTENT).remaining());
+        }
+        // untouched actions are reported without creating keys
+        assertEquals(1, engine.size());
+        assertTrue(engine.tryAcquire(RateLimitAction.SEND_MESSAGE, 1, 1).allowed());
+        assertFalse(engine.snapshot(1, 1).get(RateLimitAction.SEND_MESSAGE).allowed());
+    }
+}
@@ -0,0 +1,32 @@
+package se499.kayaanbackend.infra.supabase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import se499.kayaanbackend.shared.realtime.RealtimeBus.MessageHandler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SupabaseRealtimeAdapterTest {
+
+    private final SupabaseRealtimeAdapter adapter = new SupabaseRealtimeAdapter();
+
+    @Test
+    void unsubscribeRemovesOnlyThatHandler() {
+        List<String> received = new ArrayList<>();
+        MessageHandler first = (channel, message) -> received.add("first:" + message);
+        MessageHandler second = (channel, message) -> received.add("second:" + message);
+        adapter.subscribe("group.1", first);
+        adapter.subscribe("group.1", second);
+
+        adapter.unsubscribe("group.1", first);
+        adapter.notifyLocalSubscribers("group.1", "a");
+        adapter.unsubscribe("group.1", second);
+        adapter.notifyLocalSubscribers("group.1", "b");
+
+        assertEquals(List.of("second:a"), received);
+        assertThrows(NullPointerException.class, () -> adapter.unsubscribe("group.1", null));
+    }
+}
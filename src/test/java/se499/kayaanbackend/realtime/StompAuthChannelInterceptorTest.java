@@ -0,0 +1,74 @@
+package se499.kayaanbackend.realtime;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import se499.kayaanbackend.Study_Group.security.MembershipResolver;
+import se499.kayaanbackend.security.config.JwtAuthenticator;
+import se499.kayaanbackend.security.user.User;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StompAuthChannelInterceptorTest {
+
+    private final JwtAuthenticator jwtAuthenticator = mock(JwtAuthenticator.class);
+    private final MembershipResolver membershipResolver = mock(MembershipResolver.class);
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private final StompAuthChannelInterceptor interceptor =
+            new StompAuthChannelInterceptor(jwtAuthenticator, membershipResolver);
+
+    private final UsernamePasswordAuthenticationToken authentication =
+            new UsernamePasswordAuthenticationToken(User.builder().id(5).build(), null, List.of());
+
+    @Test
+    void connectBindsTheTokensUserToTheSession() {
+        when(jwtAuthenticator.authenticate("good")).thenReturn(Optional.of(authentication));
+
+        StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+        connect.addNativeHeader("Authorization", "Bearer good");
+        Message<?> result = interceptor.preSend(message(connect), channel);
+
+        assertSame(authentication, MessageHeaderAccessor.getAccessor(result, StompHeaderAccessor.class).getUser());
+
+        StompHeaderAccessor anonymous = StompHeaderAccessor.create(StompCommand.CONNECT);
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(message(anonymous), channel));
+
+        StompHeaderAccessor forged = StompHeaderAccessor.create(StompCommand.CONNECT);
+        forged.addNativeHeader("Authorization", "Bearer forged");
+        when(jwtAuthenticator.authenticate("forged")).thenReturn(Optional.empty());
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(message(forged), channel));
+    }
+
+    @Test
+    void onlyMembersMaySubscribeToAGroupTopic() {
+        when(membershipResolver.isMember(42, 5)).thenReturn(true);
+
+        interceptor.preSend(subscribe("/topic/groups/42"), channel);
+        interceptor.preSend(subscribe("/user/queue/errors"), channel);
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(subscribe("/topic/groups/43"), channel));
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(subscribe("/topic/other"), channel));
+    }
+
+    private Message<?> subscribe(String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(destination);
+        accessor.setUser(authentication);
+        return message(accessor);
+    }
+
+    private static Message<?> message(StompHeaderAccessor accessor) {
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,70 @@
+package se499.kayaanbackend.security.config;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import se499.kayaanbackend.security.user.Role;
+import se499.kayaanbackend.security.user.User;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET =
+            "5274a74a32284bf55ed941fdb26517b050c020a43cb0cc66a9d207ac4f26ca644ea3b5fd011cffec733481bf3e68184611f9d7fc2b4a05bb59dff54ffc53ee0c";
+
+    private JwtService jwtService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 120_000L);
+        jwtService.initSigningKey();
+
+        user = User.builder()
+                .id(42)
+                .username("alice")
+                .email("alice@example.com")
+                .enabled(true)
+                .roles(List.of(Role.ROLE_USER))
+                .build();
+    }
+
+    @Test
+    void parseExposesAllClaimsFromOneVerification() {
+        ParsedToken token = jwtService.parse(jwtService.generateToken(user));
+
+        assertEquals("42", token.subject());
+        assertEquals("alice", token.username());
+        assertEquals("alice@example.com", token.email());
+        assertEquals(List.of("ROLE_USER"), token.roles());
+        assertFalse(token.isExpired());
+        assertTrue(jwtService.isTokenValid(token, user));
+    }
+
+    @Test
+    void parseRejectsTamperedToken() {
+        String jwt = jwtService.generateToken(user);
+        String tampered = jwt.substring(0, jwt.length() - 2) + (jwt.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtService.parse(tampered));
+    }
+
+    @Test
+    void tokensIssuedBeforeVersionBumpAreInvalid() {
+        ParsedToken token = jwtService.parse(jwtService.generateToken(user));
+        ParsedToken refresh = jwtService.parse(jwtService.generateRefreshToken(user));
+        assertTrue(refresh.isRefreshToken());
+
+        user.setTokenVersion(user.getTokenVersion() + 1);
+
+        assertFalse(jwtService.isTokenValid(token, user));
+        assertFalse(jwtService.isTokenValid(refresh, user));
+    }
+}
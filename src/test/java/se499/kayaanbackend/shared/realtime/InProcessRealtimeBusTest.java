@@ -0,0 +1,211 @@
+package se499.kayaanbackend.shared.realtime;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import se499.kayaanbackend.shared.realtime.RealtimeBusProperties.ChannelSettings;
+import se499.kayaanbackend.shared.realtime.RealtimeBusProperties.Overflow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InProcessRealtimeBusTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RealtimeBusProperties properties = new RealtimeBusProperties();
+    private InProcessRealtimeBus bus;
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        bus.destroy();
+    }
+
+    @Test
+    void slowSubscriberDoesNotHoldUpPublishersOrOtherSubscribers() throws InterruptedException {
+        properties.setQueueCapacity(2);
+        properties.setOverflow(Overflow.DROP_NEWEST);
+        bus = new InProcessRealtimeBus(properties, meterRegistry);
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        List<Object> fast = new CopyOnWriteArrayList<>();
+        CountDownLatch fastDone = new CountDownLatch(5);
+        bus.subscribe("c", (channel, message) -> {
+            slowStarted.countDown();
+            await(release);
+        });
+        bus.subscribe("c", (channel, message) -> {
+            fast.add(message);
+            fastDone.countDown();
+        });
+
+        long started = System.nanoTime();
+        bus.publish("c", 0);
+        assertTrue(slowStarted.await(2, TimeUnit.SECONDS));
+        for (int i = 1; i < 5; i++) {
+            bus.publish("c", i);
+            awaitDepthBelow(3);          // let the fast subscriber keep up so only the slow one overflows
+        }
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(2));
+        assertTrue(fastDone.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of(0, 1, 2, 3, 4), fast);
+
+        // the slow handler holds 0 and has room for 1 and 2; 3 and 4 are dropped
+        assertEquals(2.0, counter("dropped"));
+        release.countDown();
+    }
+
+    @Test
+    void dropOldestKeepsTheNewestMessages() throws InterruptedException {
+        properties.setQueueCapacity(2);
+        bus = new InProcessRealtimeBus(properties, meterRegistry);
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        List<Object> seen = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+        bus.subscribe("c", (channel, message) -> {
+            started.countDown();
+            await(release);
+            seen.add(message);
+            done.countDown();
+        });
+
+        bus.publish("c", 0);
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        for (int i = 1; i <= 4; i++) {
+            bus.publish("c", i);
+        }
+        release.countDown();
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of(0, 3, 4), seen);
+        assertEquals(2.0, counter("dropped"));
+    }
+
+    @Test
+    void blockingChannelsWaitForRoomThenGiveUp() throws InterruptedException {
+        ChannelSettings settings = new ChannelSettings();
+        settings.setQueueCapacity(1);
+        settings.setOverflow(Overflow.BLOCK);
+        settings.setBlockTimeout(Duration.ofMillis(100));
+        properties.getChannels().put("c", settings);
+        bus = new InProcessRealtimeBus(properties, meterRegistry);
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        bus.subscribe("c", (channel, message) -> {
+            started.countDown();
+            await(release);
+        });
+
+        bus.publish("c", 0);
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        bus.publish("c", 1);
+        long before = System.nanoTime();
+        bus.publish("c", 2);
+        assertTrue(System.nanoTime() - before >= TimeUnit.MILLISECONDS.toNanos(90));
+        assertEquals(1.0, counter("dropped"));
+        release.countDown();
+    }
+
+    @Test
+    void failingHandlersAreCountedAndUnsubscribeStopsDelivery() throws InterruptedException {
+        bus = new InProcessRealtimeBus(properties, meterRegistry);
+        CountDownLatch handled = new CountDownLatch(1);
+        bus.subscribe("c", (channel, message) -> {
+            throw new IllegalStateException("boom");
+        });
+        bus.subscribe("c", (channel, message) -> handled.countDown());
+
+        bus.publish("c", "x");
+        assertTrue(handled.await(2, TimeUnit.SECONDS));
+        awaitCounter("failed", 1.0);
+
+        bus.unsubscribe("c");
+        assertTrue(meterRegistry.find("realtime.bus.messages").tag("channel", "c").meters().isEmpty());
+        assertDoesNotThrow(() -> bus.publish("c", "y"));
+    }
+
+    @Test
+    void wildcardsMatchOneOrTheRestOfTheTokens() throws InterruptedException {
+        bus = new InProcessRealtimeBus(properties, meterRegistry);
+        List<String> anyGroup = new CopyOnWriteArrayList<>();
+        List<String> underGroup42 = new CopyOnWriteArrayList<>();
+        List<String> exact = new CopyOnWriteArrayList<>();
+        bus.subscribe("groups.*", (channel, message) -> anyGroup.add(channel));
+        bus.subscribe("groups.42.>", (channel, message) -> underGroup42.add(channel));
+        bus.subscribe("groups.42", (channel, message) -> exact.add(channel));
+
+        for (String channel : List.of("groups", "groups.42", "groups.7", "groups.42.chat", "groups.42.chat.typing", "users.42")) {
+            bus.publish(channel, "m");
+        }
+
+        awaitSize(anyGroup, 2);
+        awaitSize(underGroup42, 2);
+        awaitSize(exact, 1);
+        assertEquals(List.of("groups.42", "groups.7"), anyGroup);
+        assertEquals(List.of("groups.42.chat", "groups.42.chat.typing"), underGroup42);
+        assertThrows(IllegalArgumentException.class, () -> bus.subscribe("groups.>.chat", (channel, message) -> { }));
+        assertThrows(IllegalArgumentException.class, () -> bus.publish("groups.*", "m"));
+    }
+
+    @Test
+    void unsubscribingOneHandlerKeepsTheOthers() throws InterruptedException {
+        bus = new InProcessRealtimeBus(properties, meterRegistry);
+        List<Object> kept = new CopyOnWriteArrayList<>();
+        List<Object> removed = new CopyOnWriteArrayList<>();
+        RealtimeBus.MessageHandler leaving = (channel, message) -> removed.add(message);
+        bus.subscribe("groups.*", (channel, message) -> kept.add(message));
+        bus.subscribe("groups.*", leaving);
+
+        bus.unsubscribe("groups.*", leaving);
+        bus.publish("groups.1", "after");
+
+        awaitSize(kept, 1);
+        assertTrue(removed.isEmpty());
+    }
+
+    private static void awaitSize(List<?> list, int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (list.size() < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(20);                 // and nothing more arrives
+        assertEquals(size, list.size());
+    }
+
+    private double counter(String result) {
+        return meterRegistry.get("realtime.bus.messages").tag("channel", "c").tag("result", result).counter().count();
+    }
+
+    private void awaitCounter(String result, double expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (counter(result) < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, counter(result));
+    }
+
+    private void awaitDepthBelow(double depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (meterRegistry.get("realtime.bus.queue.depth").tag("channel", "c").gauge().value() >= depth
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
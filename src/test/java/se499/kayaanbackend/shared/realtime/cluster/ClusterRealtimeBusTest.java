@@ -0,0 +1,215 @@
+package se499.kayaanbackend.shared.realtime.cluster;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import se499.kayaanbackend.Study_Group.chat.RecentMessageCache;
+import se499.kayaanbackend.Study_Group.dto.MessageResponse;
+import se499.kayaanbackend.Study_Group.security.GroupMembershipCache;
+import se499.kayaanbackend.Study_Group.security.ratelimit.LeasedRateLimitStore;
+import se499.kayaanbackend.Study_Group.security.ratelimit.RateLimitAction;
+import se499.kayaanbackend.shared.realtime.InProcessRealtimeBus;
+import se499.kayaanbackend.shared.realtime.RealtimeBusProperties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterRealtimeBusTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final List<AutoCloseable> started = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() throws Exception {
+        for (int i = started.size() - 1; i >= 0; i--) {
+            started.get(i).close();
+        }
+    }
+
+    @Test
+    void loopbackDeliversToOtherNodesInOrderWithoutEcho() throws InterruptedException {
+        LoopbackClusterTransport.Hub hub = new LoopbackClusterTransport.Hub();
+        ClusterRealtimeBus a = node(new ClusterProperties(), properties -> new LoopbackClusterTransport(hub));
+        ClusterRealtimeBus b = node(new ClusterProperties(), properties -> new LoopbackClusterTransport(hub));
+
+        List<Object> onA = new CopyOnWriteArrayList<>();
+        List<Object> onB = new CopyOnWriteArrayList<>();
+        a.subscribe("groups.*.chat", (channel, message) -> onA.add(message));
+        b.subscribe("groups.*.chat", (channel, message) -> onB.add(message));
+
+        List<Object> published = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            MessageResponse message = message(id);
+            published.add(message);
+            a.publish("groups.1.chat", message);
+        }
+
+        awaitSize(onB, 200);
+        awaitSize(onA, 200);
+        assertEquals(published, onB);
+        assertEquals(published, onA);
+    }
+
+    @Test
+    void onlyForwardsMatchingChannels() throws InterruptedException {
+        LoopbackClusterTransport.Hub hub = new LoopbackClusterTransport.Hub();
+        ClusterProperties forwardGroups = new ClusterProperties();
+        forwardGroups.setForward(List.of("groups.>"));
+        ClusterRealtimeBus a = node(forwardGroups, properties -> new LoopbackClusterTransport(hub));
+        ClusterRealtimeBus b = node(new ClusterProperties(), properties -> new LoopbackClusterTransport(hub));
+
+        List<String> onB = new CopyOnWriteArrayList<>();
+        b.subscribe(">", (channel, message) -> onB.add(channel));
+        a.publish("local.only", message(1));
+        a.publish("groups.6.chat", "not a registered payload type");
+        a.publish("groups.7.chat", message(2));
+
+        awaitSize(onB, 1);
+        assertEquals(List.of("groups.7.chat"), onB);
+    }
+
+    @Test
+    void tcpTransportConnectsPeers() throws Exception {
+        int portA = freePort();
+        int portB = freePort();
+        ClusterProperties propertiesA = tcp(portA, portB);
+        ClusterProperties propertiesB = tcp(portB, portA);
+        ClusterRealtimeBus a = node(propertiesA, properties -> new TcpClusterTransport(properties, new SimpleMeterRegistry()));
+        ClusterRealtimeBus b = node(propertiesB, properties -> new TcpClusterTransport(properties, new SimpleMeterRegistry()));
+
+        List<Object> onA = new CopyOnWriteArrayList<>();
+        List<Object> onB = new CopyOnWriteArrayList<>();
+        a.subscribe("groups.2.chat", (channel, message) -> onA.add(message));
+        b.subscribe("groups.2.chat", (channel, message) -> onB.add(message));
+
+        a.publish("groups.2.chat", message(1));
+        b.publish("groups.2.chat", message(2));
+
+        awaitSize(onA, 2);
+        awaitSize(onB, 2);
+        assertTrue(onA.containsAll(List.of(message(1), message(2))));
+        assertTrue(onB.containsAll(List.of(message(1), message(2))));
+    }
+
+    @Test
+    void tcpTransportClosesConnectionsThatFailAuthentication() throws Exception {
+        int portA = freePort();
+        ClusterRealtimeBus a = node(tcp(portA, freePort()),
+                properties -> new TcpClusterTransport(properties, new SimpleMeterRegistry()));
+        List<Object> onA = new CopyOnWriteArrayList<>();
+        a.subscribe(">", (channel, message) -> onA.add(message));
+
+        ClusterEnvelopeCodec codec = new ClusterEnvelopeCodec(objectMapper);
+        byte[] frame = codec.encode(new ClusterEnvelopeCodec.Envelope("intruder",
+                List.of(new ClusterEnvelopeCodec.Message("groups.1.chat", message(1)))));
+        try (Socket socket = new Socket("127.0.0.1", portA)) {
+            socket.setSoTimeout(2_000);
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            in.readFully(new byte[16]);
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeInt(frame.length);
+            out.write(new byte[32]);                  // signed without the secret
+            out.write(frame);
+            out.flush();
+            assertEquals(-1, in.read());               // closed by the receiving node
+        }
+        awaitSize(onA, 0);
+    }
+
+    @Test
+    void tcpTransportNeedsASecret() {
+        ClusterProperties properties = new ClusterProperties();
+        assertThrows(IllegalStateException.class, () -> new TcpClusterTransport(properties, new SimpleMeterRegistry()));
+        properties.setSecret("too short");
+        assertThrows(IllegalStateException.class, () -> new TcpClusterTransport(properties, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void codecRoundTripsCachePayloadsAndRefusesForeignTypes() throws IOException {
+        ClusterEnvelopeCodec codec = new ClusterEnvelopeCodec(objectMapper);
+        List<ClusterEnvelopeCodec.Message> messages = List.of(
+                new ClusterEnvelopeCodec.Message("cluster.membership.invalidate", new GroupMembershipCache.Invalidation(1, null)),
+                new ClusterEnvelopeCodec.Message("cluster.chat.recent", new RecentMessageCache.Change(1, message(3), 3L)),
+                new ClusterEnvelopeCodec.Message("cluster.ratelimit.refused", new LeasedRateLimitStore.Counter(
+                        RateLimitAction.CREATE_GROUP, 7, 0, 60_000)));
+
+        ClusterEnvelopeCodec.Envelope decoded = codec.decode(codec.encode(new ClusterEnvelopeCodec.Envelope("n1", messages)));
+
+        assertEquals("n1", decoded.origin());
+        assertEquals(messages, decoded.messages());
+
+        assertFalse(codec.supports(new java.util.Date(0)));
+        assertThrows(IllegalArgumentException.class, () -> codec.encode(new ClusterEnvelopeCodec.Envelope("n1",
+                List.of(new ClusterEnvelopeCodec.Message("x", new java.util.Date(0))))));
+        // a class name is not a registered type, so it is skipped rather than loaded
+        byte[] forged = ("{\"origin\":\"n2\",\"messages\":[{\"channel\":\"x\",\"type\":\"java.util.Date\",\"payload\":0},"
+                + "{\"channel\":\"y\",\"type\":\"membership.invalidation\",\"payload\":{\"groupId\":2}}]}")
+                .getBytes(StandardCharsets.UTF_8);
+        assertEquals(List.of(new ClusterEnvelopeCodec.Message("y", new GroupMembershipCache.Invalidation(2, null))),
+                codec.decode(forged).messages());
+    }
+
+    @Test
+    void patternsFollowSubscriptionRules() {
+        assertTrue(ClusterRealtimeBus.matches(new String[] { ">" }, new String[] { "a" }));
+        assertTrue(ClusterRealtimeBus.matches(new String[] { "groups", "*" }, new String[] { "groups", "1" }));
+        assertFalse(ClusterRealtimeBus.matches(new String[] { "groups", "*" }, new String[] { "groups", "1", "chat" }));
+        assertFalse(ClusterRealtimeBus.matches(new String[] { "groups", ">" }, new String[] { "groups" }));
+    }
+
+    private ClusterRealtimeBus node(ClusterProperties properties, Function<ClusterProperties, ClusterTransport> transport) {
+        properties.setLinger(Duration.ofMillis(1));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InProcessRealtimeBus local = new InProcessRealtimeBus(new RealtimeBusProperties(), meterRegistry);
+        ClusterRealtimeBus bus = new ClusterRealtimeBus(local, transport.apply(properties), properties, objectMapper, meterRegistry);
+        started.add(local::destroy);
+        started.add(bus::destroy);
+        return bus;
+    }
+
+    private static ClusterProperties tcp(int port, int peerPort) {
+        ClusterProperties properties = new ClusterProperties();
+        properties.setBindHost("127.0.0.1");
+        properties.setPort(port);
+        properties.setPeers(List.of("127.0.0.1:" + peerPort));
+        properties.setReconnectBackoff(Duration.ofMillis(50));
+        properties.setSecret("0123456789abcdef0123456789abcdef");
+        return properties;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static MessageResponse message(long id) {
+        LocalDateTime at = LocalDateTime.of(2025, 8, 10, 12, 0).plusSeconds(id);
+        return new MessageResponse(id, 1, 7, "A B", "m" + id, "text", at, at);
+    }
+
+    private static void awaitSize(List<?> list, int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (list.size() < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);                 // and nothing more arrives
+        assertEquals(size, list.size());
+    }
+}